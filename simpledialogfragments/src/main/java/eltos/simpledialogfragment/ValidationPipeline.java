@@ -0,0 +1,260 @@
+/*
+ *  Copyright 2026 Philipp Niedermayer (github.com/eltos)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package eltos.simpledialogfragment;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.util.LruCache;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.HashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Runs slow input validations, e.g. database or network lookups, on a background executor
+ * rather than on the main thread. Used by dialogs supporting asynchronous input validators.
+ * <p>
+ * Validations are debounced while the user is typing and validations of outdated values
+ * are cancelled. Results are cached per field and value, so that validating a value again,
+ * e.g. when the positive button is pressed, returns immediately. Failed validations are not
+ * cached, their values remain without result until they are validated again.
+ * <p>
+ * All methods must be called from the main thread, and the {@link Listener} is notified on
+ * the main thread as well.
+ */
+public class ValidationPipeline {
+
+    private static final String TAG = "ValidationPipeline";
+
+    /**
+     * The default delay after the last change before a value is validated
+     */
+    public static final long DEFAULT_DEBOUNCE_MS = 300;
+
+    private static final int MAX_CACHED = 100;
+
+    public interface Validator {
+        /**
+         * Validates a value. This method is called from a background thread and may block.
+         * If the validation is cancelled, the thread is interrupted.
+         *
+         * @param key the key of the field
+         * @param value the value to validate
+         * @return the error message to display or null if the value is valid
+         * @throws Exception if the validation failed, in which case the value remains
+         *                   without result, see {@link ValidationPipeline#hasResult}
+         */
+        @Nullable String validate(@NonNull String key, @Nullable String value) throws Exception;
+    }
+
+    public interface Listener {
+        /**
+         * Called when a value was validated and it is still the current value of its field.
+         * Not called if the validation failed.
+         *
+         * @param key the key of the field
+         * @param value the value
+         * @param error the error message or null if the value is valid
+         */
+        void onValidated(@NonNull String key, @Nullable String value, @Nullable String error);
+
+        /**
+         * Called when the first validation is scheduled or the last one finished
+         *
+         * @param pending whether validations are outstanding
+         */
+        void onPendingChanged(boolean pending);
+    }
+
+    private static class Result {
+        final @Nullable String error;
+        Result(@Nullable String error){
+            this.error = error;
+        }
+    }
+
+    private class Validation implements Runnable {
+        final String key;
+        final @Nullable String value;
+        @Nullable FutureTask<String> future;
+
+        Validation(String key, @Nullable String value){
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        public void run() {
+            // debounce period passed
+            future = new FutureTask<>(() -> mValidator.validate(key, value));
+            final FutureTask<String> task = future;
+            mExecutor.execute(() -> {
+                task.run();
+                if (!task.isCancelled()){
+                    mHandler.post(() -> onFinished(this, task));
+                }
+            });
+        }
+
+        void cancel(){
+            mHandler.removeCallbacks(this);
+            if (future != null){
+                future.cancel(true);
+            }
+        }
+    }
+
+    private final Executor mExecutor;
+    private final long mDebounceMs;
+    private final Validator mValidator;
+    private final Listener mListener;
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private final LruCache<String, Result> mCache = new LruCache<>(MAX_CACHED);
+    // the outstanding validation of each field
+    private final HashMap<String, Validation> mPending = new HashMap<>();
+
+    /**
+     * @param executor the executor to run validations on
+     * @param debounceMs the delay after the last change before a value is validated
+     * @param validator the validator
+     * @param listener the listener to notify about results
+     */
+    public ValidationPipeline(@NonNull Executor executor, long debounceMs,
+                              @NonNull Validator validator, @NonNull Listener listener){
+        mExecutor = executor;
+        mDebounceMs = Math.max(0, debounceMs);
+        mValidator = validator;
+        mListener = listener;
+    }
+
+    private static String cacheKey(String key, @Nullable String value){
+        return key + '\u0000' + (value == null ? "\u0000" : value);
+    }
+
+    /**
+     * Validates a changed value after the debounce delay, cancelling any outstanding
+     * validation of the field
+     *
+     * @param key the key of the field
+     * @param value the new value
+     */
+    public void onValueChanged(@NonNull String key, @Nullable String value){
+        schedule(key, value, mDebounceMs);
+    }
+
+    /**
+     * Validates a value without delay, unless it is being validated already
+     *
+     * @param key the key of the field
+     * @param value the value
+     */
+    public void validateNow(@NonNull String key, @Nullable String value){
+        Validation pending = mPending.get(key);
+        if (pending != null && pending.future != null && equals(pending.value, value)) return;
+        schedule(key, value, 0);
+    }
+
+    private void schedule(String key, @Nullable String value, long delay){
+        boolean wasPending = !mPending.isEmpty();
+        Validation stale = mPending.remove(key);
+        if (stale != null){
+            stale.cancel();
+        }
+
+        Result cached = mCache.get(cacheKey(key, value));
+        if (cached != null){
+            mListener.onValidated(key, value, cached.error);
+        } else {
+            Validation validation = new Validation(key, value);
+            mPending.put(key, validation);
+            mHandler.postDelayed(validation, delay);
+        }
+
+        if (wasPending != !mPending.isEmpty()){
+            mListener.onPendingChanged(!mPending.isEmpty());
+        }
+    }
+
+    private void onFinished(Validation validation, FutureTask<String> task){
+        String error = null;
+        boolean failed = false;
+        try {
+            error = task.get();
+        } catch (Exception e) {
+            // e.g. a network error, which does not tell whether the value is valid
+            Log.e(TAG, "Validation of " + validation.key + " failed", e);
+            failed = true;
+        }
+        if (!failed){
+            mCache.put(cacheKey(validation.key, validation.value), new Result(error));
+        }
+
+        if (mPending.get(validation.key) != validation) return; // outdated
+        mPending.remove(validation.key);
+        if (!failed){
+            mListener.onValidated(validation.key, validation.value, error);
+        }
+        if (mPending.isEmpty()){
+            mListener.onPendingChanged(false);
+        }
+    }
+
+    /**
+     * @param key the key of the field
+     * @param value the value
+     * @return true if the value was validated already
+     */
+    public boolean hasResult(@NonNull String key, @Nullable String value){
+        return mCache.get(cacheKey(key, value)) != null;
+    }
+
+    /**
+     * @param key the key of the field
+     * @param value the value
+     * @return the error message if the value was validated already and is invalid, else null
+     */
+    @Nullable
+    public String getError(@NonNull String key, @Nullable String value){
+        Result result = mCache.get(cacheKey(key, value));
+        return result != null ? result.error : null;
+    }
+
+    /**
+     * @return true if validations are outstanding
+     */
+    public boolean isPending(){
+        return !mPending.isEmpty();
+    }
+
+    /**
+     * Cancels all outstanding validations without notifying the listener
+     */
+    public void cancelAll(){
+        for (Validation validation : mPending.values()) {
+            validation.cancel();
+        }
+        mPending.clear();
+    }
+
+    private static boolean equals(@Nullable String a, @Nullable String b){
+        return a == null ? b == null : a.equals(b);
+    }
+}
@@ -276,7 +276,9 @@ public class SimpleColorDialog extends CustomListDialog<SimpleColorDialog> imple
         }
 
         // Selector provided by ColorView
-        getListView().setSelector(new ColorDrawable(Color.TRANSPARENT));
+        if (getListView() != null){
+            getListView().setSelector(new ColorDrawable(Color.TRANSPARENT));
+        }
 
         return new ColorAdapter(colors, getArgs().getStringArray(COLOR_NAMES), custom);
     }
@@ -308,7 +310,7 @@ public class SimpleColorDialog extends CustomListDialog<SimpleColorDialog> imple
     @Override
     public void onItemClick(AdapterView<?> parent, View view, int position, long id) {
         if (id == PICKER){
-            ColorAdapter adapter = ((ColorAdapter) parent.getAdapter());
+            ColorAdapter adapter = (ColorAdapter) mAdapter;
             boolean deselect = getArgs().getInt(CHOICE_MODE) == MULTI_CHOICE && adapter.isItemChecked(position);
             if (!deselect){
                 SimpleColorWheelDialog dialog = SimpleColorWheelDialog.build()
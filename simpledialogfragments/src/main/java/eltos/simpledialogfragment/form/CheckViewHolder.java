@@ -17,6 +17,7 @@
 package eltos.simpledialogfragment.form;
 
 import android.content.Context;
+import android.content.res.ColorStateList;
 import android.content.res.TypedArray;
 import android.graphics.Color;
 import android.os.Bundle;
@@ -38,6 +39,9 @@ class CheckViewHolder extends FormElementViewHolder<Check> {
 
     protected static final String SAVED_CHECK_STATE = "checked";
     private CheckBox checkBox;
+    private ColorStateList textColors;
+    // the check state if set up without a view
+    private boolean checked;
 
     public CheckViewHolder(Check field) {
         super(field);
@@ -53,6 +57,7 @@ class CheckViewHolder extends FormElementViewHolder<Check> {
                              final SimpleFormDialog.DialogActions actions) {
 
         checkBox = view.findViewById(R.id.checkBox);
+        textColors = checkBox.getTextColors();
 
         // Label
         checkBox.setText(field.getText(context));
@@ -64,23 +69,47 @@ class CheckViewHolder extends FormElementViewHolder<Check> {
             checkBox.setChecked(field.getInitialState(context));
         }
 
-        // Positive button state for single element forms
-        if (actions.isOnlyFocusableElement()) {
-            checkBox.setOnCheckedChangeListener((buttonView, isChecked) -> actions.updatePosButtonState());
-        }
+        // Rules and positive button state for single element forms
+        final boolean updatePosButton = actions.isOnlyFocusableElement();
+        checkBox.setOnCheckedChangeListener((buttonView, isChecked) -> {
+            actions.notifyValueChanged();
+            if (updatePosButton) {
+                actions.updatePosButtonState();
+            }
+        });
+
+    }
+
+
+    @Override
+    protected boolean setUpState(Context context, Bundle savedInstanceState,
+                                 SimpleFormDialog.DialogActions actions) {
+        checked = savedInstanceState != null ? savedInstanceState.getBoolean(SAVED_CHECK_STATE)
+                : field.getInitialState(context);
+        return true;
+    }
+
+    @Override
+    protected boolean tearDownView() {
+        checkBox.setOnCheckedChangeListener(null);
+        checkBox.setTextColor(textColors);
+        return true;
+    }
 
+    private boolean isChecked(){
+        return checkBox != null ? checkBox.isChecked() : checked;
     }
 
 
     @Override
     protected void saveState(Bundle outState) {
-        outState.putBoolean(SAVED_CHECK_STATE, checkBox.isChecked());
+        outState.putBoolean(SAVED_CHECK_STATE, isChecked());
     }
 
 
     @Override
     protected void putResults(Bundle results, String key) {
-        results.putBoolean(key, checkBox.isChecked());
+        results.putBoolean(key, isChecked());
     }
 
 
@@ -104,14 +133,16 @@ class CheckViewHolder extends FormElementViewHolder<Check> {
 
     @Override
     protected boolean posButtonEnabled(Context context) {
-        return !field.required || checkBox.isChecked();
+        return !field.required || isChecked();
     }
 
 
     @Override
     protected boolean validate(Context context) {
         boolean valid = posButtonEnabled(context);
-        if (valid) {
+        if (checkBox == null) {
+            return valid;
+        } else if (valid) {
             TypedValue value = new TypedValue();
             checkBox.getContext().getTheme().resolveAttribute(android.R.attr.checkboxStyle, value, true);
             int[] attr = new int[] {android.R.attr.textColor};
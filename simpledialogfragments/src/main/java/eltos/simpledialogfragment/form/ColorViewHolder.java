@@ -17,6 +17,7 @@
 package eltos.simpledialogfragment.form;
 
 import android.content.Context;
+import android.content.res.ColorStateList;
 import android.os.Bundle;
 
 import androidx.annotation.ColorInt;
@@ -48,6 +49,11 @@ class ColorViewHolder extends FormElementViewHolder<ColorField> implements Simpl
     private ColorView colorView;
 
     private ImageView clearButton;
+    private View itemView;
+    private ColorStateList labelColors;
+    private SimpleFormDialog.DialogActions actions;
+    // the color if set up without a view
+    private @ColorInt int color;
 
     public ColorViewHolder(ColorField field) {
         super(field);
@@ -62,9 +68,13 @@ class ColorViewHolder extends FormElementViewHolder<ColorField> implements Simpl
     protected void setUpView(View view, final Context context, Bundle savedInstanceState,
                              final SimpleFormDialog.DialogActions actions) {
 
+        this.actions = actions;
+
         label = view.findViewById(R.id.label);
         colorView = view.findViewById(R.id.color);
         clearButton = view.findViewById(R.id.clear_color);
+        itemView = view;
+        labelColors = label.getTextColors();
 
         // Label
         String text = field.getText(context);
@@ -98,7 +108,35 @@ class ColorViewHolder extends FormElementViewHolder<ColorField> implements Simpl
 
     }
 
+    @Override
+    protected boolean setUpState(Context context, Bundle savedInstanceState,
+                                 SimpleFormDialog.DialogActions actions) {
+        this.actions = actions;
+        color = savedInstanceState != null ? savedInstanceState.getInt(SAVED_COLOR)
+                : field.getInitialColor(context);
+        return true;
+    }
+
+    @Override
+    protected boolean tearDownView() {
+        itemView.setOnClickListener(null);
+        colorView.setOnClickListener(null);
+        clearButton.setOnClickListener(null);
+        colorView.setContentDescription(null);
+        label.setTextColor(labelColors);
+        return true;
+    }
+
+    private @ColorInt int getColor(){
+        return colorView != null ? colorView.getColor() : color;
+    }
+
     private void setColor(@ColorInt int color){
+        if (colorView == null){
+            this.color = color;
+            actions.notifyValueChanged();
+            return;
+        }
         colorView.setColor(color);
         if (field.colorNames != null && field.colorNames.length >= field.colors.length) {
             for (int i = 0; i < field.colors.length; i++) {
@@ -109,18 +147,19 @@ class ColorViewHolder extends FormElementViewHolder<ColorField> implements Simpl
             }
         }
         clearButton.setVisibility(field.required || colorView.getColor() == ColorView.NONE ? View.GONE : View.VISIBLE);
+        actions.notifyValueChanged();
     }
 
 
     @Override
     protected void saveState(Bundle outState) {
-        outState.putInt(SAVED_COLOR, colorView.getColor());
+        outState.putInt(SAVED_COLOR, getColor());
     }
 
 
     @Override
     protected void putResults(Bundle results, String key) {
-        results.putInt(key, colorView.getColor());
+        results.putInt(key, getColor());
     }
 
 
@@ -135,14 +174,22 @@ class ColorViewHolder extends FormElementViewHolder<ColorField> implements Simpl
 
     @Override
     protected boolean posButtonEnabled(Context context) {
-        return !field.required || colorView.getColor() != ColorField.NONE;
+        return !field.required || getColor() != ColorField.NONE;
+    }
+
+
+    @Override
+    protected boolean isEmpty() {
+        return getColor() == ColorField.NONE;
     }
 
 
     @Override
     protected boolean validate(Context context) {
         boolean valid = posButtonEnabled(context);
-        if (valid) {
+        if (label == null) {
+            return valid;
+        } else if (valid) {
             TypedValue value = new TypedValue();
             if (label.getContext().getTheme().resolveAttribute(android.R.attr.textColor, value, true)) {
                 label.setTextColor(value.data);
@@ -159,8 +206,8 @@ class ColorViewHolder extends FormElementViewHolder<ColorField> implements Simpl
     @Override
     public boolean onResult(@NonNull String dialogTag, int which, @NonNull Bundle extras) {
         if ((COLOR_DIALOG_TAG+field.resultKey).equals(dialogTag)){
-            if (which == BUTTON_POSITIVE && colorView != null){
-                setColor(extras.getInt(SimpleColorDialog.COLOR, colorView.getColor()));
+            if (which == BUTTON_POSITIVE){
+                setColor(extras.getInt(SimpleColorDialog.COLOR, getColor()));
             }
             return true;
         }
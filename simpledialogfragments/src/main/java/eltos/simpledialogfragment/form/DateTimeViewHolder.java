@@ -19,6 +19,7 @@ package eltos.simpledialogfragment.form;
 import android.content.Context;
 import android.os.Bundle;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import com.google.android.material.textfield.TextInputLayout;
 
 import android.text.InputType;
@@ -53,6 +54,8 @@ class DateTimeViewHolder extends FormElementViewHolder<DateTime> implements Simp
     private TextInputLayout dateLayout, timeLayout;
     private Long day;
     private Integer hour, minute;
+    private CharSequence dateHint, timeHint;
+    private Context context;
     private SimpleFormDialog.DialogActions actions;
 
     public DateTimeViewHolder(DateTime field) {
@@ -68,12 +71,15 @@ class DateTimeViewHolder extends FormElementViewHolder<DateTime> implements Simp
     protected void setUpView(View view, final Context context, Bundle savedInstanceState,
                              final SimpleFormDialog.DialogActions actions) {
 
+        this.context = context;
         this.actions = actions;
 
         date = view.findViewById(R.id.date);
         time = view.findViewById(R.id.time);
         dateLayout = view.findViewById(R.id.dateLayout);
         timeLayout = view.findViewById(R.id.timeLayout);
+        dateHint = dateLayout.getHint();
+        timeHint = timeLayout.getHint();
 
         // Label
         String text = field.getText(context);
@@ -115,6 +121,12 @@ class DateTimeViewHolder extends FormElementViewHolder<DateTime> implements Simp
             }
         });
 
+        restoreState(savedInstanceState);
+        updateText();
+
+    }
+
+    private void restoreState(Bundle savedInstanceState){
         // preset
         if (savedInstanceState != null){
             day = savedInstanceState.getLong(SAVED_DATE);
@@ -125,23 +137,48 @@ class DateTimeViewHolder extends FormElementViewHolder<DateTime> implements Simp
             hour = field.hour;
             minute = field.minute;
         }
+    }
 
-        updateText();
+    @Override
+    protected boolean setUpState(Context context, Bundle savedInstanceState,
+                                 SimpleFormDialog.DialogActions actions) {
+        this.context = context;
+        this.actions = actions;
+        restoreState(savedInstanceState);
+        return true;
+    }
 
+    @Override
+    protected boolean tearDownView() {
+        date.setOnClickListener(null);
+        date.setOnFocusChangeListener(null);
+        time.setOnClickListener(null);
+        time.setOnFocusChangeListener(null);
+        dateLayout.setHint(dateHint);
+        timeLayout.setHint(timeHint);
+        dateLayout.setErrorEnabled(false);
+        timeLayout.setErrorEnabled(false);
+        return true;
     }
 
     private void updateText(){
+        if (date == null){
+            actions.updatePosButtonState();
+            actions.notifyValueChanged();
+            return;
+        }
         date.setText(day == null ? null : SimpleDateFormat.getDateInstance().format(new Date(day)));
         time.setText(hour == null || minute == null ? null :
                 SimpleDateFormat.getTimeInstance(DateFormat.SHORT).format(new Date(0, 0, 0, hour, minute)));
         dateLayout.setEndIconMode(field.required || day == null ? TextInputLayout.END_ICON_NONE : TextInputLayout.END_ICON_CLEAR_TEXT);
         timeLayout.setEndIconMode(field.required || hour == null || minute == null ? TextInputLayout.END_ICON_NONE : TextInputLayout.END_ICON_CLEAR_TEXT);
         actions.updatePosButtonState();
+        actions.notifyValueChanged();
     }
 
     private void pickDate(){
         SimpleDateDialog dialog = SimpleDateDialog.build()
-                .title(field.getText(date.getContext()))
+                .title(field.getText(context))
                 .neut();
         if (field.min != null) dialog.minDate(field.min);
         if (field.max != null) dialog.maxDate(field.max);
@@ -152,7 +189,7 @@ class DateTimeViewHolder extends FormElementViewHolder<DateTime> implements Simp
 
     private void pickTime(){
         SimpleTimeDialog dialog = SimpleTimeDialog.build()
-                .title(field.getText(time.getContext()))
+                .title(field.getText(context))
                 .neut();
         if (hour != null) dialog.hour(hour);
         if (minute != null) dialog.minute(minute);
@@ -197,9 +234,27 @@ class DateTimeViewHolder extends FormElementViewHolder<DateTime> implements Simp
     }
 
 
+    @Override
+    protected boolean isEmpty() {
+        return field.type == DateTime.Type.DATE ? day == null
+                : field.type == DateTime.Type.TIME ? hour == null || minute == null
+                : day == null || hour == null || minute == null;
+    }
+
+
+    @Override
+    protected void showRuleError(@Nullable String error) {
+        if (dateLayout == null) return;
+        TextInputLayout layout = field.type == DateTime.Type.TIME ? timeLayout : dateLayout;
+        layout.setError(error);
+        layout.setErrorEnabled(error != null);
+    }
+
+
     @Override
     protected boolean validate(Context context) {
         boolean valid = posButtonEnabled(context);
+        if (dateLayout == null) return valid;
         dateLayout.setErrorEnabled(false);
         timeLayout.setErrorEnabled(false);
         if (!valid) {
@@ -219,9 +274,13 @@ class DateTimeViewHolder extends FormElementViewHolder<DateTime> implements Simp
             boolean wasEmpty = day == null;
             if (which == BUTTON_POSITIVE){
                 day = extras.getLong(SimpleDateDialog.DATE);
-                dateLayout.setErrorEnabled(false);
+                if (dateLayout != null) dateLayout.setErrorEnabled(false);
                 if (field.type == DateTime.Type.DATETIME && (hour == null || minute == null)){
-                    time.performClick();
+                    if (time != null) {
+                        time.performClick();
+                    } else {
+                        pickTime();
+                    }
                 } else if (wasEmpty){
                     actions.continueWithNextElement(false);
                 }
@@ -236,7 +295,7 @@ class DateTimeViewHolder extends FormElementViewHolder<DateTime> implements Simp
             if (which == BUTTON_POSITIVE){
                 hour = extras.getInt(SimpleTimeDialog.HOUR);
                 minute = extras.getInt(SimpleTimeDialog.MINUTE);
-                timeLayout.setErrorEnabled(false);
+                if (timeLayout != null) timeLayout.setErrorEnabled(false);
                 if (wasEmpty) {
                     actions.continueWithNextElement(false);
                 }
@@ -0,0 +1,100 @@
+/*
+ *  Copyright 2026 Philipp Niedermayer (github.com/eltos)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package eltos.simpledialogfragment.form;
+
+import androidx.annotation.NonNull;
+
+import java.util.List;
+
+/**
+ * The focus order of the elements of a form, computed once when the form is populated
+ * so that navigation queries do not need to walk the fields.
+ * <p>
+ * All elements but {@link Hint}s are focusable.
+ */
+final class FocusTable {
+
+    /**
+     * Index returned if there is no next focusable element
+     */
+    static final int NONE = Integer.MAX_VALUE;
+
+    private static final int FOCUSABLE = 1, FIRST = 2, LAST = 4;
+
+    static final FocusTable EMPTY = new FocusTable(new int[0], new int[0], NONE);
+
+    // next focusable index after each index
+    private final int[] mNext;
+    private final int[] mFlags;
+    private final int mFirst;
+
+    private FocusTable(int[] next, int[] flags, int first){
+        mNext = next;
+        mFlags = flags;
+        mFirst = first;
+    }
+
+    static FocusTable of(@NonNull List<? extends FormElement> fields){
+        int n = fields.size();
+        int[] next = new int[n];
+        int[] flags = new int[n];
+        int following = NONE;
+        for (int i = n - 1; i >= 0; i--) {
+            next[i] = following;
+            if (!(fields.get(i) instanceof Hint)){
+                flags[i] = FOCUSABLE | (following == NONE ? LAST : 0);
+                following = i;
+            }
+        }
+        if (following != NONE){
+            flags[following] |= FIRST;
+        }
+        return new FocusTable(next, flags, following);
+    }
+
+    private int flags(int i){
+        return 0 <= i && i < mFlags.length ? mFlags[i] : 0;
+    }
+
+    boolean isFocusable(int i){
+        return (flags(i) & FOCUSABLE) != 0;
+    }
+
+    /**
+     * @param i the index or -1
+     * @return the next focusable index after i or {@link FocusTable#NONE}
+     */
+    int getNext(int i){
+        if (i < 0) return mFirst;
+        return i < mNext.length ? mNext[i] : NONE;
+    }
+
+    /**
+     * @return the first focusable index or {@link FocusTable#NONE}
+     */
+    int getFirst(){
+        return mFirst;
+    }
+
+    boolean isLast(int i){
+        return (flags(i) & LAST) != 0;
+    }
+
+    boolean isOnly(int i){
+        return (flags(i) & (FIRST | LAST)) == (FIRST | LAST);
+    }
+}
@@ -19,6 +19,7 @@ package eltos.simpledialogfragment.form;
 import android.content.Context;
 import android.os.Bundle;
 import androidx.annotation.LayoutRes;
+import androidx.annotation.Nullable;
 import android.view.View;
 
 import eltos.simpledialogfragment.SimpleDialog.OnDialogResultListener;
@@ -66,6 +67,39 @@ public abstract class FormElementViewHolder<E extends FormElement> {
     protected abstract void setUpView(View view, Context context, Bundle savedInstanceState,
                             SimpleFormDialog.DialogActions actions);
 
+    /**
+     * Method to set up this element without a view from a state saved in
+     * {@link FormElementViewHolder#saveState}, e.g. for an element of a virtualized form
+     * that is not in view. Afterwards, {@link FormElementViewHolder#saveState},
+     * {@link FormElementViewHolder#putResults}, {@link FormElementViewHolder#isEmpty},
+     * {@link FormElementViewHolder#posButtonEnabled} and {@link FormElementViewHolder#validate}
+     * are called without a view, in which case no error is displayed.
+     * The default implementation returns false, so that a detached view is set up instead.
+     *
+     * @param context A context
+     * @param savedInstanceState The saved state or null
+     * @param actions A callback for convenient methods. See {@link SimpleFormDialog.DialogActions}
+     *
+     * @return true if this element was set up without a view
+     */
+    protected boolean setUpState(Context context, @Nullable Bundle savedInstanceState,
+                                 SimpleFormDialog.DialogActions actions){
+        return false;
+    }
+
+    /**
+     * Method to release the view set up in {@link FormElementViewHolder#setUpView}, so that
+     * it can be set up again for another element using the same layout, e.g. when scrolled
+     * out of a virtualized form. Remove all listeners registered in setUpView and restore
+     * everything that setUpView does not set unconditionally.
+     * The default implementation returns false, in which case the view is not reused.
+     *
+     * @return true if the view was released and can be reused
+     */
+    protected boolean tearDownView(){
+        return false;
+    }
+
     /**
      * Method to save this elements state
      * Bundles are maintained on a per-view basis, so that keys can be arbitrary
@@ -112,4 +146,25 @@ public abstract class FormElementViewHolder<E extends FormElement> {
      */
     protected abstract boolean validate(Context context);
 
+    /**
+     * Method to check whether this element has no value, in which case {@link FormRule}s
+     * reading it are not checked.
+     * The default implementation returns false.
+     *
+     * @return true if the element has no value
+     */
+    protected boolean isEmpty(){
+        return false;
+    }
+
+    /**
+     * Method to display the error message of a violated {@link FormRule} targeting this element.
+     * The default implementation does nothing, so that the error only disables the
+     * positive button.
+     *
+     * @param error the error message or null if the rules are satisfied again
+     */
+    protected void showRuleError(@Nullable String error){
+    }
+
 }
\ No newline at end of file
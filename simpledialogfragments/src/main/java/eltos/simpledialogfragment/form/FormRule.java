@@ -0,0 +1,226 @@
+/*
+ *  Copyright 2026 Philipp Niedermayer (github.com/eltos)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package eltos.simpledialogfragment.form;
+
+import android.content.Context;
+import android.os.Bundle;
+import android.os.Parcel;
+import android.os.Parcelable;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.StringRes;
+
+import eltos.simpledialogfragment.R;
+
+/**
+ * A validation rule spanning multiple fields of a {@link SimpleFormDialog},
+ * such as a password confirmation or a date range.
+ * <p>
+ * Each rule declares the keys of the fields it reads. Whenever one of these fields changes,
+ * the rule is checked again and an error is displayed on its target field, which is the
+ * last field read unless set via {@link FormRule#on(String)}. While a rule is violated,
+ * the positive button is disabled. Rules are not checked while any of the fields read
+ * is empty, use {@link FormElement#required()} for that.
+ * <p>
+ * Use {@link SimpleFormDialog#rules(FormRule...)} to add rules to a form.
+ */
+
+@SuppressWarnings({"WeakerAccess", "unused"})
+public class FormRule implements Parcelable {
+
+    private static final int EQUAL = 1, ASCENDING = 2, CUSTOM = 3;
+    private static final int NO_ID = -1;
+
+    private final int type;
+    private final @Nullable String ruleKey;
+    final String[] keys;
+    String target;
+    private String errorText = null;
+    private int errorResourceId = NO_ID;
+
+    private FormRule(int type, @Nullable String ruleKey, String... keys){
+        if (keys.length == 0){
+            throw new IllegalArgumentException("A rule must read at least one field");
+        }
+        this.type = type;
+        this.ruleKey = ruleKey;
+        this.keys = keys;
+        this.target = keys[keys.length - 1];
+    }
+
+    /**
+     * Factory method for a rule requiring two fields to have equal values,
+     * e.g. a password and its confirmation
+     *
+     * @param key the key of the first field
+     * @param confirmKey the key of the second field, which displays the error
+     * @return the rule
+     */
+    public static FormRule equal(String key, String confirmKey){
+        return new FormRule(EQUAL, null, key, confirmKey);
+    }
+
+    /**
+     * Factory method for a rule requiring the value of a field not to be less than the
+     * value of another field, e.g. the end date of a range.
+     * Numbers, dates and times are compared by value, text is compared numerically
+     * if both values are numbers and lexicographically otherwise.
+     *
+     * @param lowerKey the key of the field with the lower value
+     * @param upperKey the key of the field with the upper value, which displays the error
+     * @return the rule
+     */
+    public static FormRule ascending(String lowerKey, String upperKey){
+        return new FormRule(ASCENDING, null, lowerKey, upperKey);
+    }
+
+    /**
+     * Factory method for a custom rule. It is checked by the hosting fragment or activity,
+     * which must implement {@link SimpleFormDialog.RuleValidator}.
+     *
+     * @param ruleKey a key to identify this rule in {@link SimpleFormDialog.RuleValidator#validate}
+     * @param keys the keys of all fields the rule reads
+     * @return the rule
+     */
+    public static FormRule custom(String ruleKey, String... keys){
+        return new FormRule(CUSTOM, ruleKey, keys);
+    }
+
+    /**
+     * Sets the field that displays the error if this rule is violated.
+     * Default is the last field read by this rule.
+     *
+     * @param key the key of the field
+     * @return this instance
+     */
+    public FormRule on(String key){
+        this.target = key;
+        return this;
+    }
+
+    /**
+     * Sets the error message to display if this rule is violated
+     *
+     * @param text the error message as string
+     * @return this instance
+     */
+    public FormRule error(String text){
+        this.errorText = text;
+        return this;
+    }
+
+    /**
+     * Sets the error message to display if this rule is violated
+     *
+     * @param textResourceId the error message as android string resource
+     * @return this instance
+     */
+    public FormRule error(@StringRes int textResourceId){
+        this.errorResourceId = textResourceId;
+        return this;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Checks this rule
+     *
+     * @param host the form
+     * @param values the results of all fields read, as in {@link SimpleFormDialog#onResult}
+     * @return the error message if the rule is violated, else null
+     */
+    @Nullable
+    String check(@NonNull RuleEngine.Host host, @NonNull Bundle values){
+        Context context = host.getContext();
+        switch (type){
+            case EQUAL:
+                Object a = values.get(keys[0]), b = values.get(keys[1]);
+                if (a == null ? b == null : a.equals(b)) return null;
+                return getError(context, R.string.values_do_not_match);
+            case ASCENDING:
+                if (compare(values.get(keys[0]), values.get(keys[1])) <= 0) return null;
+                return getError(context, R.string.values_not_in_order);
+            case CUSTOM:
+                String error = host.validateRule(ruleKey, values);
+                if (error == null) return null;
+                return errorText != null || errorResourceId != NO_ID ? getError(context, 0) : error;
+        }
+        return null;
+    }
+
+    private String getError(Context context, @StringRes int fallbackResourceId){
+        if (errorText != null) {
+            return errorText;
+        } else if (errorResourceId != NO_ID){
+            return context.getString(errorResourceId);
+        }
+        return context.getString(fallbackResourceId);
+    }
+
+    private static int compare(Object a, Object b){
+        if (a instanceof Number && b instanceof Number){
+            return Double.compare(((Number) a).doubleValue(), ((Number) b).doubleValue());
+        }
+        String s = String.valueOf(a), t = String.valueOf(b);
+        try {
+            return Double.compare(Double.parseDouble(s), Double.parseDouble(t));
+        } catch (NumberFormatException e) {
+            return s.compareTo(t);
+        }
+    }
+
+
+    // Parcel implementation
+
+    protected FormRule(Parcel in) {
+        type = in.readInt();
+        ruleKey = in.readString();
+        keys = in.createStringArray();
+        target = in.readString();
+        errorText = in.readString();
+        errorResourceId = in.readInt();
+    }
+
+    public static final Creator<FormRule> CREATOR = new Creator<FormRule>() {
+        @Override
+        public FormRule createFromParcel(Parcel in) {
+            return new FormRule(in);
+        }
+
+        @Override
+        public FormRule[] newArray(int size) {
+            return new FormRule[size];
+        }
+    };
+
+    @Override
+    public int describeContents() {
+        return 0;
+    }
+
+    @Override
+    public void writeToParcel(Parcel dest, int flags) {
+        dest.writeInt(type);
+        dest.writeString(ruleKey);
+        dest.writeStringArray(keys);
+        dest.writeString(target);
+        dest.writeString(errorText);
+        dest.writeInt(errorResourceId);
+    }
+}
@@ -51,6 +51,17 @@ class HintViewHolder extends FormElementViewHolder<Hint> {
 
     }
 
+    @Override
+    protected boolean setUpState(Context context, Bundle savedInstanceState,
+                                 SimpleFormDialog.DialogActions actions) {
+        return true;
+    }
+
+    @Override
+    protected boolean tearDownView() {
+        return true;
+    }
+
 
 
 
@@ -49,6 +49,13 @@ class InputViewHolder extends FormElementViewHolder<Input> {
     protected static final String SAVED_TEXT = "savedText";
     private TextInputAutoCompleteTextView input;
     private TextInputLayout inputLayout;
+    private @Nullable String ruleError;
+    // the text if set up without a view
+    private String text;
+    private TextWatcher textWatcher, phoneWatcher;
+    private Runnable selectAllReset;
+    // false if the view was changed in a way tearDownView can not revert
+    private boolean reusable;
 
     InputViewHolder(Input field) {
         super(field);
@@ -65,18 +72,20 @@ class InputViewHolder extends FormElementViewHolder<Input> {
 
         input = view.findViewById(R.id.editText);
         inputLayout = view.findViewById(R.id.inputLayout);
+        reusable = true;
 
         if (savedInstanceState == null) {
             // Text preset
             input.setText(field.getText(context));
             // Select all on first focus
             input.setSelectAllOnFocus(true);
+            selectAllReset = () -> {
+                input.setSelectAllOnFocus(false);
+                input.setOnFocusChangeListener(null);
+            };
             input.setOnFocusChangeListener((v, hasFocus) -> {
                 if (hasFocus) {
-                    input.postDelayed(() -> {
-                        input.setSelectAllOnFocus(false);
-                        input.setOnFocusChangeListener(null);
-                    }, 10);
+                    input.postDelayed(selectAllReset, 10);
                 }
             });
         } else {
@@ -95,7 +104,8 @@ class InputViewHolder extends FormElementViewHolder<Input> {
         input.setInputType(field.inputType);
         if ((field.inputType & InputType.TYPE_MASK_CLASS) == InputType.TYPE_CLASS_PHONE) {
             // format phone number automatically
-            input.addTextChangedListener(new PhoneNumberFormattingTextWatcher());
+            phoneWatcher = new PhoneNumberFormattingTextWatcher();
+            input.addTextChangedListener(phoneWatcher);
         }
 
         // PW hide/visible toggle button
@@ -112,9 +122,11 @@ class InputViewHolder extends FormElementViewHolder<Input> {
         // Multiline and wrapping
         if (field.maxLines > 0) {
             input.setMaxLines(field.maxLines);
+            reusable = false;
         }
         if (field.wrap != null) {
             input.setHorizontallyScrolling(!field.wrap); // can also be used to disable scrolling in multiline mode
+            reusable = false;
         }
 
         // IME action
@@ -141,25 +153,30 @@ class InputViewHolder extends FormElementViewHolder<Input> {
             }
         });
 
-        // Positive button state for single element forms
-        if (actions.isOnlyFocusableElement()) {
-            input.addTextChangedListener(new TextWatcher() {
-                @Override
-                public void beforeTextChanged(CharSequence s, int start, int count, int after) {
-                }
-                @Override
-                public void onTextChanged(CharSequence s, int start, int before, int count) {
-                }
-                @Override
-                public void afterTextChanged(Editable s) {
+        // Asynchronous validation and positive button state for single element forms
+        final boolean updatePosButton = actions.isOnlyFocusableElement();
+        textWatcher = new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+            @Override
+            public void afterTextChanged(Editable s) {
+                actions.onInputChanged(field.resultKey, getText());
+                actions.notifyValueChanged();
+                if (updatePosButton) {
                     actions.updatePosButtonState();
                 }
-            });
-        }
+            }
+        };
+        input.addTextChangedListener(textWatcher);
 
         // Auto complete suggestions
         String[] suggestions = field.getSuggestions(context);
         if (suggestions != null) {
+            reusable = false; // adapter, dropdown and key listener
             if (field.isSpinner && !field.required){
                 suggestions = Arrays.copyOf(suggestions, suggestions.length + 1);
                 suggestions[suggestions.length - 1] = "";
@@ -190,8 +207,37 @@ class InputViewHolder extends FormElementViewHolder<Input> {
         }
     }
 
+    @Override
+    protected boolean setUpState(Context context, Bundle savedInstanceState,
+                                 SimpleFormDialog.DialogActions actions) {
+        text = savedInstanceState != null ? savedInstanceState.getString(SAVED_TEXT)
+                : field.getText(context);
+        if (text == null) text = "";
+        return true;
+    }
+
+    @Override
+    protected boolean tearDownView() {
+        if (!reusable) return false;
+        input.removeTextChangedListener(textWatcher);
+        if (phoneWatcher != null) {
+            input.removeTextChangedListener(phoneWatcher);
+        }
+        if (selectAllReset != null) {
+            input.removeCallbacks(selectAllReset);
+        }
+        input.setSelectAllOnFocus(false);
+        input.setOnFocusChangeListener(null);
+        input.setOnEditorActionListener(null);
+        inputLayout.setEndIconMode(TextInputLayout.END_ICON_NONE);
+        inputLayout.setCounterEnabled(false);
+        setError(false, null);
+        return true;
+    }
+
     @Nullable
     protected String getText(){
+        if (input == null) return text.trim();
         return input.getText() != null ? input.getText().toString().trim() : null;
     }
 
@@ -199,15 +245,33 @@ class InputViewHolder extends FormElementViewHolder<Input> {
         return getText() == null || getText().isEmpty();
     }
 
+    @Override
+    protected boolean isEmpty() {
+        return isInputEmpty();
+    }
+
     private boolean isLengthExceeded() {
         return field.maxLength > 0 && getText() != null && getText().length() > field.maxLength;
     }
 
     protected void setError(boolean enabled, @Nullable String error){
+        if (inputLayout == null) return;
         inputLayout.setError(error);
         inputLayout.setErrorEnabled(enabled);
     }
 
+    @Override
+    protected void showRuleError(@Nullable String error) {
+        if (inputLayout == null) return;
+        CharSequence shown = inputLayout.getError();
+        if (error != null){
+            setError(true, error);
+        } else if (ruleError != null && shown != null && ruleError.equals(shown.toString())){
+            setError(false, null);
+        }
+        ruleError = error;
+    }
+
 
     @Override
     protected void saveState(Bundle outState) {
@@ -275,7 +339,11 @@ class InputViewHolder extends FormElementViewHolder<Input> {
                     if (s == null) continue;
                     if (text.equalsIgnoreCase(s)){
                         match = true;
-                        input.setTextKeepState(s); // correct case
+                        if (input != null) {
+                            input.setTextKeepState(s); // correct case
+                        } else {
+                            this.text = s;
+                        }
                         break;
                     }
                 }
@@ -287,6 +355,10 @@ class InputViewHolder extends FormElementViewHolder<Input> {
         }
         // predefined validation
         String error = field.validatePattern(context, getText());
+        if (error == null && ruleError != null){
+            // keep displaying the error of a violated rule
+            error = ruleError;
+        }
         setError(error != null, error);
         return error == null;
     }
@@ -0,0 +1,209 @@
+/*
+ *  Copyright 2026 Philipp Niedermayer (github.com/eltos)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package eltos.simpledialogfragment.form;
+
+import android.content.Context;
+import android.os.Bundle;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Checks the {@link FormRule}s of a {@link SimpleFormDialog}.
+ * <p>
+ * The rules reading each field are looked up once when the form is populated, so that
+ * a change of a field only checks the rules affected by it rather than all rules.
+ * The error displayed on a field is the one of the first violated rule targeting it.
+ */
+final class RuleEngine {
+
+    /**
+     * The form whose rules are checked
+     */
+    interface Host {
+        /**
+         * @return a context to resolve error messages with
+         */
+        @NonNull Context getContext();
+
+        /**
+         * Puts the value of a field for checking a rule
+         *
+         * @param values the bundle to put the value to
+         * @param key the key of the field
+         * @return false if the field does not exist (yet), is empty or its value is unknown
+         */
+        boolean putRuleValue(@NonNull Bundle values, @NonNull String key);
+
+        /**
+         * Checks a custom rule, see {@link FormRule#custom}
+         *
+         * @param ruleKey the key of the rule
+         * @param values the values of the fields read by the rule
+         * @return the error message if the rule is violated, else null
+         */
+        @Nullable String validateRule(@Nullable String ruleKey, @NonNull Bundle values);
+
+        /**
+         * Displays the error of a field
+         *
+         * @param key the key of the field
+         * @param error the error or null if the rules targeting the field are satisfied
+         */
+        void showRuleError(@NonNull String key, @Nullable String error);
+
+        /**
+         * Called when all rules become satisfied or the first rule becomes violated
+         */
+        void onRulesSatisfiedChanged();
+    }
+
+    private static final int[] NO_RULES = new int[0];
+
+    private final Host mHost;
+    private final List<FormRule> mRules;
+    // indices of the rules reading each field
+    private final HashMap<String, int[]> mReaders = new HashMap<>();
+    // indices of the rules targeting each field
+    private final HashMap<String, int[]> mTargeting = new HashMap<>();
+    private final String[] mErrors;
+    private int mViolated = 0;
+    private boolean mChecking = false;
+
+    RuleEngine(@NonNull Host host, @NonNull List<FormRule> rules){
+        mHost = host;
+        mRules = rules;
+        mErrors = new String[rules.size()];
+
+        HashMap<String, ArrayList<Integer>> readers = new HashMap<>();
+        HashMap<String, ArrayList<Integer>> targeting = new HashMap<>();
+        for (int r = 0; r < rules.size(); r++) {
+            FormRule rule = rules.get(r);
+            for (String key : rule.keys) {
+                add(readers, key, r);
+            }
+            add(targeting, rule.target, r);
+        }
+        toArrays(readers, mReaders);
+        toArrays(targeting, mTargeting);
+    }
+
+    private static void add(HashMap<String, ArrayList<Integer>> map, String key, int r){
+        ArrayList<Integer> list = map.get(key);
+        if (list == null){
+            list = new ArrayList<>(1);
+            map.put(key, list);
+        } else if (list.get(list.size() - 1) == r){
+            return; // rule reads the field twice
+        }
+        list.add(r);
+    }
+
+    private static void toArrays(HashMap<String, ArrayList<Integer>> from, HashMap<String, int[]> to){
+        for (String key : from.keySet()) {
+            ArrayList<Integer> list = from.get(key);
+            int[] array = new int[list.size()];
+            for (int i = 0; i < array.length; i++) {
+                array[i] = list.get(i);
+            }
+            to.put(key, array);
+        }
+    }
+
+    private static int[] get(HashMap<String, int[]> map, String key){
+        int[] rules = map.get(key);
+        return rules != null ? rules : NO_RULES;
+    }
+
+    /**
+     * Checks the rules reading a field
+     *
+     * @param key the key of the field that changed
+     */
+    void onChanged(@NonNull String key){
+        int[] readers = get(mReaders, key);
+        if (readers.length == 0 || mChecking) return;
+        mChecking = true; // changes reported while reading values are not checked again
+        try {
+            for (int r : readers) {
+                check(r);
+            }
+        } finally {
+            mChecking = false;
+        }
+    }
+
+    /**
+     * Checks all rules
+     */
+    void checkAll(){
+        if (mChecking) return;
+        mChecking = true;
+        try {
+            for (int r = 0; r < mRules.size(); r++) {
+                check(r);
+            }
+        } finally {
+            mChecking = false;
+        }
+    }
+
+    private void check(int r){
+        FormRule rule = mRules.get(r);
+        Bundle values = new Bundle();
+        String error = null;
+        boolean complete = true;
+        for (String key : rule.keys) {
+            complete &= mHost.putRuleValue(values, key);
+        }
+        if (complete){
+            error = rule.check(mHost, values);
+        }
+
+        String previous = mErrors[r];
+        if (previous == null ? error == null : previous.equals(error)) return;
+        mErrors[r] = error;
+        mHost.showRuleError(rule.target, getError(rule.target));
+
+        if ((previous == null) != (error == null)){
+            mViolated += error != null ? 1 : -1;
+            if (mViolated == 0 || mViolated == 1 && error != null){
+                mHost.onRulesSatisfiedChanged();
+            }
+        }
+    }
+
+    /**
+     * @param key the key of a field
+     * @return the error of the first violated rule targeting the field or null
+     */
+    @Nullable
+    String getError(@NonNull String key){
+        for (int r : get(mTargeting, key)) {
+            if (mErrors[r] != null) return mErrors[r];
+        }
+        return null;
+    }
+
+    boolean isSatisfied(){
+        return mViolated == 0;
+    }
+}
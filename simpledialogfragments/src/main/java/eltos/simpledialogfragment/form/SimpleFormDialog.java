@@ -17,20 +17,29 @@
 package eltos.simpledialogfragment.form;
 
 import android.content.Context;
+import android.os.AsyncTask;
 import android.os.Bundle;
+import android.os.SystemClock;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import android.view.Choreographer;
 import android.view.View;
 import android.view.ViewGroup;
 import android.view.WindowManager;
 import android.view.inputmethod.InputMethodManager;
 
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.concurrent.Executor;
 
 import eltos.simpledialogfragment.CustomViewDialog;
 import eltos.simpledialogfragment.R;
 import eltos.simpledialogfragment.SimpleDialog;
+import eltos.simpledialogfragment.ValidationPipeline;
 
 /**
  * A form dialog to display a number of input fields to the user, such as
@@ -178,6 +187,20 @@ public class SimpleFormDialog extends CustomViewDialog<SimpleFormDialog> impleme
         return this;
     }
     
+    /**
+     * Adds rules spanning multiple fields, such as a password confirmation or a date range.
+     * See {@link FormRule} for details.
+     *
+     * @param rules the {@link FormRule}s that the form has to satisfy
+     * @return this instance
+     */
+    public SimpleFormDialog rules(FormRule... rules){
+        ArrayList<FormRule> list = new ArrayList<>(rules.length);
+        Collections.addAll(list, rules);
+        getArgs().putParcelableArrayList(RULES, list);
+        return this;
+    }
+
     /**
      * En- or disables the automatic focussing of the first field in the form when the dialog opens.
      * This is enabled by default.
@@ -189,6 +212,50 @@ public class SimpleFormDialog extends CustomViewDialog<SimpleFormDialog> impleme
         return setArg(AUTO_FOCUS, enabled);
     }
 
+    /**
+     * En- or disables the virtualized mode for very large forms.
+     * <p>
+     * In this mode, the fields are displayed in a {@link RecyclerView} and only the views of
+     * fields scrolled into view are created. The state of other fields is kept by the dialog,
+     * so that validation and results still cover all fields. These are read from the kept
+     * state without creating views, unless a custom {@link FormElementViewHolder} does not
+     * support this, see {@link FormElementViewHolder#setUpState}.
+     *
+     * @param enabled whether or not to virtualize the form
+     * @return this instance
+     */
+    public SimpleFormDialog virtualized(boolean enabled){
+        return setArg(VIRTUALIZED, enabled);
+    }
+
+    /**
+     * En- or disables the progressive population of long forms.
+     * <p>
+     * In this mode, only the fields that fit the screen are created before the dialog is
+     * shown, while the remaining fields are appended over the following frames. If the
+     * form is validated or its results are requested before, the remaining fields
+     * are created right away. Has no effect in {@link #virtualized} mode.
+     *
+     * @param enabled whether or not to populate the form progressively
+     * @return this instance
+     */
+    public SimpleFormDialog progressive(boolean enabled){
+        return setArg(PROGRESSIVE, enabled);
+    }
+
+    /**
+     * Sets the delay after the last keystroke before the text of an {@link Input} field
+     * is passed to an {@link AsyncInputValidator}.
+     * The default is {@link ValidationPipeline#DEFAULT_DEBOUNCE_MS}.
+     *
+     * @param millis the delay in milliseconds
+     * @return this instance
+     */
+    public SimpleFormDialog validationDebounce(long millis){
+        getArgs().putLong(VALIDATION_DEBOUNCE, millis);
+        return this;
+    }
+
 
 
     public interface InputValidator {
@@ -210,6 +277,48 @@ public class SimpleFormDialog extends CustomViewDialog<SimpleFormDialog> impleme
         String validate(String dialogTag, String fieldKey, @Nullable String input, @NonNull Bundle extras);
     }
 
+    public interface RuleValidator {
+        /**
+         * Let the hosting fragment or activity implement this interface to check
+         * custom {@link FormRule}s, see {@link FormRule#custom(String, String...)}.
+         * The method is called every time one of the fields read by the rule changes
+         * and none of them is empty.
+         *
+         * @param dialogTag the tag of this fragment
+         * @param ruleKey the key of the rule as supplied when it was created
+         * @param values the values of the fields read by the rule, under their keys
+         *               as in {@link SimpleFormDialog#onResult}
+         * @param extras the extras passed with {@link SimpleFormDialog#extra(Bundle)}
+         *
+         * @return the error message to display or null if the rule is satisfied
+         */
+        @Nullable String validate(String dialogTag, String ruleKey, @NonNull Bundle values, @NonNull Bundle extras);
+    }
+
+    public interface AsyncInputValidator {
+        /**
+         * Let the hosting fragment or activity implement this interface for validations
+         * of {@link Input} fields that are too slow for the main thread, e.g. checking
+         * whether a name is taken.
+         * The method is called from a background thread while the user is typing and may block.
+         * Validations of outdated input are cancelled by interrupting the thread.
+         * While validations are pending, the positive button is disabled.
+         * Results are cached, so the method is called at most once per field and input.
+         *
+         * @param dialogTag the tag of this fragment
+         * @param fieldKey the key of the field as supplied when the corresponding
+         *                 {@link Input} was created (see {@link Input#plain(String)} etc)
+         * @param input the text entered by the user
+         * @param extras the extras passed with {@link SimpleFormDialog#extra(Bundle)}
+         *
+         * @return the error message to display or null if the input is valid
+         * @throws Exception if the validation failed, in which case the input is validated
+         *                   again when the positive button is pressed
+         */
+        @Nullable String validateAsync(String dialogTag, String fieldKey, @Nullable String input,
+                                       @NonNull Bundle extras) throws Exception;
+    }
+
 
 
 
@@ -220,13 +329,33 @@ public class SimpleFormDialog extends CustomViewDialog<SimpleFormDialog> impleme
     ///////////////////////////////////////////////////////////////////////////////////////////
 
     protected static final String INPUT_FIELDS = TAG + "inputFields";
+    protected static final String RULES = TAG + "rules";
     protected static final String AUTO_FOCUS = TAG + "autofocus";
+    protected static final String VIRTUALIZED = TAG + "virtualized";
+    protected static final String PROGRESSIVE = TAG + "progressive";
+    protected static final String VALIDATION_DEBOUNCE = TAG + "validation_debounce";
     protected static final String SAVE_TAG = "form.";
 
     private FocusActions mFocusActions = new FocusActions();
     ArrayList<FormElementViewHolder<?>> mViews = new ArrayList<>(0);
+    private FocusTable mFocusTable = FocusTable.EMPTY;
+    private @Nullable VirtualFormAdapter mVirtualAdapter;
+    private int mElementCount = 0;
+
+    // progressive population: elements not yet added to the container
+    private static final int PROGRESSIVE_MIN_ELEMENT_HEIGHT_DP = 48;
+    private static final long PROGRESSIVE_FRAME_BUDGET_MS = 8;
+    private @Nullable ArrayList<FormElement> mPendingFields;
+    private @Nullable Bundle mPendingSavedState;
+    private final Choreographer.FrameCallback mPopulateCallback = frameTimeNanos -> populateNextElements();
     ViewGroup mFormContainer;
 
+    private @Nullable ValidationPipeline mValidation;
+    private @Nullable RuleEngine mRuleEngine;
+    private String[] mKeys = new String[0];
+    private final HashMap<String, Integer> mKeyIndices = new HashMap<>();
+    private boolean mPressWhenValidated = false;
+
 
 
     protected String onValidateInput(String fieldKey, @Nullable String input){
@@ -242,6 +371,65 @@ public class SimpleFormDialog extends CustomViewDialog<SimpleFormDialog> impleme
         return null;
     }
 
+    protected String onValidateRule(String ruleKey, @NonNull Bundle values){
+        Bundle extras = getExtras();
+        if (getTargetFragment() instanceof RuleValidator) {
+            return ((RuleValidator) getTargetFragment())
+                    .validate(getTag(), ruleKey, values, extras);
+        }
+        if (getActivity() instanceof RuleValidator) {
+            return ((RuleValidator) getActivity())
+                    .validate(getTag(), ruleKey, values, extras);
+        }
+        return null;
+    }
+
+    /**
+     * The executor to run {@link AsyncInputValidator}s on.
+     * The default is {@link AsyncTask#THREAD_POOL_EXECUTOR}.
+     *
+     * @return the executor
+     */
+    @NonNull
+    protected Executor getValidationExecutor(){
+        return AsyncTask.THREAD_POOL_EXECUTOR;
+    }
+
+    @Nullable
+    private ValidationPipeline createValidationPipeline(){
+        final AsyncInputValidator validator =
+                getTargetFragment() instanceof AsyncInputValidator ? (AsyncInputValidator) getTargetFragment() :
+                getActivity() instanceof AsyncInputValidator ? (AsyncInputValidator) getActivity() :
+                null;
+        if (validator == null) return null;
+        final String tag = getTag();
+        final Bundle extras = getExtras();
+        return new ValidationPipeline(getValidationExecutor(),
+                getArgs().getLong(VALIDATION_DEBOUNCE, ValidationPipeline.DEFAULT_DEBOUNCE_MS),
+                (key, value) -> validator.validateAsync(tag, key, value, extras),
+                new ValidationPipeline.Listener() {
+                    @Override
+                    public void onValidated(@NonNull String key, @Nullable String value, @Nullable String error) {
+                        // only fields in view display errors right away, see validate(holder)
+                        FormElementViewHolder<?> holder = findBoundViewHolder(key);
+                        if (holder instanceof InputViewHolder){
+                            ((InputViewHolder) holder).setError(error != null, error);
+                        }
+                    }
+
+                    @Override
+                    public void onPendingChanged(boolean pending) {
+                        setPositiveButtonEnabled(posButtonEnabled());
+                        if (!pending && mPressWhenValidated){
+                            mPressWhenValidated = false;
+                            if (hasValidationResults()){
+                                pressPositiveButton(); // not if a validation failed
+                            }
+                        }
+                    }
+                });
+    }
+
 
 
 
@@ -262,39 +450,218 @@ public class SimpleFormDialog extends CustomViewDialog<SimpleFormDialog> impleme
 
     @Override
     protected boolean acceptsPositiveButtonPress() {
-        boolean okay = true;
-        for (FormElementViewHolder holder : mViews){
-            if (!holder.validate(getContext())){
-                if (okay) holder.focus(mFocusActions); // focus first element that is not valid
+        completePopulation();
+        boolean okay = true, pending = false;
+        for (int i = 0; i < getElementCount(); i++) {
+            FormElementViewHolder<?> holder = getViewHolder(i);
+            if (!validate(holder)){
+                if (okay) requestFocus(i, true); // focus first element that is not valid
                 okay = false;
-            } else if (holder instanceof InputViewHolder){
-                // custom validation
-                String error = onValidateInput(holder.field.resultKey, ((InputViewHolder) holder).getText());
-                if (error != null){
-                    ((InputViewHolder) holder).setError(true, error);
-                    if (okay) holder.focus(mFocusActions); // focus first element that is not valid
-                    okay = false;
+            } else if (mValidation != null && holder instanceof InputViewHolder) {
+                String key = holder.field.resultKey, text = ((InputViewHolder) holder).getText();
+                if (!mValidation.hasResult(key, text)){
+                    mValidation.validateNow(key, text);
+                    pending = true;
                 }
             }
         }
+        if (okay && pending){
+            // press again once the outstanding validations finished
+            mPressWhenValidated = true;
+            return false;
+        }
         return okay;
     }
 
+    // whether the input of all fields was validated asynchronously
+    private boolean hasValidationResults(){
+        if (mValidation == null) return true;
+        for (int i = 0; i < getElementCount(); i++) {
+            FormElementViewHolder<?> holder = getViewHolder(i);
+            if (holder instanceof InputViewHolder && !mValidation.hasResult(
+                    holder.field.resultKey, ((InputViewHolder) holder).getText())){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    boolean validate(FormElementViewHolder<?> holder){
+        if (!holder.validate(getContext())){
+            return false;
+        } else if (holder instanceof InputViewHolder){
+            // custom validation
+            String error = onValidateInput(holder.field.resultKey, ((InputViewHolder) holder).getText());
+            if (error == null && mValidation != null){
+                // asynchronous validation, if already done
+                error = mValidation.getError(holder.field.resultKey, ((InputViewHolder) holder).getText());
+            }
+            if (error != null){
+                ((InputViewHolder) holder).setError(true, error);
+                return false;
+            }
+        }
+        if (mRuleEngine != null){
+            String error = mRuleEngine.getError(holder.field.resultKey);
+            if (error != null){
+                holder.showRuleError(error);
+                return false;
+            }
+        }
+        return true;
+    }
+
 
     protected boolean posButtonEnabled() {
+        if (mValidation != null && mValidation.isPending()){
+            return false;
+        }
+        if (mRuleEngine != null && !mRuleEngine.isSatisfied()){
+            return false;
+        }
         int first = getFirstFocusableIndex();
-        if (0 <= first && isLastFocusableIndex(first) && first < mViews.size()){
+        if (0 <= first && isLastFocusableIndex(first) && first < mElementCount){
             // first==last --> only one
-            return mViews.get(first).posButtonEnabled(getContext());
+            if (first >= getElementCount()){
+                completePopulation();
+            }
+            return getViewHolder(first).posButtonEnabled(getContext());
         }
         return true;
     }
 
 
     protected void requestFocus(int viewIndex){
-        if (0 <= viewIndex && viewIndex < mViews.size()) {
-            mViews.get(viewIndex).focus(mFocusActions);
+        requestFocus(viewIndex, false);
+    }
+
+    private void requestFocus(int viewIndex, boolean showError){
+        if (viewIndex >= getElementCount() && viewIndex < mElementCount){
+            completePopulation();
+        }
+        if (0 <= viewIndex && viewIndex < getElementCount()) {
+            if (mVirtualAdapter != null){
+                mVirtualAdapter.requestFocus(viewIndex, showError);
+            } else {
+                mViews.get(viewIndex).focus(mFocusActions);
+            }
+        }
+    }
+
+    /**
+     * @return the number of elements available, which is less than the number of fields
+     * while populating the form progressively
+     */
+    private int getElementCount(){
+        return mVirtualAdapter != null ? mVirtualAdapter.getItemCount() : mViews.size();
+    }
+
+    /**
+     * Returns the view holder of an element, which in virtualized mode is set up
+     * from its saved state if the element is not in view
+     */
+    private FormElementViewHolder<?> getViewHolder(int i){
+        return mVirtualAdapter != null ? mVirtualAdapter.getViewHolder(i) : mViews.get(i);
+    }
+
+    /**
+     * @param key the result key of a field
+     * @return the view holder of the field if its view exists, else null
+     */
+    @Nullable
+    private FormElementViewHolder<?> findBoundViewHolder(String key){
+        for (int i = 0; i < getElementCount(); i++) {
+            FormElementViewHolder<?> holder = mVirtualAdapter != null
+                    ? mVirtualAdapter.getBoundViewHolder(i) : mViews.get(i);
+            if (holder != null && key.equals(holder.field.resultKey)){
+                return holder;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Puts the value of a field for checking a {@link FormRule}
+     *
+     * @param values the bundle to put the value to
+     * @param key the key of the field
+     * @return false if the field does not exist (yet) or is empty
+     */
+    private boolean putRuleValue(@NonNull Bundle values, @NonNull String key){
+        Integer i = mKeyIndices.get(key);
+        if (i == null || i >= getElementCount()) return false;
+        // in virtualized mode, values of elements not in view are read from their state
+        FormElementViewHolder<?> holder = mVirtualAdapter != null
+                ? mVirtualAdapter.getStateViewHolder(i) : mViews.get(i);
+        if (holder == null || holder.isEmpty()) return false;
+        holder.putResults(values, key);
+        return true;
+    }
+
+    private final RuleEngine.Host mRuleHost = new RuleEngine.Host() {
+        @NonNull
+        @Override
+        public Context getContext() {
+            return requireContext();
+        }
+
+        @Override
+        public boolean putRuleValue(@NonNull Bundle values, @NonNull String key) {
+            return SimpleFormDialog.this.putRuleValue(values, key);
+        }
+
+        @Nullable
+        @Override
+        public String validateRule(@Nullable String ruleKey, @NonNull Bundle values) {
+            return onValidateRule(ruleKey, values);
+        }
+
+        @Override
+        public void showRuleError(@NonNull String key, @Nullable String error) {
+            FormElementViewHolder<?> holder = findBoundViewHolder(key);
+            if (holder != null){
+                holder.showRuleError(error);
+            }
+        }
+
+        @Override
+        public void onRulesSatisfiedChanged() {
+            setPositiveButtonEnabled(posButtonEnabled());
         }
+    };
+
+    /**
+     * Displays the rule errors of an element whose view was just set up
+     *
+     * @param index the index of the element
+     * @param holder the view holder of the element
+     * @param recheck whether to check the rules reading the element, since its value
+     *                could not be read without a view before
+     */
+    void onElementBound(int index, @NonNull FormElementViewHolder<?> holder, boolean recheck){
+        if (mRuleEngine != null){
+            if (recheck){
+                onValueChanged(index);
+            }
+            String error = mRuleEngine.getError(holder.field.resultKey);
+            if (error != null){
+                holder.showRuleError(error);
+            }
+        }
+    }
+
+    private void onValueChanged(int index){
+        if (mRuleEngine != null && index < mKeys.length){
+            mRuleEngine.onChanged(mKeys[index]);
+        }
+    }
+
+    FocusActions getFocusActions(){
+        return mFocusActions;
+    }
+
+    DialogActions createActions(int index){
+        return new DialogActions(index, mElementCount - 1);
     }
 
 
@@ -394,33 +761,46 @@ public class SimpleFormDialog extends CustomViewDialog<SimpleFormDialog> impleme
             dialog.show(SimpleFormDialog.this, tag);
         }
 
-    }
+        /**
+         * Helper to notify the dialog about a changed value, so that the {@link FormRule}s
+         * reading this element are checked again
+         */
+        public void notifyValueChanged(){
+            onValueChanged(index);
+        }
 
+        /**
+         * Helper to pass changed text to an {@link AsyncInputValidator}, if any
+         *
+         * @param key the result key of the field
+         * @param text the new text
+         */
+        void onInputChanged(String key, @Nullable String text){
+            if (mValidation != null){
+                mPressWhenValidated = false;
+                mValidation.onValueChanged(key, text);
+            }
+        }
 
-    private boolean isFocusableIndex(int i){
-        ArrayList<FormElement> fields = getArgs().getParcelableArrayList(INPUT_FIELDS);
-        return 0 <= i && fields != null && i < fields.size() && !(fields.get(i) instanceof Hint);
     }
 
+
+    // focus order as computed in populateContainer, see FocusTable
+
     private int getNextFocusableIndex(int i){
-        ArrayList<FormElement> fields = getArgs().getParcelableArrayList(INPUT_FIELDS);
-        do {
-            i++;
-            if (fields == null || i >= fields.size()) return Integer.MAX_VALUE;
-        } while (!isFocusableIndex(i));
-        return i;
+        return mFocusTable.getNext(i);
     }
 
     private int getFirstFocusableIndex(){
-        return getNextFocusableIndex(-1);
+        return mFocusTable.getFirst();
     }
 
     private boolean isOnlyFocusableIndex(int i){
-        return i == getFirstFocusableIndex() && isLastFocusableIndex(i);
+        return mFocusTable.isOnly(i);
     }
 
     private boolean isLastFocusableIndex(int i){
-        return isFocusableIndex(i) && getNextFocusableIndex(i) == Integer.MAX_VALUE;
+        return mFocusTable.isLast(i);
     }
 
 
@@ -439,11 +819,22 @@ public class SimpleFormDialog extends CustomViewDialog<SimpleFormDialog> impleme
     @Override
     public View onCreateContentView(Bundle savedInstanceState) {
 
-        // inflate custom view
-        View view = inflate(R.layout.simpledialogfragment_form);
-        ViewGroup container = view.findViewById(R.id.container);
-
-        populateContainer(container, savedInstanceState);
+        if (mValidation != null){
+            mValidation.cancelAll();
+        }
+        mValidation = createValidationPipeline();
+
+        View view;
+        if (getArgs().getBoolean(VIRTUALIZED)){
+            view = inflate(R.layout.simpledialogfragment_form_virtual);
+            populateRecyclerView(view.findViewById(R.id.recyclerView), savedInstanceState);
+        } else {
+            // inflate custom view
+            view = inflate(R.layout.simpledialogfragment_form);
+            ViewGroup container = view.findViewById(R.id.container);
+
+            populateContainer(container, savedInstanceState);
+        }
 
         setPositiveButtonEnabled(posButtonEnabled());
 
@@ -465,32 +856,141 @@ public class SimpleFormDialog extends CustomViewDialog<SimpleFormDialog> impleme
         if (fields != null) {
 
             mViews = new ArrayList<>(fields.size());
+            mFocusTable = FocusTable.of(fields);
+            mElementCount = fields.size();
+            setUpRules(fields);
+
+            int count = fields.size();
+            if (getArgs().getBoolean(PROGRESSIVE)){
+                // as many as fit the screen, assuming a minimal element height
+                float density = getResources().getDisplayMetrics().density;
+                int fitting = 1 + (int) (getResources().getDisplayMetrics().heightPixels
+                        / (PROGRESSIVE_MIN_ELEMENT_HEIGHT_DP * density));
+                count = Math.min(count, fitting);
+            }
+
+            for (int i = 0; i < count; i++) {
+                addElement(fields.get(i), savedInstanceState);
+            }
+
+            if (count < fields.size()){
+                mPendingFields = fields;
+                mPendingSavedState = savedInstanceState;
+                Choreographer.getInstance().postFrameCallback(mPopulateCallback);
+            }
 
-            int lastI = fields.size() - 1;
-            for (int i = 0; i < fields.size(); i++) {
+        }
+    }
 
-                FormElementViewHolder<?> viewHolder = fields.get(i).buildViewHolder();
+    private void addElement(FormElement field, @Nullable Bundle savedInstanceState){
+        int i = mViews.size();
 
-                View child = inflate(viewHolder.getContentViewLayout(), mFormContainer, false);
+        FormElementViewHolder<?> viewHolder = field.buildViewHolder();
 
-                Bundle savedState = savedInstanceState == null ? null :
-                        savedInstanceState.getBundle(SAVE_TAG + i);
+        View child = inflate(viewHolder.getContentViewLayout(), mFormContainer, false);
 
-                viewHolder.setUpView(child, getContext(), savedState, new DialogActions(i, lastI));
+        Bundle savedState = savedInstanceState == null ? null :
+                savedInstanceState.getBundle(SAVE_TAG + i);
 
-                mFormContainer.addView(child);
-                mViews.add(viewHolder);
+        viewHolder.setUpView(child, getContext(), savedState, createActions(i));
+
+        mFormContainer.addView(child);
+        mViews.add(viewHolder);
+
+        if (mRuleEngine != null){
+            mRuleEngine.onChanged(field.resultKey);
+        }
+    }
+
+    private void setUpRules(@NonNull ArrayList<FormElement> fields){
+        mKeys = new String[fields.size()];
+        mKeyIndices.clear();
+        for (int i = 0; i < mKeys.length; i++) {
+            mKeys[i] = fields.get(i).resultKey;
+            mKeyIndices.put(mKeys[i], i);
+        }
+        ArrayList<FormRule> rules = getArgs().getParcelableArrayList(RULES);
+        mRuleEngine = rules == null || rules.isEmpty() ? null : new RuleEngine(mRuleHost, rules);
+    }
+
+    private void populateNextElements(){
+        if (mPendingFields == null) return;
+        long start = SystemClock.uptimeMillis();
+        do {
+            addElement(mPendingFields.get(mViews.size()), mPendingSavedState);
+        } while (mViews.size() < mPendingFields.size()
+                && SystemClock.uptimeMillis() - start < PROGRESSIVE_FRAME_BUDGET_MS);
+
+        if (mViews.size() < mPendingFields.size()){
+            Choreographer.getInstance().postFrameCallback(mPopulateCallback);
+        } else {
+            mPendingFields = null;
+            mPendingSavedState = null;
+        }
+    }
+
+    /**
+     * Adds all elements not yet added when populating the form progressively
+     */
+    private void completePopulation(){
+        if (mPendingFields == null) return;
+        Choreographer.getInstance().removeFrameCallback(mPopulateCallback);
+        while (mViews.size() < mPendingFields.size()){
+            addElement(mPendingFields.get(mViews.size()), mPendingSavedState);
+        }
+        mPendingFields = null;
+        mPendingSavedState = null;
+    }
+
+    @Override
+    public void onDestroyView() {
+        if (mPendingFields != null){
+            Choreographer.getInstance().removeFrameCallback(mPopulateCallback);
+            mPendingFields = null;
+            mPendingSavedState = null;
+        }
+        if (mValidation != null){
+            mValidation.cancelAll();
+        }
+        super.onDestroyView();
+    }
 
-            }
 
+    /**
+     * Sets up a RecyclerView displaying the FormElements in virtualized mode,
+     * see {@link SimpleFormDialog#virtualized}
+     *
+     * @param recyclerView the RecyclerView to hold the FormElements
+     * @param savedInstanceState saved state
+     */
+    protected void populateRecyclerView(@NonNull RecyclerView recyclerView,
+                                        @Nullable Bundle savedInstanceState) {
+        mFormContainer = recyclerView;
+        // allow clearCurrentFocus to move the focus to the container itself
+        recyclerView.setDescendantFocusability(ViewGroup.FOCUS_BEFORE_DESCENDANTS);
+        recyclerView.setLayoutManager(new LinearLayoutManager(getContext()));
+
+        ArrayList<FormElement> fields = getArgs().getParcelableArrayList(INPUT_FIELDS);
+        if (fields == null) fields = new ArrayList<>(0);
+
+        mViews = new ArrayList<>(0);
+        mFocusTable = FocusTable.of(fields);
+        mElementCount = fields.size();
+        setUpRules(fields);
+        mVirtualAdapter = new VirtualFormAdapter(this, fields, savedInstanceState);
+        recyclerView.setAdapter(mVirtualAdapter);
+        if (mRuleEngine != null){
+            mRuleEngine.checkAll();
         }
     }
 
 
     @Override
     public Bundle onResult(int which) {
+        completePopulation();
         Bundle result = new Bundle();
-        for (FormElementViewHolder holder : mViews) {
+        for (int i = 0; i < getElementCount(); i++) {
+            FormElementViewHolder<?> holder = getViewHolder(i);
             holder.putResults(result, holder.field.resultKey);
         }
         return result;
@@ -498,6 +998,18 @@ public class SimpleFormDialog extends CustomViewDialog<SimpleFormDialog> impleme
 
     @Override
     public void onSaveInstanceState(@NonNull Bundle outState) {
+        if (mPendingFields != null && mPendingSavedState != null){
+            // fields not populated yet keep the state they will be populated with
+            for (int i = mViews.size(); i < mPendingFields.size(); i++) {
+                Bundle viewState = mPendingSavedState.getBundle(SAVE_TAG + i);
+                if (viewState != null){
+                    outState.putBundle(SAVE_TAG + i, viewState);
+                }
+            }
+        }
+        if (mVirtualAdapter != null){
+            mVirtualAdapter.saveStates(outState);
+        }
         for (int i = 0; i < mViews.size(); i++) {
             Bundle viewState = new Bundle();
             mViews.get(i).saveState(viewState);
@@ -509,13 +1021,16 @@ public class SimpleFormDialog extends CustomViewDialog<SimpleFormDialog> impleme
 
     @Override
     public boolean onResult(@NonNull String dialogTag, int which, @NonNull Bundle extras) {
-        ArrayList<FormElement> fields = getArgs().getParcelableArrayList(INPUT_FIELDS);
-        if (fields != null) {
-            for (FormElementViewHolder<?> view : mViews) {
-                if (view instanceof OnDialogResultListener){
-                    if (((OnDialogResultListener) view).onResult(dialogTag, which, extras)){
-                        return true;
+        completePopulation();
+        for (int i = 0; i < getElementCount(); i++) {
+            if (mVirtualAdapter != null && !mVirtualAdapter.isResultListener(i)) continue;
+            FormElementViewHolder<?> view = getViewHolder(i);
+            if (view instanceof OnDialogResultListener){
+                if (((OnDialogResultListener) view).onResult(dialogTag, which, extras)){
+                    if (mVirtualAdapter != null){
+                        mVirtualAdapter.commit(i, view);
                     }
+                    return true;
                 }
             }
         }
@@ -17,6 +17,7 @@
 package eltos.simpledialogfragment.form;
 
 import android.content.Context;
+import android.content.res.ColorStateList;
 import android.os.Bundle;
 import androidx.annotation.NonNull;
 import android.util.TypedValue;
@@ -45,6 +46,9 @@ class SpinnerViewHolder extends FormElementViewHolder<Spinner> {
     private CustomSpinnerView spinner;
     private TextView label;
     private CustomSpinnerAdapter adapter;
+    private ColorStateList labelColors;
+    // the selected index if set up without a view
+    private int selection = NONE;
 
     SpinnerViewHolder(Spinner field) {
         super(field);
@@ -61,6 +65,7 @@ class SpinnerViewHolder extends FormElementViewHolder<Spinner> {
 
         spinner = view.findViewById(R.id.spinner);
         label = view.findViewById(R.id.label);
+        labelColors = label.getTextColors();
 
         // Label
         String text = field.getText(context);
@@ -87,6 +92,7 @@ class SpinnerViewHolder extends FormElementViewHolder<Spinner> {
         spinner.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
             @Override
             public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
+                actions.notifyValueChanged();
                 actions.continueWithNextElement(false);
             }
             @Override
@@ -104,6 +110,28 @@ class SpinnerViewHolder extends FormElementViewHolder<Spinner> {
 
 
 
+    @Override
+    protected boolean setUpState(Context context, Bundle savedInstanceState,
+                                 SimpleFormDialog.DialogActions actions) {
+        String[] items = field.getItems(context);
+        int count = items != null ? items.length : 0;
+        selection = field.position >= 0 && field.position < count ? field.position : NONE;
+        if (savedInstanceState != null) {
+            selection = savedInstanceState.getInt(SAVED_POSITION);
+        }
+        return true;
+    }
+
+    @Override
+    protected boolean tearDownView() {
+        spinner.setOnItemSelectedListener(null);
+        spinner.setSpinnerEventsListener(null);
+        spinner.setAdapter(null);
+        label.setTextColor(labelColors);
+        return true;
+    }
+
+
     @Override
     protected void saveState(Bundle outState) {
         outState.putInt(SAVED_POSITION, getSelection());
@@ -127,10 +155,17 @@ class SpinnerViewHolder extends FormElementViewHolder<Spinner> {
         return !field.required || getSelection() != NONE;
     }
 
+    @Override
+    protected boolean isEmpty() {
+        return getSelection() == NONE;
+    }
+
     @Override
     protected boolean validate(Context context) {
         boolean valid = posButtonEnabled(context);
-        if (valid) {
+        if (label == null) {
+            return valid;
+        } else if (valid) {
             TypedValue value = new TypedValue();
             if (label.getContext().getTheme().resolveAttribute(android.R.attr.textColor, value, true)) {
                 label.setTextColor(value.data);
@@ -148,6 +183,7 @@ class SpinnerViewHolder extends FormElementViewHolder<Spinner> {
 
 
     private int getSelection(){
+        if (spinner == null) return selection;
         return adapter.mapFromSelection(spinner.getSelectedItemPosition());
     }
 
@@ -0,0 +1,295 @@
+/*
+ *  Copyright 2026 Philipp Niedermayer (github.com/eltos)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package eltos.simpledialogfragment.form;
+
+import android.content.Context;
+import android.os.Bundle;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.List;
+
+import eltos.simpledialogfragment.SimpleDialog.OnDialogResultListener;
+
+/**
+ * Displays the elements of a {@link SimpleFormDialog} in a RecyclerView, so that only
+ * the views of the elements scrolled into view exist.
+ * <p>
+ * The state of each element lives in a per-field Bundle as written by
+ * {@link FormElementViewHolder#saveState}, which is updated whenever a view is recycled.
+ * To access an element that is not bound, e.g. for validation or results, a view holder
+ * is set up from this state without a view, see {@link FormElementViewHolder#setUpState}.
+ * Only view holders not supporting this get a detached view.
+ * <p>
+ * Views are released via {@link FormElementViewHolder#tearDownView} when recycled and
+ * then reused for other elements with the same layout. Once a view holder can not release
+ * its view, views of that layout are no longer reused.
+ */
+class VirtualFormAdapter extends RecyclerView.Adapter<VirtualFormAdapter.Row> {
+
+    static class Row extends RecyclerView.ViewHolder {
+        int index = RecyclerView.NO_POSITION;
+        @Nullable FormElementViewHolder<?> holder;
+
+        Row(@NonNull View itemView) {
+            super(itemView);
+        }
+    }
+
+    private final SimpleFormDialog mDialog;
+    private final List<FormElement> mFields;
+    private final int[] mLayouts;
+    private final Bundle[] mStates;
+    // view holders of elements currently bound to a view
+    private final FormElementViewHolder<?>[] mBound;
+    private final boolean[] mResultListeners;
+    // elements whose view holder could not be set up without a view
+    private final boolean[] mRequireView;
+    private @Nullable RecyclerView mRecyclerView;
+    private int mPendingFocus = RecyclerView.NO_POSITION;
+    private boolean mPendingError = false;
+
+    /**
+     * @param dialog the dialog
+     * @param fields the elements of the form
+     * @param savedInstanceState the saved state of the dialog with element states stored
+     *                           under {@link SimpleFormDialog#SAVE_TAG} + index, or null
+     */
+    VirtualFormAdapter(@NonNull SimpleFormDialog dialog, @NonNull List<FormElement> fields,
+                       @Nullable Bundle savedInstanceState){
+        mDialog = dialog;
+        mFields = fields;
+        mLayouts = new int[fields.size()];
+        mStates = new Bundle[fields.size()];
+        mBound = new FormElementViewHolder<?>[fields.size()];
+        mResultListeners = new boolean[fields.size()];
+        mRequireView = new boolean[fields.size()];
+        for (int i = 0; i < mLayouts.length; i++) {
+            FormElementViewHolder<?> holder = fields.get(i).buildViewHolder();
+            mLayouts[i] = holder.getContentViewLayout();
+            mResultListeners[i] = holder instanceof OnDialogResultListener;
+            if (savedInstanceState != null){
+                mStates[i] = savedInstanceState.getBundle(SimpleFormDialog.SAVE_TAG + i);
+            }
+        }
+    }
+
+    @Override
+    public int getItemCount() {
+        return mFields.size();
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        return mLayouts[position];
+    }
+
+    @Override
+    public void onAttachedToRecyclerView(@NonNull RecyclerView recyclerView) {
+        mRecyclerView = recyclerView;
+    }
+
+    @Override
+    public void onDetachedFromRecyclerView(@NonNull RecyclerView recyclerView) {
+        mRecyclerView = null;
+    }
+
+    @NonNull
+    @Override
+    public Row onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        return new Row(LayoutInflater.from(parent.getContext()).inflate(viewType, parent, false));
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull Row row, int position) {
+        if (row.holder != null){
+            // rebound without being recycled
+            unbind(row);
+        }
+        FormElementViewHolder<?> holder = mFields.get(position).buildViewHolder();
+        holder.setUpView(row.itemView, row.itemView.getContext(), mStates[position],
+                mDialog.createActions(position));
+        row.index = position;
+        row.holder = holder;
+        mBound[position] = holder;
+        mDialog.onElementBound(position, holder, mRequireView[position]);
+
+        if (mPendingFocus == position){
+            final boolean showError = mPendingError;
+            mPendingFocus = RecyclerView.NO_POSITION;
+            row.itemView.post(() -> {
+                if (mBound[position] == holder){
+                    if (showError){
+                        mDialog.validate(holder);
+                    }
+                    holder.focus(mDialog.getFocusActions());
+                }
+            });
+        }
+    }
+
+    @Override
+    public void onViewRecycled(@NonNull Row row) {
+        unbind(row);
+    }
+
+    @Override
+    public boolean onFailedToRecycleView(@NonNull Row row) {
+        unbind(row);
+        return false;
+    }
+
+    private void unbind(Row row){
+        if (row.holder != null && row.index != RecyclerView.NO_POSITION){
+            Bundle state = new Bundle();
+            row.holder.saveState(state);
+            mStates[row.index] = state;
+            if (mBound[row.index] == row.holder){
+                mBound[row.index] = null;
+            }
+            if (!row.holder.tearDownView() && mRecyclerView != null){
+                // listeners remain registered, so views of this layout must not be reused
+                // (called before the view is put into the pool)
+                mRecyclerView.getRecycledViewPool().setMaxRecycledViews(row.getItemViewType(), 0);
+            }
+        }
+        row.holder = null;
+        row.index = RecyclerView.NO_POSITION;
+    }
+
+    /**
+     * @param i the index of the element
+     * @return true if the element is currently bound to a view
+     */
+    boolean isBound(int i){
+        return mBound[i] != null;
+    }
+
+    /**
+     * @param i the index of the element
+     * @return the view holder of the element if it is currently bound to a view, else null
+     */
+    @Nullable
+    FormElementViewHolder<?> getBoundViewHolder(int i){
+        return mBound[i];
+    }
+
+    /**
+     * @param i the index of the element
+     * @return true if the view holder of the element receives results of other dialogs
+     */
+    boolean isResultListener(int i){
+        return mResultListeners[i];
+    }
+
+    /**
+     * Returns the view holder of an element. If the element is not bound, a new view holder
+     * is set up from the element's state without a view, or with a detached view if the
+     * view holder does not support this.
+     * Use {@link VirtualFormAdapter#commit} to keep changes made to such a view holder.
+     *
+     * @param i the index of the element
+     * @return the view holder
+     */
+    @NonNull
+    FormElementViewHolder<?> getViewHolder(int i){
+        FormElementViewHolder<?> holder = getStateViewHolder(i);
+        if (holder != null) return holder;
+        holder = mFields.get(i).buildViewHolder();
+        ViewGroup parent = mRecyclerView;
+        Context context = parent != null ? parent.getContext() : mDialog.requireContext();
+        View view = LayoutInflater.from(context).inflate(mLayouts[i], parent, false);
+        holder.setUpView(view, view.getContext(), mStates[i], mDialog.createActions(i));
+        return holder;
+    }
+
+    /**
+     * Returns the view holder of an element without inflating a view. If the element is
+     * not bound, a new view holder is set up from the element's state.
+     *
+     * @param i the index of the element
+     * @return the view holder or null if the element is not bound and its view holder
+     *         does not support {@link FormElementViewHolder#setUpState}
+     */
+    @Nullable
+    FormElementViewHolder<?> getStateViewHolder(int i){
+        if (mBound[i] != null) return mBound[i];
+        if (mRequireView[i]) return null;
+        FormElementViewHolder<?> holder = mFields.get(i).buildViewHolder();
+        Context context = mRecyclerView != null ? mRecyclerView.getContext() : mDialog.requireContext();
+        if (holder.setUpState(context, mStates[i], mDialog.createActions(i))){
+            return holder;
+        }
+        mRequireView[i] = true;
+        return null;
+    }
+
+    /**
+     * Stores the state of a view holder returned by {@link VirtualFormAdapter#getViewHolder}
+     * for an element that is not bound
+     *
+     * @param i the index of the element
+     * @param holder the view holder
+     */
+    void commit(int i, @NonNull FormElementViewHolder<?> holder){
+        if (mBound[i] != holder){
+            Bundle state = new Bundle();
+            holder.saveState(state);
+            mStates[i] = state;
+        }
+    }
+
+    /**
+     * Saves the states of all elements
+     *
+     * @param outState the bundle to save the states to
+     *                 under {@link SimpleFormDialog#SAVE_TAG} + index
+     */
+    void saveStates(@NonNull Bundle outState){
+        for (int i = 0; i < mStates.length; i++) {
+            Bundle state = mStates[i];
+            if (mBound[i] != null){
+                state = new Bundle();
+                mBound[i].saveState(state);
+            }
+            if (state != null){
+                outState.putBundle(SimpleFormDialog.SAVE_TAG + i, state);
+            }
+        }
+    }
+
+    /**
+     * Focuses an element, scrolling it into view first if needed
+     *
+     * @param i the index of the element
+     * @param showError whether to validate the element once bound to display its error
+     */
+    void requestFocus(int i, boolean showError){
+        if (mBound[i] != null){
+            mBound[i].focus(mDialog.getFocusActions());
+        } else if (mRecyclerView != null){
+            mPendingFocus = i;
+            mPendingError = showError;
+            mRecyclerView.scrollToPosition(i);
+        }
+    }
+}
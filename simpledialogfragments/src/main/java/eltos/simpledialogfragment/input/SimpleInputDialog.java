@@ -17,6 +17,7 @@
 package eltos.simpledialogfragment.input;
 
 import android.content.Context;
+import android.os.AsyncTask;
 import android.os.Bundle;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -31,8 +32,11 @@ import android.view.inputmethod.EditorInfo;
 import android.widget.ArrayAdapter;
 import android.widget.AutoCompleteTextView;
 
+import java.util.concurrent.Executor;
+
 import eltos.simpledialogfragment.CustomViewDialog;
 import eltos.simpledialogfragment.R;
+import eltos.simpledialogfragment.ValidationPipeline;
 
 /**
  * An simple dialog with an input field. Supports suggestions, input validations and
@@ -139,6 +143,18 @@ public class SimpleInputDialog extends CustomViewDialog<SimpleInputDialog> {
         return this;
     }
 
+    /**
+     * Sets the delay after the last keystroke before the input is passed to an
+     * {@link AsyncInputValidator}. The default is {@link ValidationPipeline#DEFAULT_DEBOUNCE_MS}.
+     *
+     * @param millis the delay in milliseconds
+     * @return this instance
+     */
+    public SimpleInputDialog validationDebounce(long millis){
+        getArgs().putLong(VALIDATION_DEBOUNCE, millis);
+        return this;
+    }
+
 
 
 
@@ -156,6 +172,26 @@ public class SimpleInputDialog extends CustomViewDialog<SimpleInputDialog> {
         @Nullable String validate(String dialogTag, @Nullable String input, @NonNull Bundle extras);
     }
 
+    public interface AsyncInputValidator {
+        /**
+         * Let the hosting fragment or activity implement this interface for validations
+         * that are too slow for the main thread, e.g. checking whether a name is taken.
+         * The method is called from a background thread while the user is typing and may block.
+         * Validations of outdated input are cancelled by interrupting the thread.
+         * While validations are pending, the positive button is disabled.
+         * Results are cached, so the method is called at most once per input.
+         *
+         * @param dialogTag the tag of this fragment
+         * @param input the text entered by the user
+         * @param extras the extras passed with {@link SimpleInputDialog#extra(Bundle)}
+         * @return an error message to display or null if the input is valid
+         * @throws Exception if the validation failed, in which case the input is validated
+         *                   again when the positive button is pressed
+         */
+        @Nullable String validateAsync(String dialogTag, @Nullable String input,
+                                       @NonNull Bundle extras) throws Exception;
+    }
+
 
 
 
@@ -164,10 +200,13 @@ public class SimpleInputDialog extends CustomViewDialog<SimpleInputDialog> {
             INPUT_TYPE = TAG + "input_type",
             ALLOW_EMPTY = TAG + "allow_empty",
             MAX_LENGTH = TAG + "max_length",
-            SUGGESTIONS = TAG + "suggestions";
+            SUGGESTIONS = TAG + "suggestions",
+            VALIDATION_DEBOUNCE = TAG + "validation_debounce";
 
     private AutoCompleteTextView mInput;
     private TextInputLayout mInputLayout;
+    private @Nullable ValidationPipeline mValidation;
+    private boolean mPressWhenValidated = false;
 
 
     protected @Nullable String onValidateInput(@Nullable String input){
@@ -183,6 +222,53 @@ public class SimpleInputDialog extends CustomViewDialog<SimpleInputDialog> {
         return null;
     }
 
+    /**
+     * The executor to run {@link AsyncInputValidator}s on.
+     * The default is {@link AsyncTask#THREAD_POOL_EXECUTOR}.
+     *
+     * @return the executor
+     */
+    @NonNull
+    protected Executor getValidationExecutor(){
+        return AsyncTask.THREAD_POOL_EXECUTOR;
+    }
+
+    @Nullable
+    private ValidationPipeline createValidationPipeline(){
+        final AsyncInputValidator validator =
+                getTargetFragment() instanceof AsyncInputValidator ? (AsyncInputValidator) getTargetFragment() :
+                getActivity() instanceof AsyncInputValidator ? (AsyncInputValidator) getActivity() :
+                null;
+        if (validator == null) return null;
+        final String tag = getTag();
+        final Bundle extras = getExtras();
+        return new ValidationPipeline(getValidationExecutor(),
+                getArgs().getLong(VALIDATION_DEBOUNCE, ValidationPipeline.DEFAULT_DEBOUNCE_MS),
+                (key, value) -> validator.validateAsync(tag, value, extras),
+                new ValidationPipeline.Listener() {
+                    @Override
+                    public void onValidated(@NonNull String key, @Nullable String value, @Nullable String error) {
+                        setError(error);
+                    }
+
+                    @Override
+                    public void onPendingChanged(boolean pending) {
+                        setPositiveButtonEnabled(posEnabled());
+                        if (!pending && mPressWhenValidated){
+                            mPressWhenValidated = false;
+                            if (mValidation != null && mValidation.hasResult(TEXT, getText())){
+                                pressPositiveButton(); // not if the validation failed
+                            }
+                        }
+                    }
+                });
+    }
+
+    private void setError(@Nullable String error){
+        mInputLayout.setError(error);
+        mInputLayout.setErrorEnabled(error != null);
+    }
+
 
 
     /**
@@ -232,6 +318,11 @@ public class SimpleInputDialog extends CustomViewDialog<SimpleInputDialog> {
             mInput.setSelection(0, mInput.length());
         }
 
+        if (mValidation != null){
+            mValidation.cancelAll();
+        }
+        mValidation = createValidationPipeline();
+
         mInput.setImeOptions(EditorInfo.IME_ACTION_DONE);
         mInput.setOnEditorActionListener((textView, actionId, event) -> {
             if (actionId == EditorInfo.IME_ACTION_DONE){
@@ -248,6 +339,10 @@ public class SimpleInputDialog extends CustomViewDialog<SimpleInputDialog> {
             public void onTextChanged(CharSequence s, int start, int before, int count) { }
             @Override
             public void afterTextChanged(Editable s) {
+                if (mValidation != null){
+                    mPressWhenValidated = false;
+                    mValidation.onValueChanged(TEXT, getText());
+                }
                 setPositiveButtonEnabled(posEnabled());
             }
         });
@@ -267,7 +362,8 @@ public class SimpleInputDialog extends CustomViewDialog<SimpleInputDialog> {
 
     protected boolean posEnabled(){
         return (!isInputEmpty() || getArgs().getBoolean(ALLOW_EMPTY)) && (getText() == null
-                || getText().length() <= getArgs().getInt(MAX_LENGTH, getText().length()));
+                || getText().length() <= getArgs().getInt(MAX_LENGTH, getText().length()))
+                && (mValidation == null || !mValidation.isPending());
     }
 
 
@@ -282,6 +378,15 @@ public class SimpleInputDialog extends CustomViewDialog<SimpleInputDialog> {
     protected boolean acceptsPositiveButtonPress() {
         String input = getText();
         String error = onValidateInput(input);
+        if (error == null && mValidation != null) {
+            if (!mValidation.hasResult(TEXT, input)){
+                // press again once the outstanding validation finished
+                mPressWhenValidated = true;
+                mValidation.validateNow(TEXT, input);
+                return false;
+            }
+            error = mValidation.getError(TEXT, input);
+        }
         if (error == null) {
             return true;
         } else {
@@ -291,6 +396,14 @@ public class SimpleInputDialog extends CustomViewDialog<SimpleInputDialog> {
         }
     }
 
+    @Override
+    public void onDestroyView() {
+        if (mValidation != null){
+            mValidation.cancelAll();
+        }
+        super.onDestroyView();
+    }
+
 
     @Override
     public Bundle onResult(int which) {
@@ -18,6 +18,9 @@ package eltos.simpledialogfragment.list;
 
 import android.content.Context;
 import android.content.res.TypedArray;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import androidx.annotation.ColorInt;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -25,16 +28,32 @@ import androidx.core.util.Pair;
 import android.text.Spannable;
 import android.text.SpannableStringBuilder;
 import android.text.style.BackgroundColorSpan;
+import android.text.TextUtils;
+import android.util.Log;
+import android.util.SparseArray;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.AbsListView;
 import android.widget.BaseAdapter;
 import android.widget.Checkable;
 import android.widget.Filter;
 import android.widget.Filterable;
+import android.widget.ListView;
 
+import java.text.CollationKey;
+import java.text.Collator;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -56,6 +75,10 @@ import java.util.regex.Pattern;
  */
 public abstract class AdvancedAdapter<T> extends BaseAdapter implements Filterable {
 
+    private static final String TAG = "AdvancedAdapter";
+    // source of ids for items without one, see fallbackId
+    private static final AtomicLong sFallbackIds = new AtomicLong(Long.MIN_VALUE);
+
     public static final int CHOICE_MODE_NONE = 0;
     public static final int CHOICE_MODE_SINGLE = 1;
     public static final int CHOICE_MODE_MULTIPLE = 2;
@@ -63,31 +86,59 @@ public abstract class AdvancedAdapter<T> extends BaseAdapter implements Filterab
     private boolean mNoAnimations = false;
     private @ColorInt Integer mDefaultHighlightColor = null;
 
-    class Item {
-        T object;
-        Long id = null;
-        boolean checked = false;
-        Item(T object){
-            this.object = object;
-        }
-        Item(T object, boolean checked){
-            this(object);
-            this.checked = checked;
-        }
-        Item(T object, Long id){
-            this(object);
-            this.id = id;
-        }
-
-        public Long getId() {
-            return id != null ? id : hashCode();
+    /**
+     * An immutable version of the data set.
+     * <p>
+     * Items are kept as parallel arrays rather than one wrapper object per item, so that
+     * large data sets don't pay for boxing. Every data change publishes a new snapshot, so
+     * that background filtering can work on the snapshot it started with without locking.
+     */
+    private static final class Snapshot {
+        final int version;
+        final Object[] objects;
+        final long[] ids;
+        final IdIndex idIndex;
+        final int[] allPositions;
+        final @Nullable SectionIndex sectionIndex;
+
+        Snapshot(int version, Object[] objects, long[] ids, @Nullable SectionIndex sectionIndex){
+            this.version = version;
+            this.objects = objects;
+            this.ids = ids;
+            this.sectionIndex = sectionIndex;
+            this.idIndex = new IdIndex(ids);
+            this.allPositions = new int[objects.length];
+            for (int i = 0; i < objects.length; i++) {
+                allPositions[i] = i;
+            }
         }
     }
 
-    private ArrayList<Item> mFilteredItems = new ArrayList<>();
-    private ArrayList<Item> mItems = new ArrayList<>();
+    private volatile Snapshot mSnapshot = new Snapshot(0, new Object[0], new long[0], null);
+    private @Nullable Collator mCollator;
+    private @Nullable Executor mSortExecutor;
+    private @Nullable Handler mHandler;
+    // the unsorted snapshot while it is sorted in the background
+    private @Nullable Snapshot mSortPending;
+    // check states are only accessed from the UI thread
+    private BitSet mChecked = new BitSet();
+    private int mCheckedCount = 0;
+    // positions restored while sorting, applied once the sorted snapshot is published
+    private @Nullable BitSet mPendingChecked;
+    // original positions whose check state changed since the views were last bound
+    private final BitSet mCheckChanges = new BitSet();
+    private boolean mCheckChangesUnknown = false;
+
+    // original positions of the currently visible (filtered) items
+    private int[] mFilteredPositions = new int[0];
+    private int mFilteredCount = 0;
     //    private OnFilteredCallback mOnFilteredCallback = null;
     private CharSequence mFilterConstraint = null;
+    // highlighted texts by original position, valid for the published filter results
+    private final SparseArray<Spannable> mHighlightCache = new SparseArray<>();
+    private volatile int mHighlightCacheColor;
+    // true if items are highlighted by position, so that highlights can be prepared
+    private volatile boolean mHighlightsByPosition = false;
 
 
     public interface ItemIdentifier<Item> {
@@ -107,16 +158,18 @@ public abstract class AdvancedAdapter<T> extends BaseAdapter implements Filterab
 
     /**
      * Set this adapters data
+     * <p>
+     * Every item gets an id of its own, even if items are equal.
      *
      * @param list an array-list of objects to be maintained by this adapter
      */
     public void setData(ArrayList<? extends T> list){
-        mItems.clear();
-        for (T t : list) {
-            mItems.add(new Item(t));
+        Object[] objects = list.toArray();
+        long[] ids = new long[objects.length];
+        for (int i = 0; i < objects.length; i++) {
+            ids[i] = fallbackId();
         }
-        mFilteredItems = new ArrayList<>(mItems);
-        filterItems();
+        setStore(objects, ids);
     }
 
     /**
@@ -136,42 +189,317 @@ public abstract class AdvancedAdapter<T> extends BaseAdapter implements Filterab
      * @param identifier an Identifier returning a unique id for every item
      */
     public void setData(ArrayList<? extends T> list, ItemIdentifier<T> identifier){
-        mItems.clear();
-        for (T t : list) {
-            mItems.add(new Item(t, identifier.getIdForItem(t)));
+        Object[] objects = new Object[list.size()];
+        long[] ids = new long[objects.length];
+        for (int i = 0; i < objects.length; i++) {
+            T t = list.get(i);
+            Long id = identifier.getIdForItem(t);
+            objects[i] = t;
+            ids[i] = id != null ? id : fallbackId();
         }
-        mFilteredItems = new ArrayList<>(mItems);
-        filterItems();
+        setStore(objects, ids);
     }
 
     public void setDataAndIds(T[] list, long[] ids){
-        mItems.clear();
-        ArrayList<Pair<T, Long>> pairs = new ArrayList<>(list.length);
-        for (int i = 0; i < list.length && i < ids.length; i++) {
-            mItems.add(new Item(list[i], ids[i]));
-        }
-        mFilteredItems = new ArrayList<>(mItems);
-        filterItems();
+        int size = Math.min(list.length, ids.length);
+        setStore(Arrays.copyOf(list, size, Object[].class), Arrays.copyOf(ids, size));
     }
 
     public void setDataAndIds(ArrayList<Pair<T, Long>> list){
-        mItems.clear();
-        for (Pair<T, Long> pair : list) {
-            mItems.add(new Item(pair.first, pair.second));
+        Object[] objects = new Object[list.size()];
+        long[] ids = new long[objects.length];
+        for (int i = 0; i < objects.length; i++) {
+            Pair<T, Long> pair = list.get(i);
+            objects[i] = pair.first;
+            ids[i] = pair.second != null ? pair.second : fallbackId();
         }
-        mFilteredItems = new ArrayList<>(mItems);
+        setStore(objects, ids);
+    }
+
+    /**
+     * Appends items to this adapters data, keeping the check states of the present items.
+     * The items are not sorted, even if sorting is enabled.
+     *
+     * @param list an array-list of objects to append
+     * @param identifier an Identifier returning a unique id for every item
+     */
+    public void appendData(ArrayList<? extends T> list, ItemIdentifier<T> identifier){
+        Snapshot previous = mSnapshot;
+        int size = previous.objects.length;
+        Object[] objects = Arrays.copyOf(previous.objects, size + list.size());
+        long[] ids = Arrays.copyOf(previous.ids, objects.length);
+        for (int i = 0; i < list.size(); i++) {
+            T t = list.get(i);
+            Long id = identifier.getIdForItem(t);
+            objects[size + i] = t;
+            ids[size + i] = id != null ? id : fallbackId();
+        }
+        publishSnapshot(new Snapshot(previous.version + 1, objects, ids, null), mChecked);
+    }
+
+    /**
+     * Items without an id get a fallback id unique to their position and data set,
+     * so that equal (or interned) items can be checked independently.
+     * These ids are taken from the far negative range to avoid clashes with given ids.
+     */
+    private static long fallbackId(){
+        return sFallbackIds.getAndIncrement();
+    }
+
+    private void setStore(Object[] objects, long[] ids){
+        final Collator collator = mCollator;
+        final Executor executor = mSortExecutor;
+        SectionIndex sectionIndex = null;
+        if (collator != null && executor == null){
+            Sorted sorted = sort(objects, ids, collator);
+            objects = sorted.objects;
+            ids = sorted.ids;
+            sectionIndex = sorted.sectionIndex;
+        }
+
+        final Snapshot snapshot = new Snapshot(mSnapshot.version + 1, objects, ids, sectionIndex);
+        if (snapshot.idIndex.getDuplicateCount() > 0){
+            Log.w(TAG, snapshot.idIndex.getDuplicateCount() + " item(s) have non-unique ids. " +
+                    "Only the first item with a given id can be checked by a single id.");
+        }
+        publishSnapshot(snapshot, new BitSet(objects.length));
+
+        if (collator != null && executor != null){
+            if (mHandler == null){
+                mHandler = new Handler(Looper.getMainLooper());
+            }
+            final Handler handler = mHandler;
+            mSortPending = snapshot;
+            executor.execute(() -> {
+                final Sorted sorted = sort(snapshot.objects, snapshot.ids, collator);
+                handler.post(() -> {
+                    // discard if the data was changed or sorted meanwhile
+                    if (mSnapshot != snapshot || mSortPending != snapshot) return;
+                    publishSorted(snapshot, sorted);
+                    notifyDataSetChanged();
+                });
+            });
+        }
+    }
+
+    private void publishSorted(Snapshot snapshot, Sorted sorted){
+        // check states set in the meantime are kept
+        BitSet checked = new BitSet(sorted.permutation.length);
+        for (int i = 0; i < sorted.permutation.length; i++) {
+            if (mChecked.get(sorted.permutation[i])){
+                checked.set(i);
+            }
+        }
+        // positions restored meanwhile refer to the sorted data already
+        BitSet pending = mPendingChecked;
+        if (pending != null && (mChoiceMode == CHOICE_MODE_MULTIPLE || checked.isEmpty())){
+            checked.or(pending);
+        }
+        publishSnapshot(new Snapshot(snapshot.version + 1, sorted.objects,
+                sorted.ids, sorted.sectionIndex), checked);
+    }
+
+    // sorts on the calling thread if check states are awaiting the sorted data
+    private void completePendingRestore(){
+        Collator collator = mCollator;
+        Snapshot snapshot = mSortPending;
+        if (mPendingChecked == null || snapshot == null || collator == null) return;
+        publishSorted(snapshot, sort(snapshot.objects, snapshot.ids, collator));
+        notifyDataSetChanged();
+    }
+
+    private void publishSnapshot(Snapshot snapshot, BitSet checked){
+        mSortPending = null;
+        mPendingChecked = null;
+        mSnapshot = snapshot;
+        mHighlightCache.clear();
+        mCheckChanges.clear();
+        mCheckChangesUnknown = true;
+        mChecked = checked;
+        mCheckedCount = checked.cardinality();
+        mFilteredPositions = snapshot.allPositions;
+        mFilteredCount = snapshot.allPositions.length;
         filterItems();
     }
 
+    /**
+     * Enables locale-aware sorting of the data set.
+     * <p>
+     * Whenever the data is set, the items are sorted by their
+     * {@link AdvancedAdapter#getSortText} using collation keys computed once per item.
+     * If an executor is given, this happens in the background: the data is shown
+     * unsorted until the sorted data set is published at once, keeping check states.
+     * Section titles of an {@link AdvancedSectionAdapter} are computed in the same pass.
+     * <p>
+     * Note that item positions refer to the sorted data set then.
+     * Call this method before setting the data.
+     *
+     * @param collator the collator to sort with (e.g. {@link Collator#getInstance()})
+     *                 or null to disable sorting
+     * @param executor the executor to sort on or null to sort on the calling thread
+     */
+    public void setSorting(@Nullable Collator collator, @Nullable Executor executor){
+        mCollator = collator;
+        mSortExecutor = executor;
+    }
+
+    /**
+     * Overwrite this method to return the text to sort the given object by, if sorting
+     * is enabled via {@link AdvancedAdapter#setSorting}. Defaults to the objects string
+     * representation.
+     * <p>
+     * Note that this method may be called from a background thread.
+     *
+     * @param object an object from the underlying data set
+     * @return the text to sort by, objects with null text are placed last
+     */
+    @Nullable
+    protected String getSortText(T object){
+        return object != null ? object.toString() : null;
+    }
+
+    /**
+     * Section boundaries of a list of items, see {@link AdvancedSectionAdapter}
+     */
+    static final class SectionIndex {
+        final String[] titles; // the section title by original position
+        final Object[] sections;
+        final int[] starts;    // the (filtered) position of the first item of each section
+
+        SectionIndex(String[] titles, Object[] sections, int[] starts){
+            this.titles = titles;
+            this.sections = sections;
+            this.starts = starts;
+        }
+    }
+
+    /**
+     * Computes the section index of all items, if supported by this adapter.
+     * Called from the sorting stage, possibly on a background thread.
+     *
+     * @param objects the sorted items
+     * @return the section index or null
+     */
+    @Nullable
+    SectionIndex computeSectionIndex(Object[] objects){
+        return null;
+    }
+
+    /**
+     * Computes the section index of filtered items from the index of all items.
+     * Called from the filtering thread.
+     *
+     * @param all the section index of all items
+     * @param positions the original positions of the filtered items
+     * @param count the number of filtered items
+     * @return the section index or null
+     */
+    @Nullable
+    SectionIndex computeSectionIndex(SectionIndex all, int[] positions, int count){
+        return null;
+    }
+
+    /**
+     * @return the section index of the visible items, if computed in the sorting or
+     * filtering stage, else null
+     */
+    @Nullable
+    SectionIndex getSectionIndex(){
+        Snapshot snapshot = mSnapshot;
+        if (mFilteredPositions == snapshot.allPositions){
+            return snapshot.sectionIndex;
+        }
+        AdvancedFilter filter = getFilter();
+        FilteredPositions published = filter != null ? filter.mPublished : null;
+        if (published != null && published.positions == mFilteredPositions){
+            return published.sectionIndex;
+        }
+        return null;
+    }
+
+    /**
+     * Result of the sorting stage
+     */
+    private static class Sorted {
+        final Object[] objects;
+        final long[] ids;
+        final int[] permutation; // the original position of every sorted item
+        final @Nullable SectionIndex sectionIndex;
+
+        Sorted(Object[] objects, long[] ids, int[] permutation, @Nullable SectionIndex sectionIndex){
+            this.objects = objects;
+            this.ids = ids;
+            this.permutation = permutation;
+            this.sectionIndex = sectionIndex;
+        }
+    }
+
+    private static class SortEntry implements Comparable<SortEntry> {
+        final @Nullable CollationKey key;
+        final int position;
+
+        SortEntry(@Nullable CollationKey key, int position){
+            this.key = key;
+            this.position = position;
+        }
+
+        @Override
+        public int compareTo(SortEntry other) {
+            if (key == null || other.key == null){
+                return key == null ? (other.key == null ? 0 : 1) : -1;
+            }
+            return key.compareTo(other.key);
+        }
+    }
+
+    private Sorted sort(Object[] objects, long[] ids, Collator collator){
+        // collators are not thread-safe
+        collator = (Collator) collator.clone();
+        SortEntry[] entries = new SortEntry[objects.length];
+        for (int i = 0; i < objects.length; i++) {
+            @SuppressWarnings("unchecked") String text = getSortText((T) objects[i]);
+            entries[i] = new SortEntry(text != null ? collator.getCollationKey(text) : null, i);
+        }
+        Arrays.sort(entries); // stable
+
+        Object[] sortedObjects = new Object[objects.length];
+        long[] sortedIds = new long[objects.length];
+        int[] permutation = new int[objects.length];
+        for (int i = 0; i < entries.length; i++) {
+            permutation[i] = entries[i].position;
+            sortedObjects[i] = objects[permutation[i]];
+            sortedIds[i] = ids[permutation[i]];
+        }
+        return new Sorted(sortedObjects, sortedIds, permutation, computeSectionIndex(sortedObjects));
+    }
+
+    /**
+     * Whether the data set contains items with equal ids. This can happen if the ids
+     * provided are not unique or if the default ids (used when no id is provided)
+     * collide.
+     *
+     * @return true if at least one id is used by more than one item
+     */
+    public boolean hasDuplicateIds(){
+        return mSnapshot.idIndex.getDuplicateCount() > 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T objectAt(int originalPosition){
+        return (T) mSnapshot.objects[originalPosition];
+    }
+
     /**
      * Get the data maintained by this adapter
      *
      * @return an array-list of the data
      */
     public ArrayList<T> getData(){
-        ArrayList<T> list = new ArrayList<>(mItems.size());
-        for (Item item : mItems) {
-            list.add(item.object);
+        Object[] objects = mSnapshot.objects;
+        ArrayList<T> list = new ArrayList<>(objects.length);
+        for (Object object : objects) {
+            @SuppressWarnings("unchecked") T t = (T) object;
+            list.add(t);
         }
         return list;
     }
@@ -203,31 +531,93 @@ public abstract class AdvancedAdapter<T> extends BaseAdapter implements Filterab
             // un-check all items
             setAllItemsChecked(false);
 
-        } else if (mChoiceMode == CHOICE_MODE_SINGLE && getCheckedItemCount() > 1){
+        } else if (mChoiceMode == CHOICE_MODE_SINGLE && mCheckedCount > 1){
             // un-check all but the first checked item
-            boolean single = true;
-            for (Item item : mItems) {
-                if (single && item.checked) { single = false; continue; }
-                item.checked = false;
-            }
+            int first = mChecked.nextSetBit(0);
+            mCheckChanges.or(mChecked);
+            mChecked.clear();
+            mChecked.set(first);
+            mCheckedCount = 1;
             filterItems();
         }
     }
 
+    /**
+     * @return the choice mode, see {@link AdvancedAdapter#setChoiceMode}
+     */
+    public int getChoiceMode(){
+        return mChoiceMode;
+    }
+
 
     @Override
     public int getCount() {
-        return mFilteredItems.size();
+        return mFilteredCount;
     }
 
     @Override
     public T getItem(int filteredPosition) {
-        return mFilteredItems.get(filteredPosition).object;
+        return objectAt(originalPosition(filteredPosition));
     }
 
     @Override
     public long getItemId(int filteredPosition) {
-        return mFilteredItems.get(filteredPosition).getId();
+        return mSnapshot.ids[originalPosition(filteredPosition)];
+    }
+
+    int originalPosition(int filteredPosition){
+        if (filteredPosition < 0 || filteredPosition >= mFilteredCount){
+            throw new IndexOutOfBoundsException("Index: " + filteredPosition + ", Size: " + mFilteredCount);
+        }
+        return mFilteredPositions[filteredPosition];
+    }
+
+    // The following allow subclasses in this package to detect changes of the visible items.
+    // The array is replaced rather than modified whenever the filtered items change.
+    int[] getFilteredPositions(){
+        return mFilteredPositions;
+    }
+
+    int getDataVersion(){
+        return mSnapshot.version;
+    }
+
+    int getDataSize(){
+        return mSnapshot.objects.length;
+    }
+
+    // The data set and ids the filtered positions currently refer to, never modified.
+    Object[] getDataObjects(){
+        return mSnapshot.objects;
+    }
+
+    long[] getDataIds(){
+        return mSnapshot.ids;
+    }
+
+    /**
+     * Whether the displayed items are fully described by {@link AdvancedAdapter#getDataObjects},
+     * {@link AdvancedAdapter#getDataIds} and {@link AdvancedAdapter#getFilteredPositions},
+     * so that changes can be diffed by {@link AdvancedRecyclerAdapter}
+     */
+    boolean supportsDiffing(){
+        return true;
+    }
+
+    boolean containsId(long id){
+        return mSnapshot.idIndex.positionOf(id) != IdIndex.NOT_FOUND;
+    }
+
+    T getOriginalItem(int originalPosition){
+        return objectAt(originalPosition);
+    }
+
+    private void setCheckedAt(int originalPosition, boolean checked){
+        if (mChecked.get(originalPosition) != checked){
+            mChecked.set(originalPosition, checked);
+            mCheckChanges.set(originalPosition);
+            mCheckedCount += checked ? 1 : -1;
+        }
     }
 
 
@@ -236,7 +626,7 @@ public abstract class AdvancedAdapter<T> extends BaseAdapter implements Filterab
             if (checked && mChoiceMode == CHOICE_MODE_SINGLE){
                 setAllItemsChecked(false);
             }
-            mFilteredItems.get(filteredPosition).checked = checked;
+            setCheckedAt(originalPosition(filteredPosition), checked);
         }
     }
 
@@ -249,10 +639,16 @@ public abstract class AdvancedAdapter<T> extends BaseAdapter implements Filterab
     }
 
     public void setAllItemsChecked(boolean checked){
-        if (!checked || mChoiceMode == CHOICE_MODE_MULTIPLE) {
-            for (Item i : mItems) {
-                i.checked = checked;
-            }
+        mPendingChecked = null;
+        if (!checked){
+            mCheckChanges.or(mChecked);
+            mChecked.clear();
+            mCheckedCount = 0;
+        } else if (mChoiceMode == CHOICE_MODE_MULTIPLE) {
+            int size = mSnapshot.objects.length;
+            mCheckChanges.set(0, size);
+            mChecked.set(0, size);
+            mCheckedCount = size;
         }
     }
 
@@ -261,18 +657,45 @@ public abstract class AdvancedAdapter<T> extends BaseAdapter implements Filterab
             if (checked && mChoiceMode == CHOICE_MODE_SINGLE){
                 setAllItemsChecked(false);
             }
-            for (Item item : mItems) {
-                if (item.getId() == id){
-                    item.checked = checked;
-                    break;
-                }
+            int position = mSnapshot.idIndex.positionOf(id);
+            if (position != IdIndex.NOT_FOUND){
+                setCheckedAt(position, checked);
             }
         }
     }
 
     public void setItemsCheckedFromIds(ArrayList<Long> checkedItemIds){
-        for (Item item : mItems) {
-            item.checked = checkedItemIds.contains(item.getId());
+        mPendingChecked = null;
+        mCheckChanges.or(mChecked);
+        mChecked.clear();
+        mCheckedCount = 0;
+        IdIndex idIndex = mSnapshot.idIndex;
+        for (Long id : checkedItemIds) {
+            if (id == null) continue;
+            // all items with the given id are checked
+            for (int position = idIndex.positionOf(id); position != IdIndex.NOT_FOUND;
+                 position = idIndex.nextPositionOf(position)) {
+                setCheckedAt(position, true);
+            }
+        }
+    }
+
+    /**
+     * Checks the items at the given original positions in addition to the items
+     * checked already, respecting the choice mode. Invalid positions are ignored.
+     * Adapters that load their data in the background may apply the positions later.
+     *
+     * @param originalPositions the positions to check
+     */
+    void setOriginalPositionsChecked(@NonNull int[] originalPositions){
+        if (mChoiceMode == CHOICE_MODE_NONE) return;
+        int size = mSnapshot.objects.length;
+        for (int position : originalPositions) {
+            if (position < 0 || position >= size) continue;
+            if (mChoiceMode == CHOICE_MODE_SINGLE){
+                setAllItemsChecked(false);
+            }
+            setCheckedAt(position, true);
         }
     }
 
@@ -284,46 +707,170 @@ public abstract class AdvancedAdapter<T> extends BaseAdapter implements Filterab
     }
     
 
+    /**
+     * Updates the check states of the visible rows of the given list view, after items were
+     * checked or un-checked. Other than {@link AdvancedAdapter#notifyDataSetChanged},
+     * this only updates the rows whose check state changed: if a row view is
+     * {@link Checkable}, its check state is set directly, otherwise the row is re-bound
+     * via {@link AdvancedAdapter#getView}.
+     *
+     * @param listView the list view displaying this adapter
+     */
+    public void updateCheckedViews(@NonNull AbsListView listView){
+        int first = listView.getFirstVisiblePosition();
+        if (listView instanceof ListView){
+            first -= ((ListView) listView).getHeaderViewsCount();
+        }
+        for (int i = 0; i < listView.getChildCount(); i++) {
+            int position = first + i;
+            if (position < 0 || !isCheckChanged(position)) continue;
+            View child = listView.getChildAt(i);
+            if (child instanceof Checkable){
+                ((Checkable) child).setChecked(isItemChecked(position));
+            } else if (getView(position, child, listView) != child){
+                // the row can't be updated in place
+                notifyDataSetChanged();
+                return;
+            }
+        }
+        mCheckChanges.clear();
+        mCheckChangesUnknown = false;
+    }
+
+    // Whether the item's check state changed since the views were last bound.
+    // Subclasses keeping check states on their own may return true for all items.
+    boolean isCheckChanged(int filteredPosition){
+        if (filteredPosition >= mFilteredCount) return false;
+        return mCheckChangesUnknown || mCheckChanges.get(mFilteredPositions[filteredPosition]);
+    }
+
     public boolean isItemChecked(int filteredPosition) {
-        return mFilteredItems.get(filteredPosition).checked;
+        return mChecked.get(originalPosition(filteredPosition));
     }
 
     public int getCheckedItemCount(){
-        int count = 0;
-        for (Item i : mItems){
-            if (i.checked) count ++;
-        }
-        return count;
+        BitSet pending = mPendingChecked;
+        return mCheckedCount + (pending != null ? pending.cardinality() : 0);
     }
 
     public ArrayList<T> getCheckedItems(){
-        ArrayList<T> list = new ArrayList<>(getCheckedItemCount());
-        for (Item i : mItems){
-            if (i.checked) list.add(i.object);
+        completePendingRestore();
+        ArrayList<T> list = new ArrayList<>(mCheckedCount);
+        for (int i = mChecked.nextSetBit(0); i >= 0; i = mChecked.nextSetBit(i + 1)) {
+            list.add(objectAt(i));
         }
         return list;
     }
 
     public ArrayList<Integer> getCheckedItemOriginalPositions(){
-        ArrayList<Integer> result = new ArrayList<>(getCheckedItemCount());
-        for (int i = 0; i < mItems.size(); i++) {
-            if (mItems.get(i).checked) result.add(i);
+        completePendingRestore();
+        ArrayList<Integer> result = new ArrayList<>(mCheckedCount);
+        for (int i = mChecked.nextSetBit(0); i >= 0; i = mChecked.nextSetBit(i + 1)) {
+            result.add(i);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the original positions of all checked items in a compact form,
+     * see {@link SelectionCodec}
+     *
+     * @return the positions encoded as runs
+     */
+    public int[] getCheckedItemOriginalPositionsPacked(){
+        completePendingRestore();
+        return SelectionCodec.encode(mChecked);
+    }
+
+    /**
+     * Checks exactly the items at the given original positions, respecting the choice mode.
+     * <p>
+     * If sorting in the background, see {@link AdvancedAdapter#setSorting}, the positions
+     * refer to the sorted data set and are applied once it is published.
+     *
+     * @param runs the original positions encoded by {@link SelectionCodec}
+     */
+    public void setItemsCheckedFromOriginalPositionsPacked(@Nullable int[] runs){
+        BitSet checked = SelectionCodec.decode(runs);
+        int size = mSnapshot.objects.length;
+        if (checked.length() > size){
+            checked.clear(size, checked.length());
+        }
+        if (mChoiceMode == CHOICE_MODE_NONE){
+            checked.clear();
+        } else if (mChoiceMode == CHOICE_MODE_SINGLE && checked.cardinality() > 1){
+            int first = checked.nextSetBit(0);
+            checked.clear();
+            checked.set(first);
+        }
+        mCheckChanges.or(mChecked);
+        if (mSortPending != null){
+            // positions of the sorted data
+            mChecked.clear();
+            mCheckedCount = 0;
+            mPendingChecked = checked;
+            return;
+        }
+        mCheckChanges.or(checked);
+        mChecked = checked;
+        mCheckedCount = checked.cardinality();
+    }
+
+    /**
+     * Saves the check states to restore them with {@link AdvancedAdapter#restoreCheckStates}.
+     * The original positions are saved as runs, see {@link SelectionCodec}.
+     *
+     * @param outState the bundle to save to
+     * @param key the key to save with
+     */
+    void saveCheckStates(@NonNull Bundle outState, @NonNull String key){
+        outState.putIntArray(key, getCheckedItemOriginalPositionsPacked());
+    }
+
+    /**
+     * Restores the check states saved with {@link AdvancedAdapter#saveCheckStates}
+     *
+     * @param savedState the bundle to restore from
+     * @param key the key they were saved with
+     */
+    void restoreCheckStates(@NonNull Bundle savedState, @NonNull String key){
+        int[] runs = savedState.getIntArray(key);
+        if (runs != null){
+            setItemsCheckedFromOriginalPositionsPacked(runs);
+        }
+    }
+
+    /**
+     * Same as {@link AdvancedAdapter#getCheckedItemIds}, but without boxing
+     *
+     * @return the ids of all checked items
+     */
+    public long[] getCheckedItemIdArray(){
+        completePendingRestore();
+        long[] ids = mSnapshot.ids;
+        long[] result = new long[mCheckedCount];
+        int n = 0;
+        for (int i = mChecked.nextSetBit(0); i >= 0; i = mChecked.nextSetBit(i + 1)) {
+            result[n++] = ids[i];
         }
         return result;
     }
 
     public ArrayList<Long> getCheckedItemIds(){
-        ArrayList<Long> result = new ArrayList<>(getCheckedItemCount());
-        for (Item item : mItems) {
-            if (item.checked) result.add(item.getId());
+        completePendingRestore();
+        long[] ids = mSnapshot.ids;
+        ArrayList<Long> result = new ArrayList<>(mCheckedCount);
+        for (int i = mChecked.nextSetBit(0); i >= 0; i = mChecked.nextSetBit(i + 1)) {
+            result.add(ids[i]);
         }
         return result;
     }
 
 
     protected void filterItems(){
-        if (getFilter() != null){
-            getFilter().filter(mFilterConstraint);
+        AdvancedFilter filter = getFilter();
+        if (filter != null){
+            filter.refresh();
         }
     }
 
@@ -340,13 +887,110 @@ public abstract class AdvancedAdapter<T> extends BaseAdapter implements Filterab
      * @return a spannable string
      */
     protected Spannable highlight(String text, Context context) {
+        return highlight(text, getDefaultHighlightColor(context));
+    }
+
+    /**
+     * Highlights everything that matched the current filter (if any) in the text of an item.
+     * <p>
+     * If the text is the searchable text of the item (see
+     * {@link AdvancedFilter#getSearchableText}), the match offsets found upon filtering
+     * are reused. The result is cached until the next filter results are published,
+     * so use this method rather than {@link AdvancedAdapter#highlight(String, Context)}
+     * when binding views.
+     *
+     * @param position the (filtered) position of the item
+     * @param text the text to highlight
+     * @param context a context to get the default highlight color from
+     * @return a spannable string
+     */
+    protected Spannable highlight(int position, String text, Context context) {
+        return highlight(position, text, getDefaultHighlightColor(context));
+    }
+
+    private int getDefaultHighlightColor(Context context){
         if (mDefaultHighlightColor == null){
             TypedArray array = context.obtainStyledAttributes(new int[]{
                     android.R.attr.textColorHighlight});
             mDefaultHighlightColor = array.getColor(0, 0x6633B5E5);
             array.recycle();
         }
-        return highlight(text, mDefaultHighlightColor);
+        return mDefaultHighlightColor;
+    }
+
+    /**
+     * Highlights everything that matched the current filter (if any) in the text of an item.
+     * See {@link AdvancedAdapter#highlight(int, String, Context)}
+     *
+     * @param position the (filtered) position of the item
+     * @param text the text to highlight
+     * @param color the highlight color
+     * @return a spannable string
+     */
+    protected Spannable highlight(int position, String text, int color) {
+        if (text == null) return null;
+
+        mHighlightsByPosition = true;
+        if (color != mHighlightCacheColor){
+            mHighlightCache.clear();
+            mHighlightCacheColor = color;
+        }
+        int originalPosition = originalPosition(position);
+        Spannable cached = mHighlightCache.get(originalPosition);
+        if (cached != null && TextUtils.equals(cached, text)){
+            return cached;
+        }
+
+        Spannable highlighted = null;
+        AdvancedFilter filter = getFilter();
+        FilteredPositions published = filter != null ? filter.mPublished : null;
+        if (published != null && published.positions == mFilteredPositions){
+            highlighted = highlightMatches(published, position, originalPosition, text,
+                    color, filter.mMatchWordBeginning);
+        }
+        if (highlighted == null){
+            highlighted = highlight(text, color);
+        }
+
+        if (mHighlightCache.size() >= MAX_CACHED_HIGHLIGHTS){
+            mHighlightCache.clear();
+        }
+        mHighlightCache.put(originalPosition, highlighted);
+        return highlighted;
+    }
+
+    // highlights the match offsets found upon filtering or returns null if not indexed
+    @Nullable
+    private static Spannable highlightMatches(FilteredPositions filtered, int position, int originalPosition,
+                                              String text, int color, boolean matchWordBeginning){
+        if (filtered.matchOffsets == null || filtered.matchOffsets[position] < 0
+                || !TextUtils.equals(filtered.index.textOf(originalPosition), text)){
+            return null;
+        }
+        int[] ranges = filtered.index.matchRanges(originalPosition, filtered.query,
+                matchWordBeginning, filtered.matchOffsets[position]);
+        Spannable highlighted = new SpannableStringBuilder(text);
+        for (int k = 0; k < ranges.length; k += 2) {
+            highlighted.setSpan(new BackgroundColorSpan(color), ranges[k],
+                    ranges[k + 1], Spannable.SPAN_EXCLUSIVE_EXCLUSIVE);
+        }
+        return highlighted;
+    }
+
+    /**
+     * Called on the filtering thread with the first items of new filter results, before
+     * they are published. Overwrite this method to prepare what is needed to display these
+     * items, e.g. to precompute their text, so that the first screen of results can be
+     * bound quickly.
+     * <p>
+     * If items are highlighted via {@link AdvancedAdapter#highlight(int, String, Context)},
+     * their highlighted texts are prepared here as well and later returned by that method.
+     *
+     * @param items the first items of the results
+     * @param highlights the highlighted texts of these items or null where none were prepared
+     */
+    protected void onPrepareItems(@NonNull List<T> items, @NonNull List<Spannable> highlights) {
+
     }
 
     /**
@@ -362,11 +1006,11 @@ public abstract class AdvancedAdapter<T> extends BaseAdapter implements Filterab
         Spannable highlighted = new SpannableStringBuilder(text);
         AdvancedFilter filter = getFilter();
 
-        if (filter == null || filter.mPattern == null){
+        if (filter == null || filter.mPublished == null || filter.mPublished.pattern == null){
             return highlighted;
         }
 
-        Matcher matcher = filter.mPattern.matcher(text);
+        Matcher matcher = filter.mPublished.pattern.matcher(text);
 
         while (matcher.find()){
             highlighted.setSpan(new BackgroundColorSpan(color), matcher.start(),
@@ -381,16 +1025,103 @@ public abstract class AdvancedAdapter<T> extends BaseAdapter implements Filterab
 
 
 
+    private static final int MAX_CACHED_RESULTS = 32;
+    private static final int MAX_CACHED_HIGHLIGHTS = 256;
+    // number of items prepared before filter results are published, about a screen full
+    private static final int PREPARED_ITEM_COUNT = 20;
+
+    /**
+     * Highlights prepared on the filtering thread, by original position
+     */
+    private static class PreparedHighlights {
+        final FilteredPositions filtered;
+        final int color;
+        final SparseArray<Spannable> highlights;
+
+        PreparedHighlights(FilteredPositions filtered, int color, SparseArray<Spannable> highlights){
+            this.filtered = filtered;
+            this.color = color;
+            this.highlights = highlights;
+        }
+    }
+
+    /**
+     * The default minimum number of items for parallel filtering,
+     * see {@link AdvancedFilter#setParallel(Executor, int)}
+     */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 5000;
+
+    /**
+     * Original positions of the items of a snapshot matching a constraint.
+     * For indexed items, the offset of the first match in the normalized text is kept
+     * alongside (-1 for other items), so that highlighting doesn't need to search again.
+     * Instances are shared between the filter cache and the adapter and must not be modified.
+     */
+    private static class FilteredPositions {
+        final Snapshot snapshot;
+        final String constraint;
+        final Pattern pattern;
+        final int[] positions;
+        final int count;
+        final @Nullable SearchIndex index;
+        final @Nullable char[] query;
+        final @Nullable int[] matchOffsets;
+        final @Nullable SectionIndex sectionIndex;
+
+        FilteredPositions(Snapshot snapshot, String constraint, Pattern pattern, int[] positions, int count,
+                          @Nullable SearchIndex index, @Nullable char[] query, @Nullable int[] matchOffsets,
+                          @Nullable SectionIndex sectionIndex){
+            this.snapshot = snapshot;
+            this.constraint = constraint;
+            this.pattern = pattern;
+            this.positions = positions;
+            this.count = count;
+            this.index = index;
+            this.query = query;
+            this.matchOffsets = matchOffsets;
+            this.sectionIndex = sectionIndex;
+        }
+    }
+
     /**
      * An advanced filter where only the {@link AdvancedFilter#matches} method needs
      * to be overwritten
+     * <p>
+     * For large data sets, overwrite {@link AdvancedFilter#getSearchableText} to enable
+     * indexed matching. The searchable texts are then normalized only once per data set
+     * and subsequently searched without regular expressions.
      *
      */
     public abstract class AdvancedFilter extends Filter {
         private @Nullable CharSequence mConstraint;
-        private @Nullable Pattern mPattern;
+        private @Nullable Pattern mPattern; // used on the filter thread
+        private @Nullable FilteredPositions mPublished; // used on the UI thread
+        private volatile @Nullable PreparedHighlights mPreparedHighlights;
+        private @Nullable SearchIndex mSearchIndex;
+        private @Nullable Snapshot mSearchIndexData;
+        // results of the current chain of narrowing constraints, e.g. "a", "ab", "abc"
+        private final ArrayList<FilteredPositions> mResultCache = new ArrayList<>();
+        private @Nullable Snapshot mResultCacheData;
+        // reused across filtering runs, only accessed on the filter thread
+        private int[] mScratchPositions = new int[0];
+        private int[] mScratchOffsets = new int[0];
         private boolean mIgnoreCase = true;
         private boolean mMatchWordBeginning = true;
+        private @Nullable Executor mParallelExecutor;
+        private int mParallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+
+        // scheduling, see AdvancedFilter#schedule
+        private final Handler mHandler = new Handler(Looper.getMainLooper());
+        private @Nullable Executor mExecutor;
+        private long mDebounceMillis = 0;
+        private int mMinConstraintLength = 0;
+        private @Nullable Runnable mPendingRequest;
+        private @Nullable CharSequence mRequestedConstraint;
+        private boolean mRequested = false;
+        private volatile int mLatestRequest = 0;
+        private volatile int mRunningRequest = 0;
+        private final AtomicReference<Runnable> mQueuedRequest = new AtomicReference<>();
+        private final AtomicBoolean mWorking = new AtomicBoolean(false);
 
         public AdvancedFilter(){
             this(true, true);
@@ -416,8 +1147,242 @@ public abstract class AdvancedAdapter<T> extends BaseAdapter implements Filterab
             return mMatchWordBeginning;
         }
 
+        /**
+         * Enables parallel filtering for large data sets with the
+         * {@link AdvancedAdapter#DEFAULT_PARALLEL_THRESHOLD}.
+         * See {@link AdvancedFilter#setParallel(Executor, int)}
+         *
+         * @param executor the executor to run chunks on or null to disable parallel filtering
+         */
+        public void setParallel(@Nullable Executor executor) {
+            setParallel(executor, DEFAULT_PARALLEL_THRESHOLD);
+        }
+
+        /**
+         * Enables parallel filtering for large data sets.
+         * <p>
+         * If the number of items to check reaches the given threshold, they are split into
+         * chunks which are matched concurrently on the given executor (e.g. a
+         * {@link java.util.concurrent.ForkJoinPool}). The results are merged in the original
+         * order. Smaller data sets are filtered sequentially.
+         * <p>
+         * The filtering thread matches chunks itself while waiting, so that the executor
+         * may be shared, bounded or busy, e.g. the same single-thread executor as passed to
+         * {@link AdvancedFilter#setExecutor}. Chunks not picked up by the executor in time
+         * are then matched sequentially.
+         * <p>
+         * Only use this if your {@link AdvancedFilter#matches} implementation is thread-safe
+         * and expensive enough to justify the overhead.
+         *
+         * @param executor the executor to run chunks on or null to disable parallel filtering
+         * @param threshold the minimum number of items to filter in parallel
+         */
+        public void setParallel(@Nullable Executor executor, int threshold) {
+            mParallelExecutor = executor;
+            mParallelThreshold = Math.max(2, threshold);
+        }
+
+        /**
+         * Sets the executor that {@link AdvancedFilter#schedule} runs the filtering on.
+         * <p>
+         * Requests are processed one at a time. Requests that are superseded before they
+         * start are skipped and a running request is aborted as soon as it is superseded.
+         * If no executor is set (default), the worker thread of {@link Filter} is used.
+         *
+         * @param executor the executor to filter on or null to use the default
+         */
+        public void setExecutor(@Nullable Executor executor) {
+            mExecutor = executor;
+        }
+
+        /**
+         * Sets a debounce window for {@link AdvancedFilter#schedule}. A request is only
+         * processed if no other request is scheduled within the given time, so that
+         * fast typing does not filter outdated constraints.
+         *
+         * @param millis the debounce time in milliseconds, 0 to disable (default)
+         */
+        public void setDebounce(long millis) {
+            mDebounceMillis = Math.max(0, millis);
+        }
+
+        /**
+         * Sets a minimum constraint length for {@link AdvancedFilter#schedule}.
+         * Shorter (non-empty) constraints do not filter the data but show all items.
+         *
+         * @param length the minimum number of characters, 0 to disable (default)
+         */
+        public void setMinConstraintLength(int length) {
+            mMinConstraintLength = Math.max(0, length);
+        }
+
+        /**
+         * Schedules filtering of the data with the given constraint, taking the
+         * debounce time, minimum constraint length and executor into account.
+         * Any previously scheduled request is cancelled.
+         * <p>
+         * This method must be called from the UI thread.
+         *
+         * @param constraint the constraint to filter the data with
+         */
+        public void schedule(@Nullable CharSequence constraint) {
+            schedule(constraint, mDebounceMillis);
+        }
+
+        /**
+         * Cancels all pending requests scheduled via {@link AdvancedFilter#schedule}
+         * and aborts one running on the executor. The current results remain visible.
+         * <p>
+         * This method must be called from the UI thread.
+         */
+        public void cancel() {
+            mLatestRequest++;
+            if (mPendingRequest != null){
+                mHandler.removeCallbacks(mPendingRequest);
+                mPendingRequest = null;
+            }
+            mQueuedRequest.set(null);
+        }
+
+        /**
+         * Re-applies the most recently requested constraint without debounce,
+         * e.g. after the data changed
+         */
+        void refresh() {
+            schedule(mRequested ? mRequestedConstraint : mFilterConstraint, 0);
+        }
+
+        private void schedule(@Nullable CharSequence constraint, long delay) {
+            cancel();
+            final int request = mLatestRequest;
+            // copy, since the constraint might be a mutable Editable
+            final String query = constraint != null ? constraint.toString() : null;
+            mRequestedConstraint = query;
+            mRequested = true;
+
+            final String effective = query != null && query.length() < mMinConstraintLength ? null : query;
+            mPendingRequest = () -> {
+                mPendingRequest = null;
+                dispatch(request, effective);
+            };
+            if (delay > 0){
+                mHandler.postDelayed(mPendingRequest, delay);
+            } else {
+                mPendingRequest.run();
+            }
+        }
+
+        private void dispatch(final int request, @Nullable final String constraint) {
+            Executor executor = mExecutor;
+            if (executor == null){
+                filter(constraint);
+                return;
+            }
+            // only the latest request is kept in the queue
+            mQueuedRequest.set(() -> process(request, constraint));
+            if (mWorking.compareAndSet(false, true)){
+                executor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            do {
+                try {
+                    Runnable request;
+                    while ((request = mQueuedRequest.getAndSet(null)) != null) {
+                        request.run();
+                    }
+                } finally {
+                    mWorking.set(false);
+                }
+                // a request might have been queued after the loop exited
+            } while (mQueuedRequest.get() != null && mWorking.compareAndSet(false, true));
+        }
+
+        private void process(final int request, @Nullable final String constraint) {
+            if (request != mLatestRequest) return;
+            final FilterResults results;
+            mRunningRequest = request;
+            try {
+                results = performFiltering(constraint);
+            } catch (CancellationException e) {
+                return;
+            } finally {
+                mRunningRequest = 0;
+            }
+            mHandler.post(() -> {
+                if (request == mLatestRequest){
+                    publishResults(constraint, results);
+                }
+            });
+        }
+
+        // true if the request currently processed on the executor was superseded
+        private boolean isAborted() {
+            int running = mRunningRequest;
+            return running != 0 && running != mLatestRequest;
+        }
+
         protected abstract boolean matches(T object, @NonNull CharSequence constraint);
 
+        /**
+         * Overwrite this method to enable indexed matching for the given object.
+         * <p>
+         * The text returned is normalized once per data set: diacritics are removed
+         * and, if this filter ignores the case, the case is folded.
+         * Upon filtering, the normalized constraint is then searched in the normalized
+         * text with the flags specified upon creation, without evaluating any regular
+         * expression. For objects where this method returns null (default),
+         * {@link AdvancedFilter#matches(Object, CharSequence)} is used instead.
+         * <p>
+         * Note that this method is called from a background thread.
+         *
+         * @param object an object from the underlying data set
+         * @return the text to be searched or null to not index this object
+         */
+        @Nullable
+        protected CharSequence getSearchableText(T object) {
+            return null;
+        }
+
+        /**
+         * Tells whether the matches of a constraint are guaranteed to be a subset of the
+         * matches of a previous constraint. If so, filtering only re-checks the previous
+         * results rather than the whole data set.
+         * <p>
+         * The default implementation returns false. Overwrite this method if your
+         * {@link AdvancedFilter#matches} implementation meets this assumption, e.g. return
+         * true if the constraint starts with the previous constraint when matching with
+         * {@link AdvancedFilter#matches(String)}.
+         * If all items are indexed (see {@link AdvancedFilter#getSearchableText}),
+         * extended constraints are narrowed down regardless, since indexed matching
+         * meets this assumption.
+         *
+         * @param previousConstraint the previous constraint
+         * @param constraint the new constraint
+         * @return true if the new constraint narrows down the previous one
+         */
+        protected boolean isNarrowing(@NonNull String previousConstraint, @NonNull String constraint) {
+            return false;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Nullable
+        private SearchIndex getSearchIndex(Snapshot snapshot) {
+            if (mSearchIndexData != snapshot){
+                Object[] objects = snapshot.objects;
+                CharSequence[] texts = new CharSequence[objects.length];
+                boolean any = false;
+                for (int i = 0; i < objects.length; i++) {
+                    texts[i] = getSearchableText((T) objects[i]);
+                    any |= texts[i] != null;
+                }
+                mSearchIndex = any ? new SearchIndex(texts, mIgnoreCase) : null;
+                mSearchIndexData = snapshot;
+            }
+            return mSearchIndex;
+        }
+
         /**
          * Use {@link AdvancedFilter#matches(String)} instead
          *
@@ -427,9 +1392,7 @@ public abstract class AdvancedAdapter<T> extends BaseAdapter implements Filterab
          */
         @Deprecated
         protected boolean matchesWord(String string, @NonNull CharSequence constraint) {
-            return string != null && Pattern.compile((mMatchWordBeginning ? "\\b" : "") +
-                    "(" + constraint + ")", mIgnoreCase ? Pattern.CASE_INSENSITIVE : 0)
-                    .matcher(string).find();
+            return string != null && compilePattern(constraint).matcher(string).find();
         }
 
         /**
@@ -444,38 +1407,261 @@ public abstract class AdvancedAdapter<T> extends BaseAdapter implements Filterab
         }
 
 
+        private Pattern compilePattern(@NonNull CharSequence constraint) {
+            return Pattern.compile((mMatchWordBeginning ? "\\b" : "") +
+                    "(" + Pattern.quote(constraint.toString()) + ")",
+                    mIgnoreCase ? Pattern.CASE_INSENSITIVE : 0);
+        }
+
+
         @Override @Nullable
         protected FilterResults performFiltering(@Nullable CharSequence constraint) {
+            FilterResults results = filterPositions(constraint);
+            prepare(results != null ? (FilteredPositions) results.values : null);
+            return results;
+        }
+
+        @Nullable
+        private FilterResults filterPositions(@Nullable CharSequence constraint) {
             mConstraint = constraint;
             if (constraint == null || constraint.length() == 0) {
                 mPattern = null;
                 return null;
             }
-            mPattern = Pattern.compile((mMatchWordBeginning ? "\\b" : "") +
-                    "(" + mConstraint + ")", mIgnoreCase ? Pattern.CASE_INSENSITIVE : 0);
+            mPattern = compilePattern(constraint);
+
+            // work on a stable snapshot, even if the data is replaced meanwhile
+            Snapshot snapshot = mSnapshot;
+            Object[] objects = snapshot.objects;
+            if (mResultCacheData != snapshot){
+                mResultCache.clear();
+                mResultCacheData = snapshot;
+            }
+            String query = constraint.toString();
+            SearchIndex index = getSearchIndex(snapshot);
+            // indexed matching is narrowing, but matches() might not be
+            boolean indexedOnly = index != null && index.isComplete();
+
+            // find the closest previous result this constraint narrows down
+            FilteredPositions candidates = null;
+            for (int k = mResultCache.size() - 1; k >= 0; k--) {
+                FilteredPositions cached = mResultCache.get(k);
+                if (cached.constraint.equals(query)){
+                    // e.g. when deleting characters again
+                    truncateResultCache(k + 1);
+                    return toFilterResults(cached);
+                }
+                if (indexedOnly && query.startsWith(cached.constraint) ||
+                        isNarrowing(cached.constraint, query)){
+                    candidates = cached;
+                    truncateResultCache(k + 1);
+                    break;
+                }
+            }
+            if (candidates == null){
+                mResultCache.clear();
+            }
+
+            char[] folded = index != null ? SearchIndex.fold(constraint, mIgnoreCase) : null;
+
+            // match into the scratch buffers and only copy the results
+            int candidateCount = candidates != null ? candidates.count : objects.length;
+            if (mScratchPositions.length < candidateCount){
+                mScratchPositions = new int[candidateCount];
+            }
+            if (index != null && mScratchOffsets.length < candidateCount){
+                mScratchOffsets = new int[candidateCount];
+            }
+            int[] filteredResults = mScratchPositions;
+            int[] matchOffsets = index != null ? mScratchOffsets : null;
+            int count;
+            Executor executor = mParallelExecutor;
+            if (executor != null && candidateCount >= mParallelThreshold){
+                count = matchParallel(executor, objects, index, folded, constraint,
+                        candidates, candidateCount, filteredResults, matchOffsets);
+            } else {
+                count = matchRange(objects, index, folded, constraint,
+                        candidates, 0, candidateCount, filteredResults, matchOffsets);
+            }
+
+            int[] positions = Arrays.copyOf(filteredResults, count);
+            FilteredPositions result = new FilteredPositions(snapshot, query, mPattern, positions, count,
+                    index, folded, matchOffsets != null ? Arrays.copyOf(matchOffsets, count) : null,
+                    snapshot.sectionIndex != null ? computeSectionIndex(snapshot.sectionIndex, positions, count) : null);
+            if (mResultCache.size() >= MAX_CACHED_RESULTS){
+                mResultCache.remove(0);
+            }
+            mResultCache.add(result);
+            return toFilterResults(result);
+        }
+
+        // lets the adapter prepare the first items, before the results are published
+        @SuppressWarnings("unchecked")
+        private void prepare(@Nullable FilteredPositions filtered) {
+            Snapshot snapshot = filtered != null ? filtered.snapshot : mSnapshot;
+            int[] positions = filtered != null ? filtered.positions : snapshot.allPositions;
+            int count = Math.min(PREPARED_ITEM_COUNT, filtered != null ? filtered.count : positions.length);
+            boolean highlight = mHighlightsByPosition && filtered != null && filtered.index != null;
+            int color = mHighlightCacheColor;
+
+            ArrayList<T> items = new ArrayList<>(count);
+            ArrayList<Spannable> highlights = new ArrayList<>(count);
+            SparseArray<Spannable> prepared = new SparseArray<>();
+            for (int i = 0; i < count; i++) {
+                int p = positions[i];
+                Spannable highlighted = null;
+                CharSequence text = highlight ? filtered.index.textOf(p) : null;
+                if (text != null){
+                    highlighted = highlightMatches(filtered, i, p, text.toString(), color, mMatchWordBeginning);
+                    if (highlighted != null){
+                        prepared.put(p, highlighted);
+                    }
+                }
+                items.add((T) snapshot.objects[p]);
+                highlights.add(highlighted);
+            }
+            mPreparedHighlights = highlight ? new PreparedHighlights(filtered, color, prepared) : null;
+            onPrepareItems(items, highlights);
+        }
+
+        /**
+         * Matches the candidates in the range [from, to) and writes the original positions
+         * of all matches to out, starting at index from. If an index is given, the match
+         * offsets are written to outOffsets accordingly.
+         *
+         * @return the number of matches
+         */
+        private int matchRange(Object[] objects, @Nullable SearchIndex index, @Nullable char[] folded,
+                               @NonNull CharSequence constraint, @Nullable FilteredPositions candidates,
+                               int from, int to, int[] out, @Nullable int[] outOffsets){
+            int count = 0;
+            for (int c = from; c < to; c++) {
+                if ((c & 0xFF) == 0 && isAborted()){
+                    throw new CancellationException();
+                }
+                int i = candidates != null ? candidates.positions[c] : c;
+                int offset = -1;
+                boolean match;
+                if (index != null && index.isIndexed(i)){
+                    offset = index.indexOf(i, folded, mMatchWordBeginning, 0);
+                    match = offset >= 0;
+                } else {
+                    @SuppressWarnings("unchecked") T object = (T) objects[i];
+                    match = matches(object, constraint);
+                }
+                if (match) {
+                    if (outOffsets != null){
+                        outOffsets[from + count] = offset;
+                    }
+                    out[from + count++] = i;
+                }
+            }
+            return count;
+        }
+
+        private int matchParallel(Executor executor, final Object[] objects,
+                                  @Nullable final SearchIndex index, @Nullable final char[] folded,
+                                  @NonNull final CharSequence constraint,
+                                  @Nullable final FilteredPositions candidates,
+                                  final int candidateCount, final int[] out, @Nullable final int[] outOffsets){
+            int chunks = Math.max(2, Runtime.getRuntime().availableProcessors());
+            final int chunkSize = (candidateCount + chunks - 1) / chunks;
+            chunks = (candidateCount + chunkSize - 1) / chunkSize;
+
+            final int chunkCount = chunks;
+            final int[] counts = new int[chunks];
+            final AtomicInteger nextChunk = new AtomicInteger(0);
+            final CountDownLatch done = new CountDownLatch(chunks);
+            final AtomicReference<RuntimeException> error = new AtomicReference<>();
+
+            // claims and matches chunks until none are left
+            Runnable worker = () -> {
+                int k;
+                while ((k = nextChunk.getAndIncrement()) < chunkCount) {
+                    int from = k * chunkSize, to = Math.min(candidateCount, from + chunkSize);
+                    try {
+                        if (error.get() == null){
+                            counts[k] = matchRange(objects, index, folded, constraint, candidates, from, to,
+                                    out, outOffsets);
+                        }
+                    } catch (RuntimeException e) {
+                        error.compareAndSet(null, e);
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            };
+            for (int k = 1; k < chunks; k++) {
+                try {
+                    executor.execute(worker);
+                } catch (RejectedExecutionException e) {
+                    break; // saturated, the remaining chunks are matched below
+                }
+            }
+            // The filter thread takes part in matching, so that it only waits for chunks
+            // already running elsewhere. Helpers that did not start yet find no chunks left.
+            worker.run();
+
+            try {
+                done.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while filtering", e);
+            }
+            if (error.get() != null){
+                throw error.get();
+            }
 
-            ArrayList<Item> filteredResults = new ArrayList<>();
-            for (Item item : mItems) {
-                if (matches(item.object, constraint)) {
-                    filteredResults.add(item);
+            // merge: move the matches of each chunk next to the previous ones
+            int count = counts[0];
+            for (int k = 1; k < chunks; k++) {
+                System.arraycopy(out, k * chunkSize, out, count, counts[k]);
+                if (outOffsets != null){
+                    System.arraycopy(outOffsets, k * chunkSize, outOffsets, count, counts[k]);
                 }
+                count += counts[k];
             }
+            return count;
+        }
+
+        private FilterResults toFilterResults(FilteredPositions filtered){
             FilterResults results = new FilterResults();
-            results.values = filteredResults;
-            results.count = filteredResults.size();
+            results.values = filtered;
+            results.count = filtered.count;
             return results;
         }
 
-        @SuppressWarnings("unchecked")
+        private void truncateResultCache(int size){
+            while (mResultCache.size() > size){
+                mResultCache.remove(mResultCache.size() - 1);
+            }
+        }
+
         @Override
         protected void publishResults(CharSequence constraint, @Nullable FilterResults results) {
-            mFilterConstraint = constraint;
-            mFilteredItems.clear();
-            if (results != null && results.values != null) {
-                mFilteredItems.addAll((Collection<? extends Item>) results.values);
+            Snapshot snapshot = mSnapshot;
+            if (results != null && results.values instanceof FilteredPositions) {
+                FilteredPositions filtered = (FilteredPositions) results.values;
+                if (filtered.snapshot.version != snapshot.version){
+                    // computed for outdated data, the data change requested a new filtering
+                    return;
+                }
+                mFilteredPositions = filtered.positions;
+                mFilteredCount = filtered.count;
+                mPublished = filtered;
             } else {
-                mFilteredItems.addAll(mItems);
+                mFilteredPositions = snapshot.allPositions;
+                mFilteredCount = snapshot.allPositions.length;
+                mPublished = null;
             }
+            mHighlightCache.clear();
+            PreparedHighlights prepared = mPreparedHighlights;
+            if (prepared != null && prepared.filtered == mPublished && prepared.color == mHighlightCacheColor){
+                for (int k = 0; k < prepared.highlights.size(); k++) {
+                    mHighlightCache.put(prepared.highlights.keyAt(k), prepared.highlights.valueAt(k));
+                }
+            }
+            mFilterConstraint = constraint;
             notifyDataSetChanged();
             mNoAnimations = true;
 //            if (mOnFilteredCallback != null) {mOnFilteredCallback.onFiltered(getCount()); }
@@ -484,6 +1670,9 @@ public abstract class AdvancedAdapter<T> extends BaseAdapter implements Filterab
 
     @Override
     public void notifyDataSetChanged() {
+        // all views are re-bound
+        mCheckChanges.clear();
+        mCheckChangesUnknown = false;
         super.notifyDataSetChanged();
         mNoAnimations = false;
     }
@@ -0,0 +1,534 @@
+/*
+ *  Copyright 2026 Philipp Niedermayer (github.com/eltos)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package eltos.simpledialogfragment.list;
+
+import android.database.Cursor;
+import android.database.DataSetObserver;
+import android.os.AsyncTask;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+
+/**
+ * An AdvancedAdapter that reads its rows lazily from a {@link Cursor}, so that
+ * large database tables can be shown without loading all rows into memory.
+ * <p>
+ * Rows are queried via a {@link CursorQuery} in the background, initially and whenever
+ * the filter constraint changes. Filtering is thus done by the query, e.g. with a
+ * SQL LIKE clause (see {@link AdvancedCursorAdapter#likePattern}) or a full text search
+ * (see {@link AdvancedCursorAdapter#ftsPrefixQuery}).
+ * <p>
+ * Item ids are read from a column of the cursor and check states are kept as a set of ids.
+ * Checking all items does not read all ids at once, but marks all items as checked and
+ * reads their ids on the query executor afterwards, see
+ * {@link AdvancedCursorAdapter#isResolvingCheckedIds}. Until then,
+ * {@link AdvancedCursorAdapter#getCheckedItemIds} only returns the ids checked individually.
+ * Since positions are only meaningful for the current cursor,
+ * {@link AdvancedCursorAdapter#getCheckedItemOriginalPositions},
+ * {@link AdvancedCursorAdapter#getCheckedItemOriginalPositionsPacked} and
+ * {@link AdvancedCursorAdapter#getCheckedItems} are not supported and return empty lists.
+ * <p>
+ * The initial query is started with {@link AdvancedCursorAdapter#start} or when the adapter
+ * is attached to a list. {@link AdvancedCursorAdapter#getItem} returns the cursor moved to
+ * the requested position. Call {@link AdvancedCursorAdapter#close} when the adapter is no
+ * longer used.
+ */
+public abstract class AdvancedCursorAdapter extends AdvancedAdapter<Cursor> {
+
+    private static final String TAG = "AdvancedCursorAdapter";
+
+    public interface CursorQuery {
+        /**
+         * Queries the rows to display. This method is called from a background thread.
+         *
+         * @param constraint the current filter constraint or null
+         * @return a cursor with the matching rows
+         */
+        @Nullable Cursor query(@Nullable String constraint);
+    }
+
+    private final CursorQuery mQuery;
+    private final String mIdColumn;
+    private final Executor mExecutor;
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+    private @Nullable Cursor mCursor;
+    private int mIdColumnIndex = -1;
+    private @Nullable String mConstraint;
+    private int mGeneration = 0;
+    private boolean mStarted = false;
+    private boolean mClosed = false;
+    private int mUnfilteredCount = -1;
+    // the checked ids, or the unchecked ids if all items are checked
+    private IdSet mCheckedIds = new IdSet();
+    private boolean mAllChecked = false;
+    private boolean mResolving = false;
+    private int mCheckRequest = 0;
+    // positions to check, resolved once the unfiltered rows are queried
+    private volatile @Nullable int[] mPendingPositions;
+
+    private final AdvancedFilter mFilter = new AdvancedFilter() {
+        @Override
+        protected boolean matches(Cursor object, @NonNull CharSequence constraint) {
+            return true;
+        }
+
+        @Override
+        protected FilterResults performFiltering(@Nullable CharSequence constraint) {
+            return null; // forwarded to the query in publishResults
+        }
+
+        @Override
+        protected void publishResults(CharSequence constraint, @Nullable FilterResults results) {
+            String c = constraint != null && constraint.length() > 0 ? constraint.toString() : null;
+            if (c == null ? mConstraint != null : !c.equals(mConstraint)){
+                query(c);
+            }
+        }
+    };
+
+    /**
+     * Creates an adapter that queries on {@link AsyncTask#THREAD_POOL_EXECUTOR}
+     *
+     * @param query the query providing the cursors
+     * @param idColumn the name of the column with the unique row ids, e.g. "_id"
+     */
+    public AdvancedCursorAdapter(@NonNull CursorQuery query, @NonNull String idColumn){
+        this(query, idColumn, AsyncTask.THREAD_POOL_EXECUTOR);
+    }
+
+    /**
+     * Creates an adapter
+     *
+     * @param query the query providing the cursors
+     * @param idColumn the name of the column with the unique row ids, e.g. "_id"
+     * @param executor the executor to run queries on
+     */
+    public AdvancedCursorAdapter(@NonNull CursorQuery query, @NonNull String idColumn,
+                                 @NonNull Executor executor){
+        mQuery = query;
+        mIdColumn = idColumn;
+        mExecutor = executor;
+    }
+
+    /**
+     * Starts the initial query, unless already started.
+     * This is called automatically when the adapter is attached to a list.
+     */
+    public void start(){
+        if (!mStarted){
+            query(mConstraint);
+        }
+    }
+
+    @Override
+    public void registerDataSetObserver(DataSetObserver observer) {
+        super.registerDataSetObserver(observer);
+        if (!mStarted){
+            // not while the list is being attached
+            mHandler.post(this::start);
+        }
+    }
+
+    /**
+     * Runs the query again, e.g. after the underlying data changed
+     */
+    public void requery(){
+        query(mConstraint);
+    }
+
+    private void query(@Nullable final String constraint){
+        if (mClosed) return;
+        mStarted = true;
+        final int generation = ++mGeneration;
+        mConstraint = constraint;
+        mExecutor.execute(() -> {
+            Cursor cursor = null;
+            int[] positions = null;
+            long[] ids = null;
+            try {
+                cursor = mQuery.query(constraint);
+                if (cursor != null){
+                    cursor.getCount(); // executes the query and fills the first window
+                    positions = constraint == null ? mPendingPositions : null;
+                    if (positions != null){
+                        ids = readIds(cursor, cursor.getColumnIndexOrThrow(mIdColumn), positions);
+                    }
+                }
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Query failed", e);
+            }
+            final Cursor result = cursor;
+            final int[] resolvedPositions = positions;
+            final long[] resolvedIds = ids;
+            mHandler.post(() -> {
+                if (generation != mGeneration || mClosed){
+                    // constraint changed meanwhile
+                    if (result != null) result.close();
+                } else {
+                    if (resolvedIds != null && mPendingPositions == resolvedPositions){
+                        mPendingPositions = null;
+                        checkIds(resolvedIds);
+                    }
+                    swapCursor(result);
+                    if (mAllChecked && !mResolving){
+                        resolveAllChecked(); // retried after a failed attempt
+                    }
+                }
+            });
+        });
+    }
+
+    private void swapCursor(@Nullable Cursor cursor){
+        Cursor old = mCursor;
+        mCursor = cursor;
+        mIdColumnIndex = cursor != null ? cursor.getColumnIndexOrThrow(mIdColumn) : -1;
+        if (cursor != null && mConstraint == null){
+            mUnfilteredCount = cursor.getCount();
+            int[] positions = mPendingPositions;
+            if (positions != null){
+                // set after the query ran, these are usually within the first window
+                mPendingPositions = null;
+                checkIds(readIds(cursor, mIdColumnIndex, positions));
+            }
+        }
+        if (old != null && old != cursor){
+            old.close();
+        }
+        notifyDataSetChanged();
+    }
+
+    // reads the ids at the given positions, invalid positions are skipped
+    private static long[] readIds(Cursor cursor, int idColumnIndex, int[] positions){
+        long[] ids = new long[positions.length];
+        int n = 0;
+        for (int position : positions) {
+            if (cursor.moveToPosition(position)){
+                ids[n++] = cursor.getLong(idColumnIndex);
+            }
+        }
+        return Arrays.copyOf(ids, n);
+    }
+
+    // reads the ids of all unfiltered rows, called from a background thread
+    @Nullable
+    private long[] queryAllIds(){
+        try (Cursor cursor = mQuery.query(null)) {
+            if (cursor == null) return null;
+            int column = cursor.getColumnIndexOrThrow(mIdColumn);
+            long[] ids = new long[cursor.getCount()];
+            int n = 0;
+            while (n < ids.length && cursor.moveToNext()) {
+                ids[n++] = cursor.getLong(column);
+            }
+            return n == ids.length ? ids : Arrays.copyOf(ids, n);
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Query failed", e);
+            return null;
+        }
+    }
+
+    private void checkIds(long[] ids){
+        for (long id : ids) {
+            setItemChecked(id, true);
+        }
+    }
+
+    /**
+     * Closes the current cursor and discards running queries
+     */
+    public void close(){
+        mClosed = true;
+        mGeneration++;
+        mCheckRequest++;
+        swapCursor(null);
+    }
+
+    /**
+     * Returns a pattern for a SQL LIKE clause with escape character '\',
+     * e.g. <code>"name LIKE ? ESCAPE '\'"</code>
+     *
+     * @param constraint the filter constraint
+     * @param prefix true to match at the beginning only, false to match anywhere
+     * @return the pattern to pass as selection argument
+     */
+    public static String likePattern(@NonNull String constraint, boolean prefix){
+        String escaped = constraint.replace("\\", "\\\\")
+                .replace("%", "\\%").replace("_", "\\_");
+        return (prefix ? "" : "%") + escaped + "%";
+    }
+
+    /**
+     * Returns a full text search query that matches all words of the constraint
+     * at word beginnings, e.g. <code>"table MATCH ?"</code>
+     *
+     * @param constraint the filter constraint
+     * @return the query to pass as selection argument
+     */
+    public static String ftsPrefixQuery(@NonNull String constraint){
+        StringBuilder query = new StringBuilder();
+        for (String word : constraint.trim().split("\\s+")) {
+            if (word.isEmpty()) continue;
+            if (query.length() > 0) query.append(' ');
+            query.append('"').append(word.replace("\"", "\"\"")).append("\"*");
+        }
+        return query.toString();
+    }
+
+
+    @Override
+    protected void filterItems() {
+        // filtering is done by the query, only refresh the views
+        notifyDataSetChanged();
+    }
+
+    @Override
+    public AdvancedFilter getFilter() {
+        return mFilter;
+    }
+
+    @Override
+    public int getCount() {
+        return mCursor != null ? mCursor.getCount() : 0;
+    }
+
+    @Override
+    int originalPosition(int filteredPosition) {
+        return filteredPosition;
+    }
+
+    @Override
+    boolean supportsDiffing() {
+        return false; // rows are read from the cursor
+    }
+
+    @Override
+    boolean isCheckChanged(int position) {
+        return position < getCount(); // check states are not tracked by position
+    }
+
+    @Override
+    public Cursor getItem(int position) {
+        if (mCursor == null || !mCursor.moveToPosition(position)){
+            throw new IndexOutOfBoundsException("Index: " + position + ", Size: " + getCount());
+        }
+        return mCursor;
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return getItem(position).getLong(mIdColumnIndex);
+    }
+
+    @Override
+    public boolean hasStableIds() {
+        return true;
+    }
+
+    @Override
+    public void setItemChecked(int position, boolean checked) {
+        setItemChecked(getItemId(position), checked);
+    }
+
+    @Override
+    public void setItemChecked(long id, boolean checked) {
+        if (getChoiceMode() != CHOICE_MODE_NONE) {
+            if (checked && getChoiceMode() == CHOICE_MODE_SINGLE){
+                clearChecked();
+            }
+            if (checked != mAllChecked){
+                mCheckedIds.add(id);
+            } else {
+                mCheckedIds.remove(id);
+            }
+        }
+    }
+
+    private void clearChecked(){
+        mCheckRequest++; // discards a pending request to check all items
+        mAllChecked = false;
+        mResolving = false;
+        mCheckedIds.clear();
+    }
+
+    @Override
+    public void setAllItemsChecked(boolean checked) {
+        clearChecked();
+        mPendingPositions = null;
+        if (checked && getChoiceMode() == CHOICE_MODE_MULTIPLE) {
+            // all items are checked now, their ids are read in the background
+            mAllChecked = true;
+            resolveAllChecked();
+        }
+    }
+
+    // reads the ids of all items on the query executor, if all items are checked
+    private void resolveAllChecked(){
+        if (mClosed) return;
+        mResolving = true;
+        final int request = mCheckRequest;
+        mExecutor.execute(() -> {
+            final long[] ids = queryAllIds();
+            mHandler.post(() -> {
+                if (request != mCheckRequest || !mAllChecked) return;
+                mResolving = false;
+                if (ids != null){
+                    resolveAllChecked(ids);
+                    notifyDataSetChanged();
+                }
+            });
+        });
+    }
+
+    // replaces the flag for all items being checked by their ids
+    private void resolveAllChecked(long[] ids){
+        IdSet unchecked = mCheckedIds;
+        IdSet checked = new IdSet();
+        for (long id : ids) {
+            if (!unchecked.contains(id)){
+                checked.add(id);
+            }
+        }
+        mCheckRequest++;
+        mAllChecked = false;
+        mCheckedIds = checked;
+    }
+
+    /**
+     * Whether all items were checked and their ids are still being read in the background.
+     * The adapter notifies its observers once the ids are read.
+     *
+     * @return true if the checked ids are not available yet
+     */
+    public boolean isResolvingCheckedIds(){
+        return mAllChecked;
+    }
+
+    @Override
+    void setOriginalPositionsChecked(@NonNull int[] originalPositions) {
+        if (getChoiceMode() == CHOICE_MODE_NONE) return;
+        if (mCursor != null && mConstraint == null){
+            checkIds(readIds(mCursor, mIdColumnIndex, originalPositions));
+        } else {
+            // resolved once the unfiltered rows are queried
+            mPendingPositions = originalPositions.clone();
+        }
+    }
+
+    @Override
+    public void setItemsCheckedFromIds(ArrayList<Long> checkedItemIds) {
+        clearChecked();
+        mPendingPositions = null;
+        for (Long id : checkedItemIds) {
+            if (id != null){
+                setItemChecked(id, true);
+            }
+        }
+    }
+
+    @Override
+    public void setItemsCheckedFromIds(long[] checkedItemIds) {
+        clearChecked();
+        mPendingPositions = null;
+        checkIds(checkedItemIds);
+    }
+
+    @Override
+    public boolean isItemChecked(int position) {
+        return mCheckedIds.contains(getItemId(position)) != mAllChecked;
+    }
+
+    @Override
+    public int getCheckedItemCount() {
+        if (mAllChecked){
+            int count = mUnfilteredCount >= 0 ? mUnfilteredCount : getCount();
+            return Math.max(0, count - mCheckedIds.size());
+        }
+        int[] positions = mPendingPositions;
+        return mCheckedIds.size() + (positions != null ? positions.length : 0);
+    }
+
+    @Override
+    public ArrayList<Cursor> getCheckedItems() {
+        return new ArrayList<>(0);
+    }
+
+    @Override
+    public ArrayList<Integer> getCheckedItemOriginalPositions() {
+        return new ArrayList<>(0);
+    }
+
+    @Override
+    public int[] getCheckedItemOriginalPositionsPacked() {
+        return new int[0];
+    }
+
+    @Override
+    public void setItemsCheckedFromOriginalPositionsPacked(@Nullable int[] runs) {
+        // positions are not meaningful, use setItemsCheckedFromIds
+    }
+
+    @Override
+    public ArrayList<Long> getCheckedItemIds() {
+        long[] ids = getCheckedItemIdArray();
+        ArrayList<Long> list = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            list.add(id);
+        }
+        return list;
+    }
+
+    @Override
+    public long[] getCheckedItemIdArray() {
+        return mAllChecked ? new long[0] : mCheckedIds.toArray();
+    }
+
+    @Override
+    void saveCheckStates(@NonNull Bundle outState, @NonNull String key) {
+        // if all items are checked, only the unchecked ids are saved
+        outState.putBoolean(key + ".all", mAllChecked);
+        outState.putLongArray(key, mCheckedIds.toArray());
+        int[] positions = mPendingPositions;
+        if (positions != null){
+            outState.putIntArray(key + ".positions", positions);
+        }
+    }
+
+    @Override
+    void restoreCheckStates(@NonNull Bundle savedState, @NonNull String key) {
+        long[] ids = savedState.getLongArray(key);
+        if (ids == null) return;
+        setItemsCheckedFromIds(ids);
+        if (savedState.getBoolean(key + ".all") && getChoiceMode() == CHOICE_MODE_MULTIPLE){
+            // the saved ids are the unchecked ones
+            mAllChecked = true;
+            resolveAllChecked();
+        }
+        int[] positions = savedState.getIntArray(key + ".positions");
+        if (positions != null){
+            setOriginalPositionsChecked(positions);
+        }
+    }
+}
@@ -0,0 +1,335 @@
+/*
+ *  Copyright 2026 Philipp Niedermayer (github.com/eltos)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package eltos.simpledialogfragment.list;
+
+import android.database.DataSetObserver;
+import android.os.AsyncTask;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.SparseIntArray;
+import android.util.TypedValue;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.Checkable;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * A bridge that displays an {@link AdvancedAdapter} in a {@link RecyclerView}.
+ * <p>
+ * The views are still created and bound by {@link AdvancedAdapter#getView}, so existing
+ * adapters keep working. Changes of the adapters data or filter results are diffed by item
+ * id on a background executor and dispatched as minimal updates. If only check states
+ * changed, call {@link AdvancedRecyclerAdapter#notifyCheckedStateChanged} to rebind the
+ * visible rows with the {@link AdvancedRecyclerAdapter#PAYLOAD_CHECKED} payload, which only
+ * updates their {@link Checkable} state.
+ * <p>
+ * Rows are not wrapped, the view returned by {@link AdvancedAdapter#getView} is used as item
+ * view directly. The adapter must therefore rebind and return the convert view it is
+ * passed, as {@link android.widget.ListView} adapters usually do. Views without a background
+ * get the themes {@link android.R.attr#selectableItemBackground} as touch feedback.
+ */
+public class AdvancedRecyclerAdapter extends RecyclerView.Adapter<AdvancedRecyclerAdapter.Holder> {
+
+    /**
+     * Payload of rebinds where only the check state changed
+     */
+    public static final Object PAYLOAD_CHECKED = new Object();
+
+    public interface OnItemClickListener {
+        void onItemClick(View view, int position, long id);
+    }
+
+    public interface OnItemLongClickListener {
+        boolean onItemLongClick(View view, int position, long id);
+    }
+
+    static class Holder extends RecyclerView.ViewHolder {
+        Holder(View view){
+            super(view);
+        }
+    }
+
+    /**
+     * View type of rows that are displayed while the adapter already has fewer items.
+     * They are rebound once the pending diff is dispatched.
+     */
+    private static final int TYPE_PLACEHOLDER = -1;
+
+    /**
+     * The items displayed at a time. The arrays are shared with the adapter's
+     * snapshots and are never modified.
+     */
+    private static class DataView {
+        final Object[] objects;
+        final long[] ids;
+        final int[] positions;
+        final int count;
+
+        DataView(Object[] objects, long[] ids, int[] positions, int count){
+            this.objects = objects;
+            this.ids = ids;
+            this.positions = positions;
+            this.count = count;
+        }
+
+        boolean isSameAs(DataView other){
+            return objects == other.objects && positions == other.positions && count == other.count;
+        }
+    }
+
+    private final AdvancedAdapter<?> mAdapter;
+    private final Executor mDiffExecutor;
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private @Nullable OnItemClickListener mOnItemClickListener;
+    private @Nullable OnItemLongClickListener mOnItemLongClickListener;
+
+    private @Nullable DataView mDisplayed;
+    private int mDisplayedCount;
+    private int mGeneration = 0;
+    private boolean mPending = false;
+    private boolean mBoundWhilePending = false;
+    // a position of each view type, to create new views of that type with
+    private final SparseIntArray mTypePositions = new SparseIntArray();
+    private @Nullable RecyclerView mRecyclerView;
+
+    private final DataSetObserver mObserver = new DataSetObserver() {
+        @Override
+        public void onChanged() {
+            onAdapterChanged();
+        }
+
+        @Override
+        public void onInvalidated() {
+            onAdapterChanged();
+        }
+    };
+
+    /**
+     * Creates a bridge that computes diffs on {@link AsyncTask#THREAD_POOL_EXECUTOR}
+     *
+     * @param adapter the adapter to display
+     */
+    public AdvancedRecyclerAdapter(@NonNull AdvancedAdapter<?> adapter){
+        this(adapter, AsyncTask.THREAD_POOL_EXECUTOR);
+    }
+
+    /**
+     * @param adapter the adapter to display
+     * @param diffExecutor the executor to compute diffs on
+     */
+    public AdvancedRecyclerAdapter(@NonNull AdvancedAdapter<?> adapter, @NonNull Executor diffExecutor){
+        mAdapter = adapter;
+        mDiffExecutor = diffExecutor;
+        mDisplayed = captureDataView();
+        mDisplayedCount = adapter.getCount();
+    }
+
+    public void setOnItemClickListener(@Nullable OnItemClickListener listener){
+        mOnItemClickListener = listener;
+    }
+
+    public void setOnItemLongClickListener(@Nullable OnItemLongClickListener listener){
+        mOnItemLongClickListener = listener;
+    }
+
+    /**
+     * Rebinds the check state of all visible rows.
+     * Call this rather than {@link AdvancedAdapter#notifyDataSetChanged} if only
+     * check states were changed.
+     */
+    public void notifyCheckedStateChanged(){
+        if (!mPending){
+            notifyItemRangeChanged(0, mDisplayedCount, PAYLOAD_CHECKED);
+        }
+    }
+
+    @Nullable
+    private DataView captureDataView(){
+        if (!mAdapter.supportsDiffing()) return null;
+        return new DataView(mAdapter.getDataObjects(), mAdapter.getDataIds(),
+                mAdapter.getFilteredPositions(), mAdapter.getCount());
+    }
+
+    private void onAdapterChanged(){
+        final DataView previous = mDisplayed;
+        final DataView current = captureDataView();
+        if (previous == null || current == null){
+            // adapter can't be diffed
+            mGeneration++;
+            mPending = false;
+            mDisplayed = current;
+            mDisplayedCount = mAdapter.getCount();
+            notifyDataSetChanged();
+            return;
+        }
+        if (!mPending && previous.isSameAs(current)){
+            // same items, but their views might have changed
+            notifyItemRangeChanged(0, mDisplayedCount);
+            return;
+        }
+
+        final int generation = ++mGeneration;
+        mPending = true;
+        mDiffExecutor.execute(() -> {
+            final DiffUtil.DiffResult result = DiffUtil.calculateDiff(new DiffUtil.Callback() {
+                @Override
+                public int getOldListSize() {
+                    return previous.count;
+                }
+
+                @Override
+                public int getNewListSize() {
+                    return current.count;
+                }
+
+                @Override
+                public boolean areItemsTheSame(int o, int n) {
+                    return previous.ids[previous.positions[o]] == current.ids[current.positions[n]];
+                }
+
+                @Override
+                public boolean areContentsTheSame(int o, int n) {
+                    return previous.objects[previous.positions[o]] == current.objects[current.positions[n]];
+                }
+            }, false);
+            mHandler.post(() -> {
+                if (generation != mGeneration) return; // superseded
+                mPending = false;
+                mDisplayed = current;
+                mDisplayedCount = current.count;
+                result.dispatchUpdatesTo(AdvancedRecyclerAdapter.this);
+                if (mBoundWhilePending){
+                    mBoundWhilePending = false;
+                    notifyItemRangeChanged(0, mDisplayedCount);
+                } else {
+                    // check states might have changed as well
+                    notifyItemRangeChanged(0, mDisplayedCount, PAYLOAD_CHECKED);
+                }
+            });
+        });
+    }
+
+    @Override
+    public void onAttachedToRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onAttachedToRecyclerView(recyclerView);
+        mRecyclerView = recyclerView;
+        mAdapter.registerDataSetObserver(mObserver);
+    }
+
+    @Override
+    public void onDetachedFromRecyclerView(@NonNull RecyclerView recyclerView) {
+        mAdapter.unregisterDataSetObserver(mObserver);
+        mRecyclerView = null;
+        super.onDetachedFromRecyclerView(recyclerView);
+    }
+
+    @Override
+    public int getItemCount() {
+        return mDisplayedCount;
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        if (position >= mAdapter.getCount()) return TYPE_PLACEHOLDER;
+        return mAdapter.getItemViewType(position);
+    }
+
+    @NonNull
+    @Override
+    public Holder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        if (viewType == TYPE_PLACEHOLDER){
+            return new Holder(new View(parent.getContext()));
+        }
+        // the view is created for any item of that type and bound in onBindViewHolder
+        View view = mAdapter.getView(findPositionOfType(viewType), null, parent);
+        if (view.getBackground() == null){
+            TypedValue value = new TypedValue();
+            if (parent.getContext().getTheme().resolveAttribute(
+                    android.R.attr.selectableItemBackground, value, true)){
+                view.setBackgroundResource(value.resourceId);
+            }
+        }
+
+        final Holder holder = new Holder(view);
+        view.setOnClickListener(v -> {
+            int p = holder.getBindingAdapterPosition();
+            if (mOnItemClickListener != null && isClickable(p)){
+                mOnItemClickListener.onItemClick(v, p, mAdapter.getItemId(p));
+            }
+        });
+        view.setOnLongClickListener(v -> {
+            int p = holder.getBindingAdapterPosition();
+            return mOnItemLongClickListener != null && isClickable(p) &&
+                    mOnItemLongClickListener.onItemLongClick(v, p, mAdapter.getItemId(p));
+        });
+        return holder;
+    }
+
+    private int findPositionOfType(int viewType){
+        int count = mAdapter.getCount();
+        int position = mTypePositions.get(viewType, -1);
+        if (position >= 0 && position < count && mAdapter.getItemViewType(position) == viewType){
+            return position;
+        }
+        for (int i = 0; i < count; i++) {
+            if (mAdapter.getItemViewType(i) == viewType){
+                mTypePositions.put(viewType, i);
+                return i;
+            }
+        }
+        throw new IllegalStateException("No item with view type " + viewType);
+    }
+
+    private boolean isClickable(int position){
+        return !mPending && position != RecyclerView.NO_POSITION
+                && position < mAdapter.getCount() && mAdapter.isEnabled(position);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull Holder holder, int position) {
+        if (mPending){
+            // positions refer to the displayed items, which are about to be updated
+            mBoundWhilePending = true;
+        }
+        if (holder.getItemViewType() == TYPE_PLACEHOLDER || position >= mAdapter.getCount()){
+            return; // rebound with the actual view type once the diff is dispatched
+        }
+        mAdapter.getView(position, holder.itemView, mRecyclerView);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull Holder holder, int position, @NonNull List<Object> payloads) {
+        if (!payloads.isEmpty() && holder.itemView instanceof Checkable && position < mAdapter.getCount()){
+            boolean checkedOnly = true;
+            for (Object payload : payloads) {
+                checkedOnly &= payload == PAYLOAD_CHECKED;
+            }
+            if (checkedOnly){
+                ((Checkable) holder.itemView).setChecked(mAdapter.isItemChecked(position));
+                return;
+            }
+        }
+        onBindViewHolder(holder, position);
+    }
+}
@@ -20,6 +20,8 @@ import androidx.annotation.Nullable;
 import android.widget.SectionIndexer;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 
 /**
  * An extension of AdvancedAdapter that provides a section indexer
@@ -28,7 +30,7 @@ import java.util.ArrayList;
  */
 public abstract class AdvancedSectionAdapter<T> extends AdvancedAdapter<T> implements SectionIndexer {
 
-    class Section {
+    static class Section {
         String title;
         int startingPosition;
 
@@ -43,7 +45,17 @@ public abstract class AdvancedSectionAdapter<T> extends AdvancedAdapter<T> imple
         }
     }
 
-    private ArrayList<Section> mSections = new ArrayList<>();
+    // sections of the currently visible items
+    private Object[] mSections = new Object[]{new Section(null, 0)};
+    private int[] mSectionStarts = new int[]{0};
+    private int[] mIndexedPositions;
+    private int mIndexedCount = -1;
+    private @Nullable SectionIndex mIndex;
+
+    // section titles by original position, computed once per data set if not sorted
+    private String[] mTitles = new String[0];
+    private BitSet mTitleCached = new BitSet();
+    private int mTitlesVersion = -1;
 
     @Override
     public void notifyDataSetChanged() {
@@ -53,29 +65,30 @@ public abstract class AdvancedSectionAdapter<T> extends AdvancedAdapter<T> imple
 
     @Override
     public int getPositionForSection(int section) {
-        section = Math.max(0, Math.min(mSections.size() - 1, section));
-        return mSections.get(section).startingPosition;
+        section = Math.max(0, Math.min(mSectionStarts.length - 1, section));
+        return mSectionStarts[section];
     }
 
     @Override
     public int getSectionForPosition(int position) {
-        for (int i = mSections.size() - 1; i >= 0; i--) {
-            if (position >= mSections.get(i).startingPosition){
-                return i;
-            }
-        }
-        return 0;
+        int i = Arrays.binarySearch(mSectionStarts, position);
+        // if not found, the section is the one before the insertion point
+        return i >= 0 ? i : Math.max(0, -i - 2);
     }
 
     @Override
     public Object[] getSections() {
-        return mSections.toArray();
+        return mSections;
     }
 
 
     /**
      * Overwrite this method to return the section title corresponding with the given object.
      * Equal and consecutive titles are automatically combined to sections
+     * <p>
+     * Titles are cached per item until the data changes. If sorting is enabled, see
+     * {@link AdvancedAdapter#setSorting}, this method is called from the sorting stage,
+     * possibly on a background thread.
      *
      * @param object an object from the underlying data set
      * @return a title representing the objects section (e.g. its first letter)
@@ -84,21 +97,88 @@ public abstract class AdvancedSectionAdapter<T> extends AdvancedAdapter<T> imple
     public abstract String getSectionTitle(T object);
 
 
-    private void updateAlphaIndexer(){
-        mSections.clear();
+    private String getCachedSectionTitle(int originalPosition){
+        if (!mTitleCached.get(originalPosition)){
+            mTitles[originalPosition] = getSectionTitle(getOriginalItem(originalPosition));
+            mTitleCached.set(originalPosition);
+        }
+        return mTitles[originalPosition];
+    }
+
+    @Nullable
+    @Override
+    SectionIndex computeSectionIndex(Object[] objects) {
+        String[] titles = new String[objects.length];
+        for (int i = 0; i < objects.length; i++) {
+            @SuppressWarnings("unchecked") T object = (T) objects[i];
+            titles[i] = getSectionTitle(object);
+        }
+        return buildSectionIndex(titles, null, objects.length);
+    }
+
+    @Nullable
+    @Override
+    SectionIndex computeSectionIndex(SectionIndex all, int[] positions, int count) {
+        return buildSectionIndex(all.titles, positions, count);
+    }
+
+    // combines equal and consecutive titles to sections
+    private static SectionIndex buildSectionIndex(String[] titles, @Nullable int[] positions, int count){
+        ArrayList<Section> sections = new ArrayList<>();
         String currentSection = null;
-        for (int i = 0; i < getCount(); i++) {
-            String title = getSectionTitle(getItem(i));
+        for (int i = 0; i < count; i++) {
+            String title = titles[positions != null ? positions[i] : i];
             if (title != null && !title.equals(currentSection)){
-                mSections.add(new Section(title, i));
+                sections.add(new Section(title, i));
                 currentSection = title;
             }
         }
 
-        if (mSections.size() == 0){
-            mSections.add(new Section(null, 0));
+        if (sections.size() == 0){
+            sections.add(new Section(null, 0));
         }
 
+        int[] starts = new int[sections.size()];
+        for (int i = 0; i < sections.size(); i++) {
+            starts[i] = sections.get(i).startingPosition;
+        }
+        return new SectionIndex(titles, sections.toArray(), starts);
+    }
+
+    private void updateAlphaIndexer(){
+        // sections computed in the sorting or filtering stage
+        SectionIndex index = getSectionIndex();
+        if (index != null){
+            if (index != mIndex){
+                mIndex = index;
+                mSections = index.sections;
+                mSectionStarts = index.starts;
+                mIndexedPositions = null;
+            }
+            return;
+        }
+        mIndex = null;
+
+        // otherwise the titles are computed here, if the data is not sorted
+        if (mTitlesVersion != getDataVersion()){
+            mTitles = new String[getDataSize()];
+            mTitleCached = new BitSet(mTitles.length);
+            mTitlesVersion = getDataVersion();
+            mIndexedPositions = null;
+        }
+        // only rebuild if the visible items changed, but not on check state changes
+        if (mIndexedPositions == getFilteredPositions() && mIndexedCount == getCount()){
+            return;
+        }
+        mIndexedPositions = getFilteredPositions();
+        mIndexedCount = getCount();
+
+        for (int i = 0; i < mIndexedCount; i++) {
+            getCachedSectionTitle(originalPosition(i));
+        }
+        index = buildSectionIndex(mTitles, mIndexedPositions, mIndexedCount);
+        mSections = index.sections;
+        mSectionStarts = index.starts;
     }
 
 
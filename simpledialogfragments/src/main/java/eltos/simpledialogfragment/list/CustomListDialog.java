@@ -20,6 +20,9 @@ import android.os.Bundle;
 import androidx.annotation.DimenRes;
 import androidx.annotation.StringRes;
 import androidx.core.content.res.ResourcesCompat;
+import androidx.recyclerview.widget.GridLayoutManager;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
 import android.text.Editable;
 import android.text.TextWatcher;
@@ -44,6 +47,8 @@ import eltos.simpledialogfragment.R;
  * <p>
  * Result:
  *      SELECTED_POSITIONS          Integer ArrayList   selected item positions
+ *      SELECTED_POSITIONS_PACKED   int[]               selected item positions as runs
+ *                                                      instead, see {@link #packedResult}
  *      SELECTED_IDS                Long[]              selected item ids
  * In SINGLE_CHOICE and SINGLE_CHOICE_DIRECT mode also:
  *      SELECTED_SINGLE_POSITION    int                 selected item position
@@ -73,6 +78,13 @@ public abstract class CustomListDialog<This extends CustomListDialog<This>>
      */
     public static final String SELECTED_POSITIONS = TAG + "selectedPos";
 
+    /**
+     * Key for an <b>int[]</b> returned by {@link CustomListDialog#onResult} instead of
+     * {@link CustomListDialog#SELECTED_POSITIONS} if {@link CustomListDialog#packedResult}
+     * is enabled. Use {@link SelectionCodec} to decode the positions.
+     */
+    public static final String SELECTED_POSITIONS_PACKED = TAG + "selectedPosPacked";
+
     /**
      * Key for a <b>long</b> returned by {@link CustomListDialog#onResult} in single choice mode
      */
@@ -91,9 +103,14 @@ public abstract class CustomListDialog<This extends CustomListDialog<This>>
     private static final String GRID = TAG + "grid";
     private static final String GRID_N = TAG + "gridN";
     private static final String GRID_W = TAG + "gridW";
+    private static final String RECYCLER = TAG + "recycler";
+    private static final String PACKED_RESULT = TAG + "packedResult";
     private static final String SHOW_DIVIDER = TAG + "showDivider";
     private static final String FILTER = TAG + "filter";
+    private static final String FILTER_DEBOUNCE = TAG + "filterDebounce";
+    private static final String FILTER_MIN_LENGTH = TAG + "filterMinLength";
     private static final String EMPTY_TEXT = TAG + "emptyText";
+    private static final String CHECK_STATES = TAG + "checkStates";
 
 
     /**
@@ -236,6 +253,34 @@ public abstract class CustomListDialog<This extends CustomListDialog<This>>
         return setArg(GRID_W, columnWidthDimenResId);
     }
 
+    /**
+     * Renders the list or grid with a {@link RecyclerView} rather than a {@link ListView}
+     * or {@link GridView}.
+     * <p>
+     * Filter results are then diffed by item id in the background and only the changed
+     * rows are updated, while toggling an item only rebinds the check states.
+     * The adapter is displayed via an {@link AdvancedRecyclerAdapter}, so no changes are
+     * required to it. Note that {@link #onItemClick} and {@link #onItemLongClick} are
+     * called with a null parent in this mode and dividers are not supported.
+     *
+     * @param enabled whether to use a RecyclerView or not
+     * @return this instance
+     */
+    public This recyclerView(boolean enabled){ return setArg(RECYCLER, enabled); }
+
+    /**
+     * Returns the selected positions as runs of consecutive positions under
+     * {@link CustomListDialog#SELECTED_POSITIONS_PACKED} rather than as
+     * {@link CustomListDialog#SELECTED_POSITIONS}.
+     * <p>
+     * Recommended for long lists, where selecting many or all items would otherwise
+     * result in a boxed Integer per item.
+     *
+     * @param enabled whether to return packed positions or not
+     * @return this instance
+     */
+    public This packedResult(boolean enabled){ return setArg(PACKED_RESULT, enabled); }
+
     /**
      * Sets the visibility of the divider
      *
@@ -253,6 +298,24 @@ public abstract class CustomListDialog<This extends CustomListDialog<This>>
      */
     public This filterable(boolean enabled){ return setArg(FILTER, enabled); }
 
+    /**
+     * Delays filtering until the user stopped typing for the given time, so that
+     * large lists stay responsive. Only takes effect if the list is {@link #filterable}.
+     *
+     * @param millis the debounce time in milliseconds
+     * @return this instance
+     */
+    public This filterDebounce(long millis){ return setArg(FILTER_DEBOUNCE, millis); }
+
+    /**
+     * Sets the minimum number of characters required before the list is filtered.
+     * Only takes effect if the list is {@link #filterable}.
+     *
+     * @param length the minimum length of the filter text
+     * @return this instance
+     */
+    public This filterMinLength(int length){ return setArg(FILTER_MIN_LENGTH, length); }
+
     /**
      * Sets a string to be displayed if no items are currently visible
      *
@@ -289,7 +352,8 @@ public abstract class CustomListDialog<This extends CustomListDialog<This>>
      * Implementers can call Adapter#getItem(position) if they need
      * to access the data associated with the selected item.
      *
-     * @param parent The AdapterView where the click happened.
+     * @param parent The AdapterView where the click happened
+     *               or null if {@link #recyclerView} is enabled.
      * @param view The view within the AdapterView that was clicked (this
      *            will be a view provided by the adapter)
      * @param position The position of the view in the adapter.
@@ -308,6 +372,7 @@ public abstract class CustomListDialog<This extends CustomListDialog<This>>
      * the data associated with the selected item.
      *
      * @param parent The AbsListView where the click happened
+     *               or null if {@link #recyclerView} is enabled
      * @param view The view within the AbsListView that was clicked
      * @param position The position of the view in the list
      * @param id The row id of the item that was clicked
@@ -324,6 +389,8 @@ public abstract class CustomListDialog<This extends CustomListDialog<This>>
 
 
     protected AbsListView mListView;
+    protected RecyclerView mRecyclerView;
+    protected AdvancedRecyclerAdapter mRecyclerAdapter;
     protected AdvancedAdapter<?> mAdapter;
     protected EditText mFilterEditText;
 
@@ -332,7 +399,28 @@ public abstract class CustomListDialog<This extends CustomListDialog<This>>
     protected View onCreateContentView(Bundle savedInstanceState) {
 
         View view;
-        if (getArgs().containsKey(GRID)){
+        if (getArgs().getBoolean(RECYCLER)){
+            view = inflate(R.layout.simpledialogfragment_recycler);
+            mRecyclerView = view.findViewById(R.id.recyclerView);
+            if (getArgs().containsKey(GRID)){
+                final GridLayoutManager layoutManager = new GridLayoutManager(getContext(),
+                        Math.max(1, getArgs().getInt(GRID_N, 1)));
+                if (getArgs().getInt(GRID_N, 0) <= 0 && getArgs().containsKey(GRID_W)){
+                    // auto fit like GridView does
+                    final int columnWidth = getResources().getDimensionPixelSize(getArgs().getInt(GRID_W));
+                    mRecyclerView.addOnLayoutChangeListener((v, l, t, r, b, ol, ot, or, ob) -> {
+                        int width = r - l - v.getPaddingLeft() - v.getPaddingRight();
+                        int columns = Math.max(1, width / Math.max(1, columnWidth));
+                        if (width > 0 && columns != layoutManager.getSpanCount()){
+                            v.post(() -> layoutManager.setSpanCount(columns));
+                        }
+                    });
+                }
+                mRecyclerView.setLayoutManager(layoutManager);
+            } else {
+                mRecyclerView.setLayoutManager(new LinearLayoutManager(getContext()));
+            }
+        } else if (getArgs().containsKey(GRID)){
             view = inflate(R.layout.simpledialogfragment_grid);
             mListView = view.findViewById(R.id.gridView);
             if (getArgs().containsKey(GRID_W)){
@@ -351,8 +439,30 @@ public abstract class CustomListDialog<This extends CustomListDialog<This>>
         emptyView.setText(getArgString(EMPTY_TEXT));
 
         mAdapter = onCreateAdapter();
-        mListView.setAdapter(mAdapter);
-        mListView.setEmptyView(emptyView);
+        if (mRecyclerView != null){
+            mRecyclerAdapter = new AdvancedRecyclerAdapter(mAdapter);
+            mRecyclerView.setAdapter(mRecyclerAdapter);
+            mRecyclerAdapter.registerAdapterDataObserver(new RecyclerView.AdapterDataObserver() {
+                @Override
+                public void onChanged() {
+                    updateEmptyView(emptyView);
+                }
+
+                @Override
+                public void onItemRangeInserted(int positionStart, int itemCount) {
+                    updateEmptyView(emptyView);
+                }
+
+                @Override
+                public void onItemRangeRemoved(int positionStart, int itemCount) {
+                    updateEmptyView(emptyView);
+                }
+            });
+            updateEmptyView(emptyView);
+        } else {
+            mListView.setAdapter(mAdapter);
+            mListView.setEmptyView(emptyView);
+        }
 
         switch (getArgs().getInt(CHOICE_MODE, ListView.CHOICE_MODE_NONE)) {
             case SINGLE_CHOICE:
@@ -367,6 +477,10 @@ public abstract class CustomListDialog<This extends CustomListDialog<This>>
         mFilterEditText.setVisibility(View.GONE);
         if (getArgs().getBoolean(FILTER)){
             mFilterEditText.setVisibility(View.VISIBLE);
+            if (mAdapter.getFilter() != null){
+                mAdapter.getFilter().setDebounce(getArgs().getLong(FILTER_DEBOUNCE, 0));
+                mAdapter.getFilter().setMinConstraintLength(getArgs().getInt(FILTER_MIN_LENGTH, 0));
+            }
             mFilterEditText.addTextChangedListener(new TextWatcher() {
                 @Override
                 public void beforeTextChanged(CharSequence s, int start, int count, int after) {}
@@ -375,7 +489,7 @@ public abstract class CustomListDialog<This extends CustomListDialog<This>>
                 @Override
                 public void afterTextChanged(Editable s) {
                     if (mAdapter.getFilter() != null){
-                        mAdapter.getFilter().filter(s);
+                        mAdapter.getFilter().schedule(s);
                     }
                 }
             });
@@ -384,21 +498,15 @@ public abstract class CustomListDialog<This extends CustomListDialog<This>>
 
 
 
-        mListView.setOnItemClickListener((adapterView, itemView, position, id) -> {
-            CustomListDialog.this.onItemClick(adapterView, itemView, position, id);
-
-            mAdapter.toggleChecked(position);
-            //mListView.invalidateViews();
-            mAdapter.notifyDataSetChanged();
-
-            updatePosButton();
-
-            if (mAdapter.getCheckedItemCount() > 0 &&
-                    getArgs().getInt(CHOICE_MODE) == SINGLE_CHOICE_DIRECT){
-                pressPositiveButton();
-            }
-        });
-        mListView.setOnItemLongClickListener(this);
+        if (mRecyclerView != null){
+            mRecyclerAdapter.setOnItemClickListener((itemView, position, id) ->
+                    onListItemClick(null, itemView, position, id));
+            mRecyclerAdapter.setOnItemLongClickListener((itemView, position, id) ->
+                    onItemLongClick(null, itemView, position, id));
+        } else {
+            mListView.setOnItemClickListener(this::onListItemClick);
+            mListView.setOnItemLongClickListener(this);
+        }
         if (mListView instanceof ListView){
             if (getArgs().getBoolean(SHOW_DIVIDER)) {
                 ((ListView) mListView).setDivider(ResourcesCompat.getDrawable(getResources(),
@@ -419,19 +527,13 @@ public abstract class CustomListDialog<This extends CustomListDialog<This>>
             if (getArgs().containsKey(INITIALLY_CHECKED_POSITIONS)) {
                 int[] set = getArgs().getIntArray(INITIALLY_CHECKED_POSITIONS);
                 if (set != null) {
-                    for (int i : set) {
-                        mAdapter.setItemChecked(i, true);
-                    }
+                    // applied once loaded, if the adapter loads its data in the background
+                    mAdapter.setOriginalPositionsChecked(set);
                 }
             }
         } else {
             // preserved checked states
-            ArrayList<Integer> checked = savedInstanceState.getIntegerArrayList(SELECTED_POSITIONS);
-            if (checked != null){
-                for (Integer i : checked) {
-                    mAdapter.setItemChecked(i, true);
-                }
-            }
+            mAdapter.restoreCheckStates(savedInstanceState, CHECK_STATES);
         }
 
 
@@ -440,10 +542,57 @@ public abstract class CustomListDialog<This extends CustomListDialog<This>>
     }
 
 
+    @Override
+    public void onDestroyView() {
+        if (mAdapter != null && mAdapter.getFilter() != null){
+            mAdapter.getFilter().cancel();
+        }
+        super.onDestroyView();
+    }
+
+    private void onListItemClick(AdapterView<?> parent, View view, int position, long id){
+        onItemClick(parent, view, position, id);
+
+        mAdapter.toggleChecked(position);
+        if (mRecyclerAdapter != null){
+            mRecyclerAdapter.notifyCheckedStateChanged();
+        } else {
+            mAdapter.updateCheckedViews(mListView);
+        }
+
+        updatePosButton();
+
+        if (mAdapter.getCheckedItemCount() > 0 &&
+                getArgs().getInt(CHOICE_MODE) == SINGLE_CHOICE_DIRECT){
+            pressPositiveButton();
+        }
+    }
+
+    private void updateEmptyView(View emptyView){
+        emptyView.setVisibility(mRecyclerAdapter.getItemCount() == 0 ? View.VISIBLE : View.GONE);
+    }
+
+    /**
+     * @return true if the items are displayed in a grid, see {@link #grid}
+     */
+    protected boolean isGrid(){
+        return getArgs().containsKey(GRID);
+    }
+
+    /**
+     * @return the list view or null if {@link #recyclerView} is enabled
+     */
     protected AbsListView getListView(){
         return mListView;
     }
 
+    /**
+     * @return the recycler view or null if {@link #recyclerView} is not enabled
+     */
+    protected RecyclerView getRecyclerView(){
+        return mRecyclerView;
+    }
+
     protected void notifyDataSetChanged(){
         mAdapter.notifyDataSetChanged();
     }
@@ -472,25 +621,26 @@ public abstract class CustomListDialog<This extends CustomListDialog<This>>
     @Override
     protected Bundle onResult(int which) {
         Bundle result = new Bundle();
-        ArrayList<Integer> checked = mAdapter.getCheckedItemOriginalPositions();
-        ArrayList<Long> checkedIds = mAdapter.getCheckedItemIds();
+        int[] checked = mAdapter.getCheckedItemOriginalPositionsPacked();
+        long[] checkedIds = mAdapter.getCheckedItemIdArray();
 
         if (getArgs().getInt(CHOICE_MODE) != NO_CHOICE) {
-            result.putIntegerArrayList(SELECTED_POSITIONS, checked);
-            long[] checkedIdsArray = new long[checkedIds.size()];
-            for (int i = 0; i < checkedIdsArray.length; i++) {
-                checkedIdsArray[i] = checkedIds.get(i);
+            if (getArgs().getBoolean(PACKED_RESULT)){
+                result.putIntArray(SELECTED_POSITIONS_PACKED, checked);
+            } else {
+                result.putIntegerArrayList(SELECTED_POSITIONS, mAdapter.getCheckedItemOriginalPositions());
             }
-            result.putLongArray(SELECTED_IDS, checkedIdsArray);
+            result.putLongArray(SELECTED_IDS, checkedIds);
 
         }
         if (getArgs().getInt(CHOICE_MODE) == SINGLE_CHOICE
                 || getArgs().getInt(CHOICE_MODE) == SINGLE_CHOICE_DIRECT) {
-            if (checked.size() >= 1){
-                result.putInt(SELECTED_SINGLE_POSITION, checked.get(0));
+            int first = SelectionCodec.first(checked);
+            if (first >= 0){
+                result.putInt(SELECTED_SINGLE_POSITION, first);
             }
-            if (checkedIds.size() >= 1){
-                result.putLong(SELECTED_SINGLE_ID, checkedIds.get(0));
+            if (checkedIds.length >= 1){
+                result.putLong(SELECTED_SINGLE_ID, checkedIds[0]);
             }
         }
         return result;
@@ -499,7 +649,7 @@ public abstract class CustomListDialog<This extends CustomListDialog<This>>
 
     @Override
     public void onSaveInstanceState(Bundle outState) {
-        outState.putIntegerArrayList(SELECTED_POSITIONS, mAdapter.getCheckedItemOriginalPositions());
+        mAdapter.saveCheckStates(outState, CHECK_STATES);
         super.onSaveInstanceState(outState);
     }
 }
@@ -0,0 +1,116 @@
+/*
+ *  Copyright 2026 Philipp Niedermayer (github.com/eltos)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package eltos.simpledialogfragment.list;
+
+import java.util.Arrays;
+
+/**
+ * An immutable id to position index based on an open-addressing hash table with
+ * primitive long keys and linear probing.
+ * <p>
+ * If an id occurs more than once, the first position is indexed and further positions
+ * are chained, see {@link IdIndex#nextPositionOf}.
+ */
+final class IdIndex {
+
+    static final int NOT_FOUND = -1;
+
+    private final long[] mKeys;
+    private final int[] mPositions;
+    private final int mMask;
+    // next position with the same id by position, only allocated if there are duplicates
+    private int[] mNext = null;
+    private int mDuplicateCount = 0;
+
+    /**
+     * Builds the index for the given ids, where the position of each id is its array index
+     *
+     * @param ids the ids to index
+     */
+    IdIndex(long[] ids){
+        int capacity = 4;
+        while (capacity < ids.length * 2) { // load factor <= 0.5
+            capacity <<= 1;
+        }
+        mKeys = new long[capacity];
+        mPositions = new int[capacity];
+        mMask = capacity - 1;
+        Arrays.fill(mPositions, NOT_FOUND);
+
+        int[] tails = new int[capacity]; // last chained position by slot
+        for (int i = 0; i < ids.length; i++) {
+            int slot = slot(ids[i]);
+            while (mPositions[slot] != NOT_FOUND && mKeys[slot] != ids[i]) {
+                slot = (slot + 1) & mMask;
+            }
+            if (mPositions[slot] == NOT_FOUND){
+                mKeys[slot] = ids[i];
+                mPositions[slot] = i;
+                tails[slot] = i;
+            } else {
+                if (mNext == null){
+                    mNext = new int[ids.length];
+                    Arrays.fill(mNext, NOT_FOUND);
+                }
+                mNext[tails[slot]] = i;
+                tails[slot] = i;
+                mDuplicateCount++;
+            }
+        }
+    }
+
+    private int slot(long key){
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mMask;
+    }
+
+    /**
+     * Looks up the position of an id
+     *
+     * @param id the id to search for
+     * @return the (first) position of the id or {@link IdIndex#NOT_FOUND}
+     */
+    int positionOf(long id){
+        int slot = slot(id);
+        while (mPositions[slot] != NOT_FOUND) {
+            if (mKeys[slot] == id){
+                return mPositions[slot];
+            }
+            slot = (slot + 1) & mMask;
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * Looks up the next position with the same id as the given position,
+     * to iterate over all positions of a non-unique id
+     *
+     * @param position a position returned by {@link IdIndex#positionOf} or this method
+     * @return the next position with the same id or {@link IdIndex#NOT_FOUND}
+     */
+    int nextPositionOf(int position){
+        return mNext == null ? NOT_FOUND : mNext[position];
+    }
+
+    /**
+     * @return the number of positions whose id occurred before
+     */
+    int getDuplicateCount(){
+        return mDuplicateCount;
+    }
+
+}
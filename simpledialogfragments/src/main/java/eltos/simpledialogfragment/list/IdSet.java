@@ -0,0 +1,138 @@
+/*
+ *  Copyright 2026 Philipp Niedermayer (github.com/eltos)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package eltos.simpledialogfragment.list;
+
+import java.util.Arrays;
+
+/**
+ * A mutable set of ids based on an open-addressing hash table with primitive long
+ * keys and linear probing, so that ids are not boxed.
+ * <p>
+ * See {@link IdIndex} for the immutable id to position index.
+ */
+final class IdSet {
+
+    private long[] mKeys;
+    private boolean[] mUsed;
+    private int mMask;
+    private int mSize = 0;
+
+    IdSet(){
+        allocate(16);
+    }
+
+    private void allocate(int capacity){
+        mKeys = new long[capacity];
+        mUsed = new boolean[capacity];
+        mMask = capacity - 1;
+    }
+
+    private int slot(long key){
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mMask;
+    }
+
+    // the slot holding the key or the free slot where it would be inserted
+    private int find(long key){
+        int slot = slot(key);
+        while (mUsed[slot] && mKeys[slot] != key) {
+            slot = (slot + 1) & mMask;
+        }
+        return slot;
+    }
+
+    boolean contains(long id){
+        return mUsed[find(id)];
+    }
+
+    /**
+     * @param id the id to add
+     * @return true if the id was not contained before
+     */
+    boolean add(long id){
+        int slot = find(id);
+        if (mUsed[slot]) return false;
+        mKeys[slot] = id;
+        mUsed[slot] = true;
+        if (++mSize * 2 > mKeys.length){ // load factor <= 0.5
+            long[] keys = mKeys;
+            boolean[] used = mUsed;
+            allocate(keys.length * 2);
+            for (int i = 0; i < keys.length; i++) {
+                if (used[i]){
+                    int s = find(keys[i]);
+                    mKeys[s] = keys[i];
+                    mUsed[s] = true;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param id the id to remove
+     * @return true if the id was contained
+     */
+    boolean remove(long id){
+        int slot = find(id);
+        if (!mUsed[slot]) return false;
+        mUsed[slot] = false;
+        mSize--;
+        // move following keys of the probe sequence into the gap
+        int gap = slot;
+        for (int s = (slot + 1) & mMask; mUsed[s]; s = (s + 1) & mMask) {
+            int home = slot(mKeys[s]);
+            // the key can fill the gap if its home slot is not within (gap, s]
+            if (((s - home) & mMask) >= ((s - gap) & mMask)){
+                mKeys[gap] = mKeys[s];
+                mUsed[gap] = true;
+                mUsed[s] = false;
+                gap = s;
+            }
+        }
+        return true;
+    }
+
+    int size(){
+        return mSize;
+    }
+
+    boolean isEmpty(){
+        return mSize == 0;
+    }
+
+    void clear(){
+        if (mSize > 0){
+            Arrays.fill(mUsed, false);
+            mSize = 0;
+        }
+    }
+
+    /**
+     * @return the ids in no particular order
+     */
+    long[] toArray(){
+        long[] ids = new long[mSize];
+        int n = 0;
+        for (int i = 0; i < mKeys.length; i++) {
+            if (mUsed[i]){
+                ids[n++] = mKeys[i];
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ *  Copyright 2026 Philipp Niedermayer (github.com/eltos)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package eltos.simpledialogfragment.list;
+
+import android.net.Uri;
+import android.os.Parcel;
+import android.util.Log;
+
+import androidx.annotation.DrawableRes;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * A list item with a label and an image for {@link SimpleImageListDialog}.
+ * <p>
+ * The image is specified by one of a drawable resource, an uri or a
+ * {@link SimpleImageListDialog.ImageCreator} class and loaded when the item is displayed.
+ */
+public class ImageListItem extends SimpleListItem {
+
+    private static final String TAG = "ImageListItem";
+
+    private @DrawableRes int imageResource = 0;
+    private @Nullable Uri imageUri;
+    private @Nullable Class<? extends SimpleImageListDialog.ImageCreator> imageCreator;
+
+    /**
+     * @param label the label to be displayed
+     * @param id the id used to identify which items were selected
+     */
+    public ImageListItem(String label, long id){
+        super(label, id);
+    }
+
+    /**
+     * Sets the image to a drawable resource
+     *
+     * @param resourceId the android resource id of the drawable
+     * @return this instance
+     */
+    public ImageListItem image(@DrawableRes int resourceId){
+        imageResource = resourceId;
+        imageUri = null;
+        imageCreator = null;
+        return this;
+    }
+
+    /**
+     * Sets the image to an uri, e.g. a content uri
+     *
+     * @param uri Uri of the image
+     * @return this instance
+     */
+    public ImageListItem image(@NonNull Uri uri){
+        imageResource = 0;
+        imageUri = uri;
+        imageCreator = null;
+        return this;
+    }
+
+    /**
+     * Sets a Creator that can be used to create the image.
+     *
+     * @param creatorClass A class implementing {@link SimpleImageListDialog.ImageCreator}
+     * @return this instance
+     */
+    public ImageListItem image(@NonNull Class<? extends SimpleImageListDialog.ImageCreator> creatorClass){
+        imageResource = 0;
+        imageUri = null;
+        imageCreator = creatorClass;
+        return this;
+    }
+
+    @DrawableRes
+    public int getImageResource() {
+        return imageResource;
+    }
+
+    @Nullable
+    public Uri getImageUri() {
+        return imageUri;
+    }
+
+    @Nullable
+    public Class<? extends SimpleImageListDialog.ImageCreator> getImageCreator() {
+        return imageCreator;
+    }
+
+
+    private ImageListItem(Parcel in) {
+        super(in.readString(), in.readLong());
+        imageResource = in.readInt();
+        imageUri = in.readParcelable(Uri.class.getClassLoader());
+        String creator = in.readString();
+        if (creator != null){
+            imageCreator = findCreator(creator);
+        }
+    }
+
+    @Nullable
+    static Class<? extends SimpleImageListDialog.ImageCreator> findCreator(@NonNull String name){
+        try {
+            return Class.forName(name, false, ImageListItem.class.getClassLoader())
+                    .asSubclass(SimpleImageListDialog.ImageCreator.class);
+        } catch (ClassNotFoundException | ClassCastException e) {
+            Log.e(TAG, "Image creator " + name + " not found", e);
+            return null;
+        }
+    }
+    @Override
+    public void writeToParcel(Parcel dest, int flags) {
+        dest.writeString(getString());
+        dest.writeLong(getId());
+        dest.writeInt(imageResource);
+        dest.writeParcelable(imageUri, flags);
+        dest.writeString(imageCreator != null ? imageCreator.getName() : null);
+    }
+    public static final Creator<ImageListItem> CREATOR = new Creator<ImageListItem>() {
+        @Override
+        public ImageListItem createFromParcel(Parcel in) {
+            return new ImageListItem(in);
+        }
+
+        @Override
+        public ImageListItem[] newArray(int size) {
+            return new ImageListItem[size];
+        }
+    };
+}
@@ -0,0 +1,328 @@
+/*
+ *  Copyright 2026 Philipp Niedermayer (github.com/eltos)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package eltos.simpledialogfragment.list;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.drawable.Drawable;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.util.LruCache;
+import android.view.View;
+import android.widget.ImageView;
+
+import androidx.annotation.DrawableRes;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.appcompat.content.res.AppCompatResources;
+
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.concurrent.Executor;
+
+import eltos.simpledialogfragment.R;
+
+/**
+ * Loads images into the ImageViews of list rows or grid cells.
+ * <p>
+ * Images are decoded on a background executor at the size of the view, so that large
+ * images are subsampled rather than decoded at full size. Loading another image into
+ * the same view, e.g. when it is recycled, cancels the previous load. Decoded images
+ * are kept in a memory cache bounded by size and shared by all loaders.
+ */
+class ImageLoader {
+
+    private static final String TAG = "ImageLoader";
+
+    interface Source {
+        /**
+         * @return a key uniquely identifying the image, used for caching
+         */
+        @NonNull String getKey();
+
+        /**
+         * Decodes the image. This method is called from a background thread.
+         *
+         * @param context the application context
+         * @param width the width of the view
+         * @param height the height of the view
+         * @return the image, at least as large as width and height if possible, or null
+         * @throws Exception if decoding failed
+         */
+        @Nullable Bitmap decode(@NonNull Context context, int width, int height) throws Exception;
+    }
+
+    private static LruCache<String, Bitmap> sCache;
+
+    /**
+     * The memory cache shared by all loaders, using an eighth of the available memory
+     */
+    @NonNull
+    static synchronized LruCache<String, Bitmap> getCache(){
+        if (sCache == null){
+            int maxKb = (int) (Runtime.getRuntime().maxMemory() / 1024 / 8);
+            sCache = new LruCache<String, Bitmap>(maxKb) {
+                @Override
+                protected int sizeOf(String key, Bitmap bitmap) {
+                    return Math.max(1, bitmap.getByteCount() / 1024);
+                }
+            };
+        }
+        return sCache;
+    }
+
+    private final Context mContext;
+    private final Executor mExecutor;
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private final HashSet<Task> mTasks = new HashSet<>();
+
+    /**
+     * @param context a context
+     * @param executor the executor to decode images on
+     */
+    ImageLoader(@NonNull Context context, @NonNull Executor executor){
+        mContext = context.getApplicationContext();
+        mExecutor = executor;
+    }
+
+    /**
+     * Displays an image, cancelling any load previously started for the view.
+     * Must be called from the main thread.
+     *
+     * @param view the view
+     * @param source the image or null to clear the view
+     */
+    void load(@NonNull ImageView view, @Nullable Source source){
+        cancel(view);
+        if (source == null){
+            view.setImageDrawable(null);
+            return;
+        }
+
+        int width = getTargetSize(view.getWidth(), view.getLayoutParams() != null ? view.getLayoutParams().width : 0);
+        int height = getTargetSize(view.getHeight(), view.getLayoutParams() != null ? view.getLayoutParams().height : 0);
+        if (width > 0 && height > 0){
+            Bitmap cached = getCache().get(getCacheKey(source, width, height));
+            if (cached != null){
+                view.setImageBitmap(cached);
+                return;
+            }
+        }
+
+        view.setImageDrawable(null);
+        Task task = new Task(view, source);
+        view.setTag(R.id.image, task);
+        mTasks.add(task);
+        if (width > 0 && height > 0){
+            task.start(width, height);
+        } else {
+            // wait until the cell is measured
+            view.addOnLayoutChangeListener(task);
+        }
+    }
+
+    /**
+     * Cancels the load started for the view, if any
+     *
+     * @param view the view
+     */
+    void cancel(@NonNull ImageView view){
+        Object tag = view.getTag(R.id.image);
+        if (tag instanceof Task){
+            ((Task) tag).cancel();
+        }
+    }
+
+    /**
+     * Cancels all loads, e.g. when the views are destroyed
+     */
+    void cancelAll(){
+        for (Task task : new ArrayList<>(mTasks)) {
+            task.cancel();
+        }
+    }
+
+    private static int getTargetSize(int size, int layoutSize){
+        return size > 0 ? size : layoutSize > 0 ? layoutSize : 0;
+    }
+
+    private static String getCacheKey(Source source, int width, int height){
+        return source.getKey() + "@" + width + "x" + height;
+    }
+
+
+    private class Task implements Runnable, View.OnLayoutChangeListener {
+        private final WeakReference<ImageView> mView;
+        private final Source mSource;
+        private volatile boolean mCancelled = false;
+        private int mWidth, mHeight;
+
+        Task(ImageView view, Source source){
+            mView = new WeakReference<>(view);
+            mSource = source;
+        }
+
+        void start(int width, int height){
+            mWidth = width;
+            mHeight = height;
+            mExecutor.execute(this);
+        }
+
+        void cancel(){
+            mCancelled = true;
+            mTasks.remove(this);
+            ImageView view = mView.get();
+            if (view != null){
+                view.removeOnLayoutChangeListener(this);
+                if (view.getTag(R.id.image) == this){
+                    view.setTag(R.id.image, null);
+                }
+            }
+        }
+
+        @Override
+        public void onLayoutChange(View v, int left, int top, int right, int bottom,
+                                   int oldLeft, int oldTop, int oldRight, int oldBottom) {
+            if (right - left > 0 && bottom - top > 0){
+                v.removeOnLayoutChangeListener(this);
+                if (!mCancelled){
+                    start(right - left, bottom - top);
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            // skip views recycled while waiting on the executor
+            if (mCancelled || mView.get() == null) return;
+
+            String key = getCacheKey(mSource, mWidth, mHeight);
+            Bitmap bitmap = getCache().get(key);
+            if (bitmap == null){
+                try {
+                    bitmap = mSource.decode(mContext, mWidth, mHeight);
+                } catch (Exception e) {
+                    Log.e(TAG, "Loading image " + mSource.getKey() + " failed", e);
+                }
+                if (bitmap != null){
+                    getCache().put(key, bitmap);
+                }
+            }
+
+            final Bitmap result = bitmap;
+            mHandler.post(() -> {
+                if (mCancelled) return;
+                ImageView view = mView.get();
+                mTasks.remove(this);
+                if (view != null && view.getTag(R.id.image) == this){
+                    view.setTag(R.id.image, null);
+                    view.setImageBitmap(result);
+                }
+            });
+        }
+    }
+
+
+    /**
+     * A drawable resource, which may also be a vector drawable
+     *
+     * @param resId the resource id
+     * @return the source
+     */
+    @NonNull
+    static Source resource(@DrawableRes final int resId){
+        return new Source() {
+            @NonNull
+            @Override
+            public String getKey() {
+                return "res:" + resId;
+            }
+
+            @Override
+            public Bitmap decode(@NonNull Context context, int width, int height) {
+                BitmapFactory.Options options = new BitmapFactory.Options();
+                options.inJustDecodeBounds = true;
+                BitmapFactory.decodeResource(context.getResources(), resId, options);
+                if (options.outWidth > 0 && options.outHeight > 0){
+                    options.inSampleSize = getSampleSize(options, width, height);
+                    options.inJustDecodeBounds = false;
+                    return BitmapFactory.decodeResource(context.getResources(), resId, options);
+                }
+                // not a bitmap, e.g. a vector drawable
+                Drawable drawable = AppCompatResources.getDrawable(context, resId);
+                return drawable != null ? render(drawable, width, height) : null;
+            }
+        };
+    }
+
+    /**
+     * An image referenced by uri, e.g. a content uri or a file uri
+     *
+     * @param uri the uri
+     * @return the source
+     */
+    @NonNull
+    static Source uri(@NonNull final Uri uri){
+        return new Source() {
+            @NonNull
+            @Override
+            public String getKey() {
+                return "uri:" + uri;
+            }
+
+            @Override
+            public Bitmap decode(@NonNull Context context, int width, int height) throws Exception {
+                BitmapFactory.Options options = new BitmapFactory.Options();
+                options.inJustDecodeBounds = true;
+                try (InputStream in = context.getContentResolver().openInputStream(uri)) {
+                    BitmapFactory.decodeStream(in, null, options);
+                }
+                options.inSampleSize = getSampleSize(options, width, height);
+                options.inJustDecodeBounds = false;
+                try (InputStream in = context.getContentResolver().openInputStream(uri)) {
+                    return BitmapFactory.decodeStream(in, null, options);
+                }
+            }
+        };
+    }
+
+    /**
+     * @return the largest power of two keeping the image at least as large as width and height
+     */
+    static int getSampleSize(@NonNull BitmapFactory.Options bounds, int width, int height){
+        int sampleSize = 1;
+        while (bounds.outWidth / (sampleSize * 2) >= width
+                && bounds.outHeight / (sampleSize * 2) >= height){
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    @NonNull
+    private static Bitmap render(@NonNull Drawable drawable, int width, int height){
+        Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        drawable.setBounds(0, 0, width, height);
+        drawable.draw(new Canvas(bitmap));
+        return bitmap;
+    }
+}
@@ -0,0 +1,440 @@
+/*
+ *  Copyright 2026 Philipp Niedermayer (github.com/eltos)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package eltos.simpledialogfragment.list;
+
+import android.database.DataSetObserver;
+import android.os.AsyncTask;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import eltos.simpledialogfragment.R;
+
+/**
+ * An AdvancedAdapter that loads its data page by page from a {@link PageSource}.
+ * <p>
+ * The next page is requested in the background as soon as the list is scrolled near
+ * its end, while a loading row is shown at the end of the list. Filter constraints are
+ * forwarded to the source rather than being matched locally.
+ * <p>
+ * Loading starts when the adapter is attached to a list or when {@link PagedAdapter#start}
+ * is called. When extending this class, overwrite {@link PagedAdapter#getItemView} instead of
+ * {@link PagedAdapter#getView}. Check states are kept by id, even for items that are
+ * not loaded for the current constraint. Item positions, however, only refer to the
+ * currently loaded items.
+ */
+public abstract class PagedAdapter<T> extends AdvancedAdapter<T> {
+
+    private static final String TAG = "PagedAdapter";
+
+    /**
+     * The default number of items per page
+     */
+    public static final int DEFAULT_PAGE_SIZE = 50;
+
+    // load the next page if the list is scrolled that close to the loading row
+    private static final int PREFETCH_DISTANCE = 10;
+
+    public interface PageSource<T> {
+        /**
+         * Loads a page of items. This method is called from a background thread.
+         *
+         * @param constraint the current filter constraint or null
+         * @param offset the number of items already loaded for this constraint
+         * @param pageSize the number of items requested
+         * @return the items, less than pageSize if there are no more items
+         * @throws Exception if loading failed
+         */
+        @NonNull List<T> loadPage(@Nullable String constraint, int offset, int pageSize) throws Exception;
+    }
+
+    private final PageSource<T> mSource;
+    private final ItemIdentifier<T> mIdentifier;
+    private final int mPageSize;
+    private final Executor mExecutor;
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+    private @Nullable String mConstraint;
+    private boolean mStarted = false;
+    private int mGeneration = 0;
+    private boolean mLoading = false;
+    private boolean mLoadRequested = false;
+    private boolean mHasMore = true;
+    // ids checked, but not loaded for the current constraint
+    private final IdSet mPendingCheckedIds = new IdSet();
+    // positions checked, but not loaded yet
+    private @Nullable BitSet mPendingPositions;
+
+    private final AdvancedFilter mFilter = new AdvancedFilter() {
+        @Override
+        protected boolean matches(T object, @NonNull CharSequence constraint) {
+            return true;
+        }
+
+        @Override
+        protected FilterResults performFiltering(@Nullable CharSequence constraint) {
+            return null; // forwarded to the source in publishResults
+        }
+
+        @Override
+        protected void publishResults(CharSequence constraint, @Nullable FilterResults results) {
+            String c = constraint != null && constraint.length() > 0 ? constraint.toString() : null;
+            if (c == null ? mConstraint != null : !c.equals(mConstraint)){
+                load(c);
+            }
+        }
+    };
+
+    /**
+     * Creates a paged adapter with {@link PagedAdapter#DEFAULT_PAGE_SIZE} that loads
+     * pages on {@link AsyncTask#THREAD_POOL_EXECUTOR}.
+     *
+     * @param source the source to load pages from
+     * @param identifier an Identifier returning a unique id for every item
+     */
+    public PagedAdapter(@NonNull PageSource<T> source, @NonNull ItemIdentifier<T> identifier){
+        this(source, identifier, DEFAULT_PAGE_SIZE, AsyncTask.THREAD_POOL_EXECUTOR);
+    }
+
+    /**
+     * Creates a paged adapter
+     *
+     * @param source the source to load pages from
+     * @param identifier an Identifier returning a unique id for every item
+     * @param pageSize the number of items per page
+     * @param executor the executor to load pages on
+     */
+    public PagedAdapter(@NonNull PageSource<T> source, @NonNull ItemIdentifier<T> identifier,
+                        int pageSize, @NonNull Executor executor){
+        mSource = source;
+        mIdentifier = identifier;
+        mPageSize = Math.max(1, pageSize);
+        mExecutor = executor;
+    }
+
+    /**
+     * Starts loading the first page, unless already started.
+     * This is called automatically when the adapter is attached to a list.
+     */
+    public void start(){
+        if (!mStarted){
+            load(mConstraint);
+        }
+    }
+
+    @Override
+    public void registerDataSetObserver(DataSetObserver observer) {
+        super.registerDataSetObserver(observer);
+        if (!mStarted){
+            // not while the list is being attached
+            mHandler.post(this::start);
+        }
+    }
+
+    /**
+     * Discards all loaded pages and starts loading again, e.g. after an error
+     */
+    public void reload(){
+        load(mConstraint);
+    }
+
+    /**
+     * @return true if a page is currently being loaded
+     */
+    public boolean isLoading(){
+        return mLoading;
+    }
+
+    private void load(@Nullable String constraint){
+        if (constraint == null ? mConstraint != null : !constraint.equals(mConstraint)){
+            mPendingPositions = null; // positions refer to another constraint
+        }
+        mStarted = true;
+        mGeneration++;
+        mConstraint = constraint;
+        mLoading = false;
+        mHasMore = true;
+        for (long id : super.getCheckedItemIdArray()) {
+            mPendingCheckedIds.add(id);
+        }
+        setData(new ArrayList<T>(0), mIdentifier);
+        loadNextPage();
+    }
+
+    private void loadNextPage(){
+        mLoadRequested = false;
+        if (!mStarted){
+            start();
+            return;
+        }
+        if (mLoading || !mHasMore) return;
+        mLoading = true;
+
+        final int generation = mGeneration;
+        final String constraint = mConstraint;
+        final int offset = getDataSize();
+        mExecutor.execute(() -> {
+            List<T> page = null;
+            Exception error = null;
+            try {
+                page = mSource.loadPage(constraint, offset, mPageSize);
+            } catch (Exception e) {
+                error = e;
+            }
+            final List<T> result = page;
+            final Exception failure = error;
+            mHandler.post(() -> onPageLoaded(generation, result, failure));
+        });
+    }
+
+    private void onPageLoaded(int generation, @Nullable List<T> page, @Nullable Exception error){
+        if (generation != mGeneration) return; // constraint changed meanwhile
+        mLoading = false;
+        if (page == null){
+            Log.e(TAG, "Loading page failed", error);
+            mHasMore = false;
+            notifyDataSetChanged();
+            return;
+        }
+        mHasMore = page.size() >= mPageSize;
+        int offset = getDataSize();
+        appendData(new ArrayList<>(page), mIdentifier);
+
+        // restore check states of items checked before
+        boolean restored = false;
+        BitSet positions = mPendingPositions;
+        int first = positions != null ? positions.nextSetBit(offset) : -1;
+        if (first >= 0 && first < getDataSize()){
+            int[] loaded = new int[positions.get(first, getDataSize()).cardinality()];
+            int n = 0;
+            for (int i = first; i >= 0 && i < getDataSize(); i = positions.nextSetBit(i + 1)) {
+                loaded[n++] = i;
+            }
+            positions.clear(first, getDataSize());
+            if (positions.isEmpty()){
+                mPendingPositions = null;
+            }
+            super.setOriginalPositionsChecked(loaded);
+            restored = true;
+        }
+        for (long id : mPendingCheckedIds.toArray()) {
+            if (containsId(id)){
+                mPendingCheckedIds.remove(id);
+                super.setItemChecked(id, true);
+                restored = true;
+            }
+        }
+        if (restored){
+            notifyDataSetChanged();
+        }
+    }
+
+    private boolean isLoadingRow(int position){
+        return mHasMore && position == super.getCount();
+    }
+
+    @Override
+    protected void filterItems() {
+        // filtering is done by the source, only refresh the views
+        notifyDataSetChanged();
+    }
+
+    @Override
+    public AdvancedFilter getFilter() {
+        return mFilter;
+    }
+
+    @Override
+    boolean supportsDiffing() {
+        return false; // the loading row is not part of the data
+    }
+
+    @Override
+    public int getCount() {
+        return super.getCount() + (mHasMore ? 1 : 0);
+    }
+
+    @Override
+    public T getItem(int position) {
+        return isLoadingRow(position) ? null : super.getItem(position);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return isLoadingRow(position) ? -1 : super.getItemId(position);
+    }
+
+    @Override
+    public boolean hasStableIds() {
+        return true;
+    }
+
+    @Override
+    public int getViewTypeCount() {
+        return super.getViewTypeCount() + 1;
+    }
+
+    /**
+     * Subclasses using multiple view types must overwrite {@link PagedAdapter#getViewTypeCount}
+     * and this method and call through to super for positions handled here
+     */
+    @Override
+    public int getItemViewType(int position) {
+        return isLoadingRow(position) ? getViewTypeCount() - 1 : super.getItemViewType(position);
+    }
+
+    @Override
+    public boolean areAllItemsEnabled() {
+        return false;
+    }
+
+    @Override
+    public boolean isEnabled(int position) {
+        return !isLoadingRow(position);
+    }
+
+    @Override
+    public View getView(int position, View convertView, ViewGroup parent) {
+        if (mHasMore && position >= super.getCount() - PREFETCH_DISTANCE && !mLoadRequested){
+            // not while the list is laid out
+            mLoadRequested = true;
+            mHandler.post(this::loadNextPage);
+        }
+        if (isLoadingRow(position)){
+            if (convertView == null){
+                convertView = LayoutInflater.from(parent.getContext()).inflate(
+                        R.layout.simpledialogfragment_list_item_loading, parent, false);
+            }
+            return convertView;
+        }
+        return super.getView(position, getItemView(position, convertView, parent), parent);
+    }
+
+    /**
+     * Overwrite this method to return the view for a loaded item,
+     * see {@link android.widget.Adapter#getView}
+     *
+     * @param position the position of the item
+     * @param convertView the old view to reuse, if possible
+     * @param parent the parent that this view will eventually be attached to
+     * @return a view corresponding to the data at the specified position
+     */
+    protected abstract View getItemView(int position, View convertView, ViewGroup parent);
+
+
+    @Override
+    void setOriginalPositionsChecked(@NonNull int[] originalPositions) {
+        super.setOriginalPositionsChecked(originalPositions);
+        // items not loaded yet are checked once loaded
+        int size = getDataSize();
+        for (int position : originalPositions) {
+            if (position < size || getChoiceMode() == CHOICE_MODE_NONE) continue;
+            if (getChoiceMode() == CHOICE_MODE_SINGLE){
+                setAllItemsChecked(false);
+            }
+            if (mPendingPositions == null){
+                mPendingPositions = new BitSet();
+            }
+            mPendingPositions.set(position);
+        }
+    }
+
+    @Override
+    public void setAllItemsChecked(boolean checked) {
+        if (!checked){
+            mPendingCheckedIds.clear();
+            mPendingPositions = null;
+        }
+        super.setAllItemsChecked(checked);
+    }
+
+    @Override
+    public void setItemChecked(long id, boolean checked) {
+        super.setItemChecked(id, checked);
+        if (getChoiceMode() != CHOICE_MODE_NONE && !containsId(id)){
+            if (checked){
+                mPendingCheckedIds.add(id);
+            } else {
+                mPendingCheckedIds.remove(id);
+            }
+        }
+    }
+
+    @Override
+    public void setItemsCheckedFromIds(ArrayList<Long> checkedItemIds) {
+        super.setItemsCheckedFromIds(checkedItemIds);
+        mPendingPositions = null;
+        mPendingCheckedIds.clear();
+        for (Long id : checkedItemIds) {
+            if (id != null && !containsId(id)){
+                mPendingCheckedIds.add(id);
+            }
+        }
+    }
+
+    @Override
+    void saveCheckStates(@NonNull Bundle outState, @NonNull String key) {
+        // positions are meaningless before the pages are loaded again
+        outState.putLongArray(key, getCheckedItemIdArray());
+    }
+
+    @Override
+    void restoreCheckStates(@NonNull Bundle savedState, @NonNull String key) {
+        long[] ids = savedState.getLongArray(key);
+        if (ids != null){
+            setItemsCheckedFromIds(ids);
+        }
+    }
+
+    @Override
+    public int getCheckedItemCount() {
+        BitSet positions = mPendingPositions;
+        return super.getCheckedItemCount() + mPendingCheckedIds.size() +
+                (positions != null ? positions.cardinality() : 0);
+    }
+
+    @Override
+    public ArrayList<Long> getCheckedItemIds() {
+        ArrayList<Long> ids = super.getCheckedItemIds();
+        for (long id : mPendingCheckedIds.toArray()) {
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    @Override
+    public long[] getCheckedItemIdArray() {
+        long[] loaded = super.getCheckedItemIdArray();
+        long[] pending = mPendingCheckedIds.toArray();
+        long[] ids = Arrays.copyOf(loaded, loaded.length + pending.length);
+        System.arraycopy(pending, 0, ids, loaded.length, pending.length);
+        return ids;
+    }
+}
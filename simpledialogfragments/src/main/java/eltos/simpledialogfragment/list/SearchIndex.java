@@ -0,0 +1,253 @@
+/*
+ *  Copyright 2026 Philipp Niedermayer (github.com/eltos)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package eltos.simpledialogfragment.list;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * A search index over the texts of a data set.
+ * <p>
+ * All texts are normalized once upon creation (diacritics are removed and, optionally,
+ * the case is folded) and stored in a single char array alongside the offsets of all
+ * word boundaries. Queries normalized with {@link SearchIndex#fold} can then be matched
+ * with plain char comparisons, without any regular expressions involved.
+ * <p>
+ * Match offsets refer to the normalized text and can be translated back to the
+ * original text with {@link SearchIndex#matchRanges}.
+ */
+final class SearchIndex {
+
+    private final char[] mChars;
+    private final int[] mTextStart;     // n+1 offsets into mChars
+    private final int[] mBoundaries;    // word boundary offsets into mChars
+    private final int[] mBoundaryStart; // n+1 offsets into mBoundaries
+    private final BitSet mIndexed;
+    private final CharSequence[] mTexts;
+    // offsets into the original text per normalized char, null where normalization is 1:1
+    private final int[][] mSourceOffsets;
+
+    /**
+     * Builds an index for the given texts
+     *
+     * @param texts the searchable texts. Items with null text are not indexed.
+     * @param ignoreCase whether to fold the case
+     */
+    SearchIndex(@NonNull CharSequence[] texts, boolean ignoreCase){
+        mTextStart = new int[texts.length + 1];
+        mBoundaryStart = new int[texts.length + 1];
+        mIndexed = new BitSet(texts.length);
+        mTexts = texts;
+        mSourceOffsets = new int[texts.length][];
+
+        StringBuilder chars = new StringBuilder();
+        int[] boundaries = new int[16];
+        int boundaryCount = 0;
+        int[] sourceOffsets = new int[16];
+
+        for (int i = 0; i < texts.length; i++) {
+            int start = chars.length();
+            mTextStart[i] = start;
+            mBoundaryStart[i] = boundaryCount;
+            if (texts[i] == null) continue;
+            mIndexed.set(i);
+
+            CharSequence text = texts[i];
+            boolean identity = true;
+            for (int s = 0; s < text.length(); s++) {
+                int produced = fold(text.charAt(s), ignoreCase, chars);
+                identity &= produced == 1;
+                int length = chars.length() - start;
+                if (length > sourceOffsets.length){
+                    sourceOffsets = Arrays.copyOf(sourceOffsets, Math.max(length, sourceOffsets.length * 2));
+                }
+                for (int k = length - produced; k < length; k++) {
+                    sourceOffsets[k] = s;
+                }
+            }
+            if (!identity){
+                mSourceOffsets[i] = Arrays.copyOf(sourceOffsets, chars.length() - start);
+            }
+
+            boolean previousIsWord = false;
+            for (int j = start; j < chars.length(); j++) {
+                boolean isWord = isWordChar(chars.charAt(j));
+                if (isWord != previousIsWord){
+                    if (boundaryCount == boundaries.length){
+                        boundaries = Arrays.copyOf(boundaries, boundaryCount * 2);
+                    }
+                    boundaries[boundaryCount++] = j;
+                }
+                previousIsWord = isWord;
+            }
+        }
+        mTextStart[texts.length] = chars.length();
+        mBoundaryStart[texts.length] = boundaryCount;
+
+        mChars = new char[chars.length()];
+        chars.getChars(0, chars.length(), mChars, 0);
+        mBoundaries = Arrays.copyOf(boundaries, boundaryCount);
+    }
+
+    /**
+     * @return true if the texts of all items are indexed
+     */
+    boolean isComplete(){
+        return mIndexed.cardinality() == mTexts.length;
+    }
+
+    /**
+     * @param item the item position
+     * @return true if the text of this item is indexed, false if it was null
+     */
+    boolean isIndexed(int item){
+        return mIndexed.get(item);
+    }
+
+    /**
+     * @param item the item position
+     * @return the original text of this item or null if it is not indexed
+     */
+    @Nullable
+    CharSequence textOf(int item){
+        return mTexts[item];
+    }
+
+    /**
+     * Searches the items text for the query
+     *
+     * @param item the item position
+     * @param query a query normalized with {@link SearchIndex#fold}
+     * @param wordBeginning whether matches are only allowed at word boundaries
+     * @param fromOffset the offset into the normalized text to start searching at
+     * @return the offset of the first match in the normalized text or -1 if not found
+     */
+    int indexOf(int item, @NonNull char[] query, boolean wordBeginning, int fromOffset){
+        int from = mTextStart[item] + Math.max(0, fromOffset);
+        int last = mTextStart[item + 1] - query.length;
+        if (wordBeginning){
+            for (int k = mBoundaryStart[item]; k < mBoundaryStart[item + 1]; k++) {
+                int p = mBoundaries[k];
+                if (p < from) continue;
+                if (p > last) break;
+                if (regionMatches(p, query)) return p - mTextStart[item];
+            }
+        } else {
+            for (int p = from; p <= last; p++) {
+                if (regionMatches(p, query)) return p - mTextStart[item];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds all non-overlapping matches of the query and translates them to ranges
+     * in the original text
+     *
+     * @param item the item position
+     * @param query a query normalized with {@link SearchIndex#fold}
+     * @param wordBeginning whether matches are only allowed at word boundaries
+     * @param fromOffset the offset into the normalized text to start searching at,
+     *                   e.g. the offset of a previously found first match
+     * @return pairs of start (inclusive) and end (exclusive) offsets into the original text
+     */
+    @NonNull
+    int[] matchRanges(int item, @NonNull char[] query, boolean wordBeginning, int fromOffset){
+        if (query.length == 0) return new int[0];
+        int[] ranges = new int[4];
+        int count = 0;
+        int p = indexOf(item, query, wordBeginning, fromOffset);
+        while (p >= 0) {
+            if (count + 2 > ranges.length){
+                ranges = Arrays.copyOf(ranges, ranges.length * 2);
+            }
+            int end = p + query.length;
+            ranges[count++] = sourceOffset(item, p);
+            // a char decomposed into several chars is included if partially matched
+            ranges[count++] = Math.max(sourceOffset(item, end), sourceOffset(item, end - 1) + 1);
+            p = indexOf(item, query, wordBeginning, p + query.length);
+        }
+        return Arrays.copyOf(ranges, count);
+    }
+
+    // translates an offset into the normalized text to an offset into the original text
+    private int sourceOffset(int item, int offset){
+        int[] sourceOffsets = mSourceOffsets[item];
+        if (sourceOffsets == null) return offset;
+        // the end of the text includes any trailing chars dropped by normalization
+        return offset < sourceOffsets.length ? sourceOffsets[offset] : mTexts[item].length();
+    }
+
+    private boolean regionMatches(int offset, char[] query){
+        for (int i = 0; i < query.length; i++) {
+            if (mChars[offset + i] != query[i]) return false;
+        }
+        return true;
+    }
+
+
+    /**
+     * Normalizes a query the same way the indexed texts are normalized
+     *
+     * @param text the text to normalize
+     * @param ignoreCase whether to fold the case
+     * @return the normalized text
+     */
+    static char[] fold(@Nullable CharSequence text, boolean ignoreCase){
+        if (text == null) return new char[0];
+        StringBuilder out = new StringBuilder(text.length());
+        fold(text, ignoreCase, out);
+        char[] chars = new char[out.length()];
+        out.getChars(0, out.length(), chars, 0);
+        return chars;
+    }
+
+    private static void fold(CharSequence text, boolean ignoreCase, StringBuilder out){
+        for (int i = 0; i < text.length(); i++) {
+            fold(text.charAt(i), ignoreCase, out);
+        }
+    }
+
+    // appends the normalized char and returns the number of chars appended
+    private static int fold(char c, boolean ignoreCase, StringBuilder out){
+        if (c < 0x80){
+            // fast path for ASCII
+            out.append(ignoreCase && c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c);
+            return 1;
+        }
+        // decompose and strip combining marks, e.g. "é" -> "e"
+        int produced = 0;
+        String decomposed = Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD);
+        for (int j = 0; j < decomposed.length(); j++) {
+            char d = decomposed.charAt(j);
+            if (Character.getType(d) == Character.NON_SPACING_MARK) continue;
+            out.append(ignoreCase ? Character.toLowerCase(d) : d);
+            produced++;
+        }
+        return produced;
+    }
+
+    // same definition of word characters as used by the \b boundary of java.util.regex
+    private static boolean isWordChar(char c){
+        return c == '_' || Character.isLetterOrDigit(c);
+    }
+
+}
@@ -0,0 +1,154 @@
+/*
+ *  Copyright 2026 Philipp Niedermayer (github.com/eltos)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package eltos.simpledialogfragment.list;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Compact encoding of selected positions as runs of consecutive positions.
+ * <p>
+ * A selection is encoded as <b>int[]</b> <code>{start0, length0, start1, length1, ...}</code>
+ * with ascending runs, so that e.g. all items of a large list are encoded by two
+ * ints rather than a boxed Integer per item. Use {@link SelectionCodec#decode} or
+ * {@link SelectionCodec#decodePositions} to read the positions.
+ */
+@SuppressWarnings("WeakerAccess")
+public final class SelectionCodec {
+
+    private SelectionCodec(){}
+
+    /**
+     * Encodes the set bits as runs
+     *
+     * @param positions the selected positions
+     * @return the runs
+     */
+    @NonNull
+    public static int[] encode(@NonNull BitSet positions){
+        int[] runs = new int[8];
+        int n = 0;
+        int start = positions.nextSetBit(0);
+        while (start >= 0){
+            int end = positions.nextClearBit(start);
+            if (n + 2 > runs.length){
+                runs = Arrays.copyOf(runs, runs.length * 2);
+            }
+            runs[n++] = start;
+            runs[n++] = end - start;
+            start = end < Integer.MAX_VALUE ? positions.nextSetBit(end) : -1;
+        }
+        return Arrays.copyOf(runs, n);
+    }
+
+    /**
+     * Encodes the given positions as runs. Duplicates are ignored.
+     *
+     * @param positions the selected positions, in any order
+     * @return the runs
+     */
+    @NonNull
+    public static int[] encode(@NonNull int[] positions){
+        BitSet set = new BitSet();
+        for (int position : positions) {
+            set.set(position);
+        }
+        return encode(set);
+    }
+
+    /**
+     * Decodes runs into a set of positions
+     *
+     * @param runs the runs as returned by {@link SelectionCodec#encode} or null
+     * @return the positions, empty if runs is null
+     * @throws IllegalArgumentException if the runs are malformed
+     */
+    @NonNull
+    public static BitSet decode(@Nullable int[] runs){
+        BitSet positions = new BitSet();
+        if (runs == null) return positions;
+        checkRuns(runs);
+        for (int k = 0; k < runs.length; k += 2) {
+            positions.set(runs[k], runs[k] + runs[k + 1]);
+        }
+        return positions;
+    }
+
+    /**
+     * Decodes runs into an ascending array of positions
+     *
+     * @param runs the runs as returned by {@link SelectionCodec#encode} or null
+     * @return the positions, empty if runs is null
+     * @throws IllegalArgumentException if the runs are malformed
+     */
+    @NonNull
+    public static int[] decodePositions(@Nullable int[] runs){
+        int[] positions = new int[count(runs)];
+        if (runs == null) return positions;
+        int i = 0;
+        for (int k = 0; k < runs.length; k += 2) {
+            for (int p = runs[k]; p < runs[k] + runs[k + 1]; p++) {
+                positions[i++] = p;
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * @param runs the runs as returned by {@link SelectionCodec#encode} or null
+     * @return the number of positions encoded
+     * @throws IllegalArgumentException if the runs are malformed
+     */
+    public static int count(@Nullable int[] runs){
+        if (runs == null) return 0;
+        checkRuns(runs);
+        long count = 0;
+        for (int k = 1; k < runs.length; k += 2) {
+            count += runs[k];
+        }
+        if (count > Integer.MAX_VALUE){
+            throw new IllegalArgumentException("Too many positions: " + count);
+        }
+        return (int) count;
+    }
+
+    /**
+     * @param runs the runs as returned by {@link SelectionCodec#encode} or null
+     * @return the first position encoded or -1 if none
+     */
+    public static int first(@Nullable int[] runs){
+        if (runs == null) return -1;
+        for (int k = 0; k + 1 < runs.length; k += 2) {
+            if (runs[k + 1] > 0) return runs[k];
+        }
+        return -1;
+    }
+
+    private static void checkRuns(@NonNull int[] runs){
+        if (runs.length % 2 != 0){
+            throw new IllegalArgumentException("Runs must consist of start and length pairs");
+        }
+        for (int k = 0; k < runs.length; k += 2) {
+            if (runs[k] < 0 || runs[k + 1] < 0 || (long) runs[k] + runs[k + 1] > Integer.MAX_VALUE){
+                throw new IllegalArgumentException("Invalid run " + runs[k] + "+" + runs[k + 1]);
+            }
+        }
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ *  Copyright 2026 Philipp Niedermayer (github.com/eltos)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package eltos.simpledialogfragment.list;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.DataSetObserver;
+import android.os.Bundle;
+import android.util.Log;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import androidx.annotation.LayoutRes;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * A dialog that displays the rows of a database cursor in a filterable list
+ * in single- or multi-choice mode.
+ * <p>
+ * Rows are read lazily, so that even large tables can be shown. The cursor is
+ * obtained from a {@link CursorProvider} whenever the dialog is created and the filter
+ * constraint changes, see {@link AdvancedCursorAdapter}.
+ * <p>
+ * After selecting all items, the positive button is enabled once their ids are read.
+ * <p>
+ * Result:
+ *      SELECTED_IDS                Long[]              selected item ids
+ * In SINGLE_CHOICE and SINGLE_CHOICE_DIRECT mode also:
+ *      SELECTED_SINGLE_ID          long                selected item id
+ */
+@SuppressWarnings("unused")
+public class SimpleCursorListDialog extends CustomListDialog<SimpleCursorListDialog> {
+
+    public static final String TAG = "SimpleCursorListDialog.";
+
+
+    public static SimpleCursorListDialog build(){
+        return new SimpleCursorListDialog();
+    }
+
+
+    public interface CursorProvider {
+        /**
+         * Query and return the rows to display here.
+         * This method is called from a background thread.
+         * NOTE: make sure your class is public and has a public default constructor!
+         *       Also, nested classes should be static.
+         * <p>
+         * Use {@link AdvancedCursorAdapter#likePattern} or
+         * {@link AdvancedCursorAdapter#ftsPrefixQuery} to filter the rows.
+         *
+         * @param context the application context
+         * @param constraint the filter constraint or null
+         * @param tag The dialog-fragments tag
+         * @param extras The extras supplied to {@link SimpleCursorListDialog#extra(Bundle)}
+         * @return a cursor with the matching rows
+         */
+        @Nullable Cursor query(@NonNull Context context, @Nullable String constraint,
+                               @Nullable String tag, @NonNull Bundle extras);
+    }
+
+
+    /**
+     * Sets the provider of the cursor to display
+     *
+     * @param providerClass A class implementing {@link SimpleCursorListDialog.CursorProvider}
+     * @param labelColumn the name of the column with the labels to display
+     * @param idColumn the name of the column with the unique row ids, e.g. "_id"
+     * @return this instance
+     */
+    public SimpleCursorListDialog cursor(Class<? extends CursorProvider> providerClass,
+                                         String labelColumn, String idColumn){
+        getArgs().putSerializable(PROVIDER, providerClass);
+        getArgs().putString(LABEL_COLUMN, labelColumn);
+        return setArg(ID_COLUMN, idColumn);
+    }
+
+    /**
+     * Set the item layout to use for the list,
+     * see {@link SimpleListDialog#layout(int)}
+     *
+     * @param layout the layout to use for each item
+     * @return this instance
+     */
+    public SimpleCursorListDialog layout(@LayoutRes int layout){
+        return setArg(LAYOUT, layout);
+    }
+
+
+
+
+    protected final static String
+            PROVIDER = TAG + "provider",
+            LABEL_COLUMN = TAG + "labelColumn",
+            ID_COLUMN = TAG + "idColumn",
+            LAYOUT = TAG + "layout";
+
+    @Override
+    protected AdvancedCursorAdapter onCreateAdapter() {
+
+        int layout = getArgs().getInt(LAYOUT, SimpleListDialog.LAYOUT_AUTO);
+        if (layout == SimpleListDialog.LAYOUT_AUTO) {
+            int mode = getArgs().getInt(CHOICE_MODE, NO_CHOICE);
+            boolean has_preset = getArgs().containsKey(INITIALLY_CHECKED_IDS);
+            layout = mode == SINGLE_CHOICE ? SimpleListDialog.LAYOUT_SINGLE_CHOICE :
+                     mode == MULTI_CHOICE ? SimpleListDialog.LAYOUT_MULTI_CHOICE :
+                     mode == SINGLE_CHOICE_DIRECT && has_preset ? SimpleListDialog.LAYOUT_SINGLE_CHOICE :
+                             SimpleListDialog.LAYOUT_PLAIN;
+        }
+
+        final Context context = requireContext().getApplicationContext();
+        final CursorProvider provider = createProvider();
+        final String tag = getTag();
+        final Bundle extras = getExtras();
+        AdvancedCursorAdapter.CursorQuery query = constraint ->
+                provider != null ? provider.query(context, constraint, tag, extras) : null;
+
+        SimpleCursorListAdapter adapter = new SimpleCursorListAdapter(query, layout);
+        adapter.registerDataSetObserver(new DataSetObserver() {
+            @Override
+            public void onChanged() {
+                updatePosButton(); // e.g. once the ids of all checked items are read
+            }
+        });
+        return adapter;
+    }
+
+    @Nullable
+    private CursorProvider createProvider(){
+        @SuppressWarnings("unchecked")
+        Class<? extends CursorProvider> c = (Class<? extends CursorProvider>) getArgs().getSerializable(PROVIDER);
+        if (c == null) return null;
+        try {
+            return c.getConstructor().newInstance();
+        } catch (Exception e) {
+            Log.e(TAG, "Error: Instantiation of "+c.getName()+" failed. " +
+                    "Make sure the class is public and has a public default constructor. " +
+                    "Also, nested classes should be static", e);
+        }
+        return null;
+    }
+
+    @Override
+    protected void updatePosButton() {
+        if (isResolvingCheckedIds()){
+            setPositiveButtonEnabled(false);
+        } else {
+            super.updatePosButton();
+        }
+    }
+
+    @Override
+    protected boolean acceptsPositiveButtonPress() {
+        return !isResolvingCheckedIds();
+    }
+
+    private boolean isResolvingCheckedIds(){
+        return mAdapter instanceof AdvancedCursorAdapter
+                && ((AdvancedCursorAdapter) mAdapter).isResolvingCheckedIds();
+    }
+
+    @Override
+    public void onDestroyView() {
+        if (mAdapter instanceof AdvancedCursorAdapter){
+            ((AdvancedCursorAdapter) mAdapter).close();
+        }
+        super.onDestroyView();
+    }
+
+
+
+    class SimpleCursorListAdapter extends AdvancedCursorAdapter {
+
+        private int mLayout;
+        private String mLabelColumn;
+
+        SimpleCursorListAdapter(CursorQuery query, @LayoutRes int layout){
+            super(query, getArgs().getString(ID_COLUMN, "_id"));
+            mLayout = layout;
+            mLabelColumn = getArgs().getString(LABEL_COLUMN);
+        }
+
+        @Override
+        public View getView(int position, View convertView, ViewGroup parent) {
+
+            TextView textView;
+
+            if (convertView == null){
+                convertView = inflate(mLayout, parent, false);
+                textView = convertView.findViewById(android.R.id.text1);
+                convertView.setTag(textView);
+            } else {
+                textView = (TextView) convertView.getTag();
+            }
+
+            Cursor cursor = getItem(position);
+            textView.setText(cursor.getString(cursor.getColumnIndexOrThrow(mLabelColumn)));
+
+            return super.getView(position, convertView, parent);
+        }
+
+    }
+
+}
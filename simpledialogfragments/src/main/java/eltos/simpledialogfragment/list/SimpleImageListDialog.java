@@ -0,0 +1,313 @@
+/*
+ *  Copyright 2026 Philipp Niedermayer (github.com/eltos)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package eltos.simpledialogfragment.list;
+
+import android.content.Context;
+import android.content.res.TypedArray;
+import android.graphics.Bitmap;
+import android.graphics.drawable.Drawable;
+import android.os.AsyncTask;
+import android.os.Bundle;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ImageView;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.core.util.Pair;
+
+import java.util.ArrayList;
+import java.util.UUID;
+
+import eltos.simpledialogfragment.R;
+
+/**
+ * A dialog that displays a filterable list or grid of images with labels,
+ * e.g. to pick an avatar or a product.
+ * <p>
+ * Images are specified per {@link ImageListItem} and decoded in the background at the size
+ * of the list row or grid cell. Loads are cancelled when rows are recycled, and decoded
+ * images are kept in a memory cache shared by all instances of this dialog.
+ * <p>
+ * Result:
+ *      see {@link CustomListDialog}
+ *      SELECTED_LABELS             String ArrayList    selected item labels
+ * In SINGLE_CHOICE and SINGLE_CHOICE_DIRECT mode also:
+ *      SELECTED_SINGLE_LABEL       String              selected item label
+ */
+@SuppressWarnings("unused")
+public class SimpleImageListDialog extends CustomListDialog<SimpleImageListDialog> {
+
+    public static final String TAG = "SimpleImageListDialog.";
+
+    public static final String
+            SELECTED_LABELS = TAG + "selectedLabels",
+            SELECTED_SINGLE_LABEL = TAG + "selectedSingleLabel";
+
+
+    public static SimpleImageListDialog build(){
+        return new SimpleImageListDialog();
+    }
+
+
+    public interface ImageCreator {
+        /**
+         * Create and return the image of an item here. This method is called from a
+         * background thread.
+         * NOTE: make sure your class is public and has a public default constructor!
+         *       Also, nested classes should be static.
+         *
+         * @param context the application context
+         * @param id the id of the item
+         * @param width the width the image will be displayed at
+         * @param height the height the image will be displayed at
+         * @param extras The extras supplied to {@link SimpleImageListDialog#extra(Bundle)}
+         * @return the image to be shown or null
+         */
+        @Nullable Bitmap create(@NonNull Context context, long id, int width, int height,
+                                @NonNull Bundle extras);
+    }
+
+
+    /**
+     * Populate the list with the items provided.
+     * See {@link ImageListItem} for further details
+     *
+     * @param items a list of {@link ImageListItem}
+     * @return this instance
+     */
+    public SimpleImageListDialog items(ArrayList<ImageListItem> items){
+        // written in bulk, see SimpleListItemCodec
+        SimpleListItemCodec.putImages(getArgs(), DATA_SET, items);
+        return this;
+    }
+
+    @Override
+    public SimpleImageListDialog extra(Bundle extras) {
+        getArgs().remove(CREATOR_KEY); // images created with other extras are not reused
+        return super.extra(extras);
+    }
+
+    /**
+     * If set to true, show an input field at the to of the list and allow the user
+     * to filter the list by the labels
+     *
+     * @param enabled whether to allow filtering or not
+     * @param highlight whether to highlight the text filtered
+     * @return this instance
+     */
+    public SimpleImageListDialog filterable(boolean enabled, boolean highlight) {
+        setArg(HIGHLIGHT, highlight);
+        return super.filterable(enabled);
+    }
+
+
+
+    protected final static String
+            DATA_SET = TAG + "data_set",
+            HIGHLIGHT = TAG + "highlight",
+            CREATOR_KEY = TAG + "creatorKey";
+
+    ArrayList<ImageListItem> mData;
+    private ImageLoader mImageLoader;
+    private Bundle mCreatorExtras;
+    private String mCreatorKey;
+
+    @Override
+    protected ImageListAdapter onCreateAdapter() {
+
+        int mode = getArgs().getInt(CHOICE_MODE, NO_CHOICE);
+        boolean has_preset = getArgs().containsKey(INITIALLY_CHECKED_POSITIONS) || getArgs().containsKey(INITIALLY_CHECKED_IDS);
+        int checkMark = mode == SINGLE_CHOICE ? android.R.attr.listChoiceIndicatorSingle :
+                        mode == MULTI_CHOICE ? android.R.attr.listChoiceIndicatorMultiple :
+                        mode == SINGLE_CHOICE_DIRECT && has_preset ? android.R.attr.listChoiceIndicatorSingle :
+                                0;
+
+        mData = SimpleListItemCodec.getImages(getArgs(), DATA_SET);
+        if (mData == null) mData = new ArrayList<>(0);
+
+        if (mImageLoader != null){
+            mImageLoader.cancelAll();
+        }
+        mImageLoader = new ImageLoader(requireContext(), AsyncTask.THREAD_POOL_EXECUTOR);
+        mCreatorExtras = getExtras();
+        mCreatorKey = getArgs().getString(CREATOR_KEY);
+        if (mCreatorKey == null){
+            // identifies the extras of this dialog, kept when the dialog is recreated
+            mCreatorKey = UUID.randomUUID().toString();
+            getArgs().putString(CREATOR_KEY, mCreatorKey);
+        }
+
+        return new ImageListAdapter(checkMark, mData);
+    }
+
+    @Override
+    public void onDestroyView() {
+        if (mImageLoader != null){
+            mImageLoader.cancelAll();
+        }
+        super.onDestroyView();
+    }
+
+    @Nullable
+    private ImageLoader.Source getImageSource(@NonNull final ImageListItem item){
+        if (item.getImageUri() != null){
+            return ImageLoader.uri(item.getImageUri());
+        } else if (item.getImageResource() != 0){
+            return ImageLoader.resource(item.getImageResource());
+        } else if (item.getImageCreator() != null){
+            final Class<? extends ImageCreator> c = item.getImageCreator();
+            final long id = item.getId();
+            final Bundle extras = mCreatorExtras;
+            // images depend on the extras passed to the creator, the size is added by the loader
+            final String key = "creator:" + c.getName() + ":" + mCreatorKey + ":" + id;
+            return new ImageLoader.Source() {
+                @NonNull
+                @Override
+                public String getKey() {
+                    return key;
+                }
+
+                @Override
+                public Bitmap decode(@NonNull Context context, int width, int height) throws Exception {
+                    ImageCreator creator = c.getConstructor().newInstance();
+                    return creator.create(context, id, width, height, extras);
+                }
+            };
+        }
+        return null;
+    }
+
+    @Override
+    protected Bundle onResult(int which) {
+        Bundle result = super.onResult(which);
+        if (result != null) {
+
+            ArrayList<Integer> positions = result.getIntegerArrayList(SELECTED_POSITIONS);
+            int[] runs = result.getIntArray(SELECTED_POSITIONS_PACKED);
+            if (positions != null || runs != null) {
+                ArrayList<String> labels = new ArrayList<>();
+                if (positions != null) {
+                    for (Integer pos : positions) {
+                        labels.add(mData.get(pos).getString());
+                    }
+                }
+                for (int pos : SelectionCodec.decodePositions(runs)) {
+                    labels.add(mData.get(pos).getString());
+                }
+                result.putStringArrayList(SELECTED_LABELS, labels);
+            }
+
+            if (result.containsKey(SELECTED_SINGLE_POSITION)) {
+                result.putString(SELECTED_SINGLE_LABEL, mData.get(
+                        result.getInt(SELECTED_SINGLE_POSITION)).getString());
+            }
+
+        }
+        return result;
+    }
+
+
+
+    class ImageListAdapter extends AdvancedAdapter<ImageListItem> {
+
+        private final int mCheckMark;
+        private final boolean mHighlight;
+        private final boolean mGrid;
+
+        ImageListAdapter(int checkMarkAttr, ArrayList<ImageListItem> data){
+            mCheckMark = checkMarkAttr;
+            mHighlight = getArgs().getBoolean(HIGHLIGHT);
+            mGrid = isGrid();
+            ArrayList<Pair<ImageListItem, Long>> dataAndIds = new ArrayList<>(data.size());
+            for (ImageListItem item : data) {
+                dataAndIds.add(new Pair<>(item, item.getId()));
+            }
+            setDataAndIds(dataAndIds);
+        }
+
+        AdvancedFilter mFilter = new AdvancedFilter(true, true){
+
+            @Override
+            protected boolean matches(ImageListItem object, @NonNull CharSequence constraint) {
+                return matches(object.getString());
+            }
+
+            @Override
+            protected boolean isNarrowing(@NonNull String previousConstraint, @NonNull String constraint) {
+                return constraint.startsWith(previousConstraint);
+            }
+
+            @Override
+            protected CharSequence getSearchableText(ImageListItem object) {
+                return object.getString();
+            }
+        };
+
+        @Override
+        public AdvancedFilter getFilter() {
+            return mFilter;
+        }
+
+        @Override
+        public View getView(int position, View convertView, ViewGroup parent) {
+
+            ImageListItem item = getItem(position);
+
+            ViewHolder holder;
+            if (convertView == null){
+                convertView = inflate(mGrid ? R.layout.simpledialogfragment_image_grid_item
+                        : R.layout.simpledialogfragment_image_list_item, parent, false);
+                holder = new ViewHolder(convertView);
+                if (mCheckMark != 0){
+                    holder.checkMark.setImageDrawable(obtainDrawable(parent.getContext(), mCheckMark));
+                    holder.checkMark.setVisibility(View.VISIBLE);
+                }
+                convertView.setTag(holder);
+            } else {
+                holder = (ViewHolder) convertView.getTag();
+            }
+
+            holder.text.setText(mHighlight ? highlight(position, item.getString(), getContext()) : item.getString());
+            // cancels the load of the item previously shown in this row
+            mImageLoader.load(holder.image, getImageSource(item));
+
+            return super.getView(position, convertView, parent);
+        }
+
+    }
+
+    private static class ViewHolder {
+        final ImageView image;
+        final TextView text;
+        final ImageView checkMark;
+
+        ViewHolder(View view){
+            image = view.findViewById(R.id.image);
+            text = view.findViewById(android.R.id.text1);
+            checkMark = view.findViewById(R.id.checkmark);
+        }
+    }
+
+    private static Drawable obtainDrawable(Context context, int attr){
+        TypedArray a = context.obtainStyledAttributes(new int[]{attr});
+        Drawable drawable = a.getDrawable(0);
+        a.recycle();
+        return drawable;
+    }
+}
@@ -17,17 +17,26 @@
 package eltos.simpledialogfragment.list;
 
 import android.content.Context;
+import android.os.AsyncTask;
 import android.os.Bundle;
 import androidx.annotation.ArrayRes;
 import androidx.annotation.LayoutRes;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.annotation.StringRes;
+import androidx.core.text.PrecomputedTextCompat;
 import androidx.core.util.Pair;
+import androidx.core.widget.TextViewCompat;
+import android.text.Layout;
+import android.text.Spannable;
+import android.text.SpannableStringBuilder;
+import android.util.Log;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.TextView;
 
 import java.util.ArrayList;
+import java.util.List;
 
 import eltos.simpledialogfragment.R;
 
@@ -58,6 +67,22 @@ public class SimpleListDialog extends CustomListDialog<SimpleListDialog> {
     }
 
 
+    public interface ItemProvider {
+        /**
+         * Create and return the list items here.
+         * This is called whenever the dialog creates its list, including after the
+         * app process was restored, so the items should always be created the same way.
+         * NOTE: make sure your class is public and has a public default constructor!
+         *       Also, nested classes should be static.
+         *
+         * @param tag The dialog-fragments tag
+         * @param extras The extras supplied to {@link SimpleListDialog#extra(Bundle)}
+         * @return the items to be shown
+         */
+        @NonNull ArrayList<SimpleListItem> provideItems(@Nullable String tag, @NonNull Bundle extras);
+    }
+
+
     /**
      * Populate the list with the labels provided
      *
@@ -127,7 +152,26 @@ public class SimpleListDialog extends CustomListDialog<SimpleListDialog> {
      * @return this instance
      */
     public SimpleListDialog items(ArrayList<SimpleListItem> items){
-        getArgs().putParcelableArrayList(DATA_SET, items);
+        getArgs().remove(DATA_PROVIDER);
+        // written in bulk, see SimpleListItemCodec
+        SimpleListItemCodec.put(getArgs(), DATA_SET, items);
+        return this;
+    }
+
+    /**
+     * Populate the list with the Items provided by an {@link ItemProvider}.
+     * <p>
+     * Other than the items methods, this only stores the class rather than the
+     * items in the arguments, which avoids a {@link android.os.TransactionTooLargeException}
+     * for large lists. Use {@link SimpleListDialog#extra(Bundle)} to pass small
+     * parameters to the provider.
+     *
+     * @param providerClass A class implementing {@link SimpleListDialog.ItemProvider}
+     * @return this instance
+     */
+    public SimpleListDialog items(Class<? extends ItemProvider> providerClass){
+        SimpleListItemCodec.remove(getArgs(), DATA_SET);
+        getArgs().putSerializable(DATA_PROVIDER, providerClass);
         return this;
     }
 
@@ -151,8 +195,9 @@ public class SimpleListDialog extends CustomListDialog<SimpleListDialog> {
      * or a custom layout resource.
      * <p>
      * When using {@link SimpleListDialog#LAYOUT_AUTO} (which is the default), an appropriate
-     * item layout will be chosen based on the {@link SimpleListDialog#choiceMode} and
+     * check mark will be chosen based on the {@link SimpleListDialog#choiceMode} and
      * {@link SimpleListDialog#choicePreset} or {@link SimpleListDialog#choiceIdPreset} setting
+     * and items are displayed by a lightweight {@link SimpleListItemView}
      * <p>
      * When using a custom layout resource, a {@link TextView} with id {@link android.R.id#text1}
      * is required.
@@ -169,6 +214,7 @@ public class SimpleListDialog extends CustomListDialog<SimpleListDialog> {
 
     protected final static String
             DATA_SET = TAG + "data_set",
+            DATA_PROVIDER = TAG + "data_provider",
             HIGHLIGHT = TAG + "highlight",
             LAYOUT = TAG + "icon";
 
@@ -178,24 +224,46 @@ public class SimpleListDialog extends CustomListDialog<SimpleListDialog> {
     protected SimpleListAdapter onCreateAdapter() {
 
         int layout = getArgs().getInt(LAYOUT, LAYOUT_AUTO);
+        int checkMark = 0;
         if (layout == LAYOUT_AUTO) {
             int mode = getArgs().getInt(CHOICE_MODE, NO_CHOICE);
             boolean has_preset = getArgs().containsKey(INITIALLY_CHECKED_POSITIONS) || getArgs().containsKey(INITIALLY_CHECKED_IDS);
-            layout = mode == SINGLE_CHOICE ? LAYOUT_SINGLE_CHOICE :
-                     mode == MULTI_CHOICE ? LAYOUT_MULTI_CHOICE :
-                     mode == SINGLE_CHOICE_DIRECT && has_preset ? LAYOUT_SINGLE_CHOICE :
-                             LAYOUT_PLAIN;
+            checkMark = mode == SINGLE_CHOICE ? android.R.attr.listChoiceIndicatorSingle :
+                        mode == MULTI_CHOICE ? android.R.attr.listChoiceIndicatorMultiple :
+                        mode == SINGLE_CHOICE_DIRECT && has_preset ? android.R.attr.listChoiceIndicatorSingle :
+                                0;
         }
 
 
-        mData = getArgs().getParcelableArrayList(DATA_SET);
+        if (getArgs().containsKey(DATA_PROVIDER)){
+            mData = provideItems();
+        } else {
+            mData = SimpleListItemCodec.get(getArgs(), DATA_SET);
+        }
         if (mData == null) mData = new ArrayList<>(0);
 
-        return new SimpleListAdapter(layout, mData);
+        return new SimpleListAdapter(layout, checkMark, mData);
 
     }
 
 
+    @Nullable
+    private ArrayList<SimpleListItem> provideItems(){
+        @SuppressWarnings("unchecked")
+        Class<? extends ItemProvider> c = (Class<? extends ItemProvider>) getArgs().getSerializable(DATA_PROVIDER);
+        if (c == null) return null;
+        try {
+            ItemProvider provider = c.getConstructor().newInstance();
+            return provider.provideItems(getTag(), getExtras());
+        } catch (Exception e) {
+            Log.e(TAG, "Error: Instantiation of "+c.getName()+" failed. " +
+                    "Make sure the class is public and has a public default constructor. " +
+                    "Also, nested classes should be static", e);
+        }
+        return null;
+    }
+
+
     @Override
     protected Bundle onResult(int which) {
         Bundle result = super.onResult(which);
@@ -209,6 +277,15 @@ public class SimpleListDialog extends CustomListDialog<SimpleListDialog> {
                 }
                 result.putStringArrayList(SELECTED_LABELS, labels);
             }
+            int[] runs = result.getIntArray(SELECTED_POSITIONS_PACKED);
+            if (runs != null) {
+                int[] packed = SelectionCodec.decodePositions(runs);
+                ArrayList<String> labels = new ArrayList<>(packed.length);
+                for (int pos : packed) {
+                    labels.add(mData.get(pos).getString());
+                }
+                result.putStringArrayList(SELECTED_LABELS, labels);
+            }
 
             if (result.containsKey(SELECTED_SINGLE_POSITION)) {
                 result.putString(SELECTED_SINGLE_LABEL, mData.get(
@@ -223,10 +300,24 @@ public class SimpleListDialog extends CustomListDialog<SimpleListDialog> {
 
     class SimpleListAdapter extends AdvancedAdapter<String> {
 
-        private int mLayout;
+        // number of rows before and after a bound row whose text is precomputed
+        private static final int PRECOMPUTE_DISTANCE = 10;
 
-        SimpleListAdapter(@LayoutRes int layout, ArrayList<SimpleListItem> data){
+        private int mLayout;
+        private int mCheckMark;
+        private boolean mHighlight;
+        // texts are measured in the background, as text layouts for SimpleListItemView rows
+        // or as PrecomputedTextCompat for TextView rows
+        private final TextPrecomputer<Layout> mLayouts = new TextPrecomputer<>(AsyncTask.THREAD_POOL_EXECUTOR);
+        private final TextPrecomputer<PrecomputedTextCompat> mPrecomputed = new TextPrecomputer<>(AsyncTask.THREAD_POOL_EXECUTOR);
+        // rows whose texts were last submitted for precomputing and the params they were for
+        private int mPrefetchedStart = 0, mPrefetchedEnd = 0;
+        private @Nullable Object mPrefetchedParams;
+
+        SimpleListAdapter(@LayoutRes int layout, int checkMarkAttr, ArrayList<SimpleListItem> data){
             mLayout = layout;
+            mCheckMark = checkMarkAttr;
+            mHighlight = getArgs().getBoolean(HIGHLIGHT);
             ArrayList<Pair<String, Long>> dataAndIds = new ArrayList<>(data.size());
             for (SimpleListItem simpleListItem : data) {
                 dataAndIds.add(new Pair<>(simpleListItem.getString(), simpleListItem.getId()));
@@ -240,6 +331,16 @@ public class SimpleListDialog extends CustomListDialog<SimpleListDialog> {
             protected boolean matches(String object, @NonNull CharSequence constraint) {
                 return matches(object);
             }
+
+            @Override
+            protected boolean isNarrowing(@NonNull String previousConstraint, @NonNull String constraint) {
+                return constraint.startsWith(previousConstraint);
+            }
+
+            @Override
+            protected CharSequence getSearchableText(String object) {
+                return object;
+            }
         };
 
         @Override
@@ -247,9 +348,73 @@ public class SimpleListDialog extends CustomListDialog<SimpleListDialog> {
             return mFilter;
         }
 
+        private CharSequence getText(int position){
+            return mHighlight ? highlight(position, getItem(position), getContext()) : getItem(position);
+        }
+
+        @Override
+        protected void onPrepareItems(@NonNull List<String> items, @NonNull List<Spannable> highlights) {
+            // called from the filter thread with the first results
+            ArrayList<CharSequence> texts = new ArrayList<>(items.size());
+            for (int i = 0; i < items.size(); i++) {
+                Spannable highlighted = highlights.get(i);
+                texts.add(highlighted != null ? highlighted :
+                        mHighlight ? new SpannableStringBuilder(items.get(i)) : items.get(i));
+            }
+            (mLayout == LAYOUT_AUTO ? mLayouts : mPrecomputed).precompute(texts);
+        }
+
+        @Override
+        public void notifyDataSetChanged() {
+            mPrefetchedStart = mPrefetchedEnd = 0; // positions changed
+            super.notifyDataSetChanged();
+        }
+
+        private void precomputeNearby(int position, TextPrecomputer<?> precomputer){
+            Object params = precomputer.getParams();
+            if (params == null) return;
+            if (params != mPrefetchedParams){
+                mPrefetchedParams = params;
+                mPrefetchedStart = mPrefetchedEnd = 0;
+            }
+            // only once the bound rows move past the rows prefetched last
+            if (mPrefetchedStart <= position && position < mPrefetchedEnd) return;
+            int start = Math.max(0, position - PRECOMPUTE_DISTANCE);
+            int end = Math.min(getCount(), position + PRECOMPUTE_DISTANCE + 1);
+            ArrayList<CharSequence> texts = new ArrayList<>(end - start);
+            for (int i = start; i < end; i++) {
+                if (i != position && (i < mPrefetchedStart || i >= mPrefetchedEnd)){
+                    texts.add(getText(i));
+                }
+            }
+            mPrefetchedStart = start;
+            mPrefetchedEnd = end;
+            precomputer.precomputeAsync(texts);
+        }
+
         @Override
         public View getView(int position, View convertView, ViewGroup parent) {
 
+            CharSequence text = getText(position);
+
+            if (mLayout == LAYOUT_AUTO){
+                // a single view per row, see SimpleListItemView
+                SimpleListItemView itemView;
+                if (convertView instanceof SimpleListItemView){
+                    itemView = (SimpleListItemView) convertView;
+                } else {
+                    itemView = new SimpleListItemView(parent.getContext());
+                    itemView.setCheckMarkAttribute(mCheckMark);
+                }
+                Object params = itemView.getTextLayoutParams();
+                if (params != null && !params.equals(mLayouts.getParams())){
+                    mLayouts.setParams(params, itemView.getTextLayoutFactory());
+                }
+                itemView.setText(text, mLayouts.get(text));
+                precomputeNearby(position, mLayouts);
+                return super.getView(position, itemView, parent);
+            }
+
             TextView textView;
 
             if (convertView == null){
@@ -260,11 +425,17 @@ public class SimpleListDialog extends CustomListDialog<SimpleListDialog> {
                 textView = (TextView) convertView.getTag();
             }
 
-            if (getArgs().getBoolean(HIGHLIGHT)) {
-                textView.setText(highlight(getItem(position), getContext()));
+            final PrecomputedTextCompat.Params params = TextViewCompat.getTextMetricsParams(textView);
+            if (!params.equals(mPrecomputed.getParams())){
+                mPrecomputed.setParams(params, t -> PrecomputedTextCompat.create(t, params));
+            }
+            PrecomputedTextCompat precomputed = mPrecomputed.get(text);
+            if (precomputed != null){
+                TextViewCompat.setPrecomputedText(textView, precomputed);
             } else {
-                textView.setText(getItem(position));
+                textView.setText(text);
             }
+            precomputeNearby(position, mPrecomputed);
 
             return super.getView(position, convertView, parent);
         }
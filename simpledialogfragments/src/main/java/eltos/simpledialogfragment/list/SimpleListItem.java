@@ -45,10 +45,12 @@ public class SimpleListItem implements Parcelable {
 
     private SimpleListItem(Parcel in) {
         string = in.readString();
+        id = in.readLong();
     }
     @Override
     public void writeToParcel(Parcel dest, int flags) {
         dest.writeString(string);
+        dest.writeLong(id);
     }
     public static final Creator<SimpleListItem> CREATOR = new Creator<SimpleListItem>() {
         @Override
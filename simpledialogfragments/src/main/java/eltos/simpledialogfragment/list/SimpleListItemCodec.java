@@ -0,0 +1,216 @@
+/*
+ *  Copyright 2026 Philipp Niedermayer (github.com/eltos)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package eltos.simpledialogfragment.list;
+
+import android.net.Uri;
+import android.os.Bundle;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Writes a list of {@link SimpleListItem} to a {@link Bundle} in bulk rather than item by item.
+ * <p>
+ * The labels are written once as a table of distinct strings as <b>String[]</b>, the ids
+ * as <b>long[]</b> and the index of each item's label in the table as <b>int[]</b>.
+ * Compared to a parcelable list, this avoids the class name and type tag written for
+ * every single item and repeated labels.
+ * <p>
+ * The images of {@link ImageListItem}s are written the same way: the resources as
+ * <b>int[]</b>, the uris as <b>String[]</b> and the creator class names as a table of
+ * distinct names with an index per item.
+ */
+final class SimpleListItemCodec {
+
+    private static final String
+            LABELS = ".labels",
+            IDS = ".ids",
+            INDICES = ".indices",
+            IMAGE_RESOURCES = ".imageResources",
+            IMAGE_URIS = ".imageUris",
+            IMAGE_CREATORS = ".imageCreators",
+            IMAGE_CREATOR_INDICES = ".imageCreatorIndices";
+
+    private SimpleListItemCodec(){}
+
+    /**
+     * Writes the items to a bundle
+     *
+     * @param bundle the bundle, e.g. a dialog's arguments
+     * @param key the key prefix to store the arrays under
+     * @param items the items
+     */
+    static void put(@NonNull Bundle bundle, @NonNull String key,
+                    @NonNull List<? extends SimpleListItem> items){
+        ArrayList<String> table = new ArrayList<>();
+        long[] ids = new long[items.size()];
+        String[] labels = new String[items.size()];
+        for (int i = 0; i < ids.length; i++) {
+            SimpleListItem item = items.get(i);
+            ids[i] = item.getId();
+            labels[i] = item.getString();
+        }
+
+        int[] indices = tabulate(labels, table);
+        bundle.putStringArray(key + LABELS, table.toArray(new String[0]));
+        bundle.putLongArray(key + IDS, ids);
+        bundle.putIntArray(key + INDICES, indices);
+    }
+
+    /**
+     * Writes image items to a bundle, see {@link SimpleListItemCodec#put}
+     *
+     * @param bundle the bundle, e.g. a dialog's arguments
+     * @param key the key prefix to store the arrays under
+     * @param items the items
+     */
+    static void putImages(@NonNull Bundle bundle, @NonNull String key,
+                          @NonNull List<? extends ImageListItem> items){
+        put(bundle, key, items);
+        int[] resources = new int[items.size()];
+        String[] uris = new String[items.size()];
+        String[] creators = new String[items.size()];
+        for (int i = 0; i < resources.length; i++) {
+            ImageListItem item = items.get(i);
+            resources[i] = item.getImageResource();
+            uris[i] = item.getImageUri() != null ? item.getImageUri().toString() : null;
+            creators[i] = item.getImageCreator() != null ? item.getImageCreator().getName() : null;
+        }
+
+        ArrayList<String> table = new ArrayList<>();
+        int[] indices = tabulate(creators, table);
+        bundle.putIntArray(key + IMAGE_RESOURCES, resources);
+        bundle.putStringArray(key + IMAGE_URIS, uris);
+        bundle.putStringArray(key + IMAGE_CREATORS, table.toArray(new String[0]));
+        bundle.putIntArray(key + IMAGE_CREATOR_INDICES, indices);
+    }
+
+    // collects the distinct values in a table and returns the index of each value or -1 for null
+    private static int[] tabulate(String[] values, ArrayList<String> table){
+        HashMap<String, Integer> indices = new HashMap<>();
+        int[] result = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == null){
+                result[i] = -1;
+                continue;
+            }
+            Integer index = indices.get(values[i]);
+            if (index == null){
+                index = table.size();
+                indices.put(values[i], index);
+                table.add(values[i]);
+            }
+            result[i] = index;
+        }
+        return result;
+    }
+
+    /**
+     * Reads items written by {@link SimpleListItemCodec#put}
+     *
+     * @param bundle the bundle
+     * @param key the key prefix the arrays were stored under
+     * @return the items or null if none were stored
+     * @throws IllegalArgumentException if the stored arrays are malformed
+     */
+    @Nullable
+    static ArrayList<SimpleListItem> get(@NonNull Bundle bundle, @NonNull String key){
+        String[] table = bundle.getStringArray(key + LABELS);
+        long[] ids = bundle.getLongArray(key + IDS);
+        int[] labels = bundle.getIntArray(key + INDICES);
+        if (table == null && ids == null && labels == null) return null;
+        if (table == null || ids == null || labels == null || ids.length != labels.length){
+            throw new IllegalArgumentException("Malformed item list");
+        }
+
+        ArrayList<SimpleListItem> items = new ArrayList<>(ids.length);
+        for (int i = 0; i < ids.length; i++) {
+            items.add(new SimpleListItem(lookup(table, labels[i]), ids[i]));
+        }
+        return items;
+    }
+
+    /**
+     * Reads image items written by {@link SimpleListItemCodec#putImages}
+     *
+     * @param bundle the bundle
+     * @param key the key prefix the arrays were stored under
+     * @return the items or null if none were stored
+     * @throws IllegalArgumentException if the stored arrays are malformed
+     */
+    @Nullable
+    static ArrayList<ImageListItem> getImages(@NonNull Bundle bundle, @NonNull String key){
+        ArrayList<SimpleListItem> items = get(bundle, key);
+        if (items == null) return null;
+        int[] resources = bundle.getIntArray(key + IMAGE_RESOURCES);
+        String[] uris = bundle.getStringArray(key + IMAGE_URIS);
+        String[] creators = bundle.getStringArray(key + IMAGE_CREATORS);
+        int[] creatorIndices = bundle.getIntArray(key + IMAGE_CREATOR_INDICES);
+        int n = items.size();
+        if (resources == null || uris == null || creators == null || creatorIndices == null
+                || resources.length != n || uris.length != n || creatorIndices.length != n){
+            throw new IllegalArgumentException("Malformed image item list");
+        }
+
+        ArrayList<ImageListItem> images = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            ImageListItem image = new ImageListItem(items.get(i).getString(), items.get(i).getId());
+            String creator = lookup(creators, creatorIndices[i]);
+            if (resources[i] != 0){
+                image.image(resources[i]);
+            } else if (uris[i] != null){
+                image.image(Uri.parse(uris[i]));
+            } else if (creator != null){
+                Class<? extends SimpleImageListDialog.ImageCreator> c = ImageListItem.findCreator(creator);
+                if (c != null){
+                    image.image(c);
+                }
+            }
+            images.add(image);
+        }
+        return images;
+    }
+
+    @Nullable
+    private static String lookup(String[] table, int index){
+        if (index < -1 || index >= table.length){
+            throw new IllegalArgumentException("Invalid table index " + index);
+        }
+        return index < 0 ? null : table[index];
+    }
+
+    /**
+     * Removes items written by {@link SimpleListItemCodec#put} or
+     * {@link SimpleListItemCodec#putImages}
+     *
+     * @param bundle the bundle
+     * @param key the key prefix the arrays were stored under
+     */
+    static void remove(@NonNull Bundle bundle, @NonNull String key){
+        bundle.remove(key + LABELS);
+        bundle.remove(key + IDS);
+        bundle.remove(key + INDICES);
+        bundle.remove(key + IMAGE_RESOURCES);
+        bundle.remove(key + IMAGE_URIS);
+        bundle.remove(key + IMAGE_CREATORS);
+        bundle.remove(key + IMAGE_CREATOR_INDICES);
+    }
+}
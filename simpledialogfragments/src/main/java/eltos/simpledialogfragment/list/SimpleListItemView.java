@@ -0,0 +1,346 @@
+/*
+ *  Copyright 2026 Philipp Niedermayer (github.com/eltos)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package eltos.simpledialogfragment.list;
+
+import android.content.Context;
+import android.content.res.ColorStateList;
+import android.content.res.TypedArray;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.drawable.Drawable;
+import android.os.Build;
+import android.text.Layout;
+import android.text.StaticLayout;
+import android.text.TextPaint;
+import android.util.AttributeSet;
+import android.util.TypedValue;
+import android.view.View;
+import android.view.accessibility.AccessibilityEvent;
+import android.view.accessibility.AccessibilityNodeInfo;
+import android.widget.CheckedTextView;
+import android.widget.Checkable;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * A list item that draws its text and check mark itself, as a lightweight replacement
+ * for the {@link CheckedTextView} of {@link SimpleListDialog#LAYOUT_SINGLE_CHOICE} and
+ * {@link SimpleListDialog#LAYOUT_MULTI_CHOICE}.
+ * <p>
+ * The text is laid out once per text and width, and changing the text of a bound row only
+ * requests a new layout pass if the height of the row changes. Spans such as highlights
+ * are drawn as usual. Text appearance, paddings and minimum height are taken from the
+ * theme's list item attributes.
+ */
+public class SimpleListItemView extends View implements Checkable {
+
+    private static final int[] CHECKED_STATE_SET = {android.R.attr.state_checked};
+
+    private final TextPaint mPaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+    private @Nullable ColorStateList mTextColor;
+    private @NonNull CharSequence mText = "";
+    private @Nullable Layout mLayout;
+    private @Nullable Drawable mCheckMark;
+    private boolean mChecked = false;
+    private int mMinHeight;
+
+
+    public SimpleListItemView(Context context) {
+        this(context, null);
+    }
+
+    public SimpleListItemView(Context context, AttributeSet attrs) {
+        this(context, attrs, 0);
+    }
+
+    public SimpleListItemView(Context context, AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+
+        TypedValue value = new TypedValue();
+        if (context.getTheme().resolveAttribute(android.R.attr.textAppearanceListItemSmall, value, true)){
+            TypedArray a = context.obtainStyledAttributes(value.resourceId,
+                    new int[]{android.R.attr.textSize, android.R.attr.textColor});
+            mPaint.setTextSize(a.getDimensionPixelSize(0, (int) mPaint.getTextSize()));
+            mTextColor = a.getColorStateList(1);
+            a.recycle();
+        }
+        mPaint.density = getResources().getDisplayMetrics().density;
+
+        setPaddingRelative(resolveDimension(android.R.attr.listPreferredItemPaddingStart),
+                0, resolveDimension(android.R.attr.listPreferredItemPaddingEnd), 0);
+        mMinHeight = resolveDimension(android.R.attr.listPreferredItemHeightSmall);
+    }
+
+    private int resolveDimension(int attr){
+        TypedValue value = new TypedValue();
+        if (getContext().getTheme().resolveAttribute(attr, value, true)
+                && value.type == TypedValue.TYPE_DIMENSION){
+            return TypedValue.complexToDimensionPixelSize(value.data, getResources().getDisplayMetrics());
+        }
+        return 0;
+    }
+
+    /**
+     * Sets the text to display, which may contain spans
+     *
+     * @param text the text
+     */
+    public void setText(@Nullable CharSequence text){
+        setText(text, null);
+    }
+
+    /**
+     * Sets the text to display along with its layout, if it was computed in advance
+     * by the factory returned from {@link SimpleListItemView#getTextLayoutFactory}
+     *
+     * @param text the text
+     * @param layout the layout of the text or null
+     */
+    void setText(@Nullable CharSequence text, @Nullable Layout layout){
+        mText = text == null ? "" : text;
+        int width = getTextWidth(getWidth());
+        int height = mLayout != null ? mLayout.getHeight() : -1;
+        if (width > 0){
+            mLayout = layout != null && layout.getWidth() == width ? layout : makeLayout(mText, mPaint, width);
+            if (mLayout.getHeight() == height){
+                // the row keeps its size
+                invalidate();
+                return;
+            }
+        } else {
+            mLayout = null;
+        }
+        requestLayout();
+        invalidate();
+    }
+
+    @NonNull
+    public CharSequence getText(){
+        return mText;
+    }
+
+    /**
+     * Sets the check mark drawn at the end of the row
+     *
+     * @param checkMark the drawable or null to draw none
+     */
+    public void setCheckMark(@Nullable Drawable checkMark){
+        if (mCheckMark != null){
+            mCheckMark.setCallback(null);
+            unscheduleDrawable(mCheckMark);
+        }
+        mCheckMark = checkMark;
+        if (checkMark != null){
+            checkMark.setCallback(this);
+            checkMark.setVisible(getVisibility() == VISIBLE, false);
+            checkMark.setState(getDrawableState());
+        }
+        mLayout = null;
+        requestLayout();
+        invalidate();
+    }
+
+    /**
+     * Sets the check mark from a theme attribute,
+     * e.g. {@link android.R.attr#listChoiceIndicatorMultiple}
+     *
+     * @param attr the attribute referencing the drawable or 0 to draw none
+     */
+    public void setCheckMarkAttribute(int attr){
+        Drawable checkMark = null;
+        if (attr != 0){
+            TypedArray a = getContext().obtainStyledAttributes(new int[]{attr});
+            checkMark = a.getDrawable(0);
+            a.recycle();
+        }
+        setCheckMark(checkMark);
+    }
+
+    private int getCheckMarkWidth(){
+        return mCheckMark != null ? mCheckMark.getIntrinsicWidth() : 0;
+    }
+
+    private int getTextWidth(int width){
+        return width - getPaddingLeft() - getPaddingRight() - getCheckMarkWidth();
+    }
+
+    @SuppressWarnings("deprecation")
+    private static Layout makeLayout(CharSequence text, TextPaint paint, int width){
+        width = Math.max(0, width);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M){
+            return StaticLayout.Builder.obtain(text, 0, text.length(), paint, width)
+                    .setIncludePad(true).build();
+        }
+        return new StaticLayout(text, paint, width, Layout.Alignment.ALIGN_NORMAL, 1, 0, true);
+    }
+
+    /**
+     * Returns what the text layout depends on, compared by equals,
+     * or null if this view was not laid out yet
+     */
+    @Nullable
+    Object getTextLayoutParams(){
+        int width = getTextWidth(getWidth());
+        if (getWidth() == 0 || width <= 0) return null;
+        return Arrays.asList(width, mPaint.getTextSize(), mPaint.getTypeface(),
+                mPaint.getTextLocale(), mPaint.getFlags());
+    }
+
+    /**
+     * Returns a factory computing text layouts for the current {@link #getTextLayoutParams}
+     * on a background thread
+     */
+    @NonNull
+    TextPrecomputer.Factory<Layout> getTextLayoutFactory(){
+        final TextPaint paint = new TextPaint(mPaint);
+        final int width = getTextWidth(getWidth());
+        return text -> makeLayout(text, new TextPaint(paint), width);
+    }
+
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int width;
+        if (MeasureSpec.getMode(widthMeasureSpec) == MeasureSpec.EXACTLY){
+            width = MeasureSpec.getSize(widthMeasureSpec);
+        } else {
+            int desired = getPaddingLeft() + getPaddingRight() + getCheckMarkWidth()
+                    + (int) Math.ceil(Layout.getDesiredWidth(mText, mPaint));
+            width = resolveSize(desired, widthMeasureSpec);
+        }
+
+        int textWidth = Math.max(0, getTextWidth(width));
+        if (mLayout == null || mLayout.getWidth() != textWidth){
+            mLayout = makeLayout(mText, mPaint, textWidth);
+        }
+
+        int content = mLayout.getHeight();
+        if (mCheckMark != null){
+            content = Math.max(content, mCheckMark.getIntrinsicHeight());
+        }
+        int height = Math.max(mMinHeight, content + getPaddingTop() + getPaddingBottom());
+        setMeasuredDimension(width, resolveSize(height, heightMeasureSpec));
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        boolean rtl = getLayoutDirection() == LAYOUT_DIRECTION_RTL;
+        int checkMarkWidth = getCheckMarkWidth();
+        int innerHeight = getHeight() - getPaddingTop() - getPaddingBottom();
+
+        if (mLayout != null){
+            // the layout might have been computed with a copy of the paint
+            mLayout.getPaint().setColor(mPaint.getColor());
+            canvas.save();
+            canvas.translate(getPaddingLeft() + (rtl ? checkMarkWidth : 0),
+                    getPaddingTop() + (innerHeight - mLayout.getHeight()) / 2f);
+            mLayout.draw(canvas);
+            canvas.restore();
+        }
+
+        if (mCheckMark != null){
+            int left = rtl ? getPaddingLeft() : getWidth() - getPaddingRight() - checkMarkWidth;
+            int top = getPaddingTop() + (innerHeight - mCheckMark.getIntrinsicHeight()) / 2;
+            mCheckMark.setBounds(left, top, left + checkMarkWidth, top + mCheckMark.getIntrinsicHeight());
+            mCheckMark.draw(canvas);
+        }
+    }
+
+
+    @Override
+    public boolean isChecked() {
+        return mChecked;
+    }
+
+    @Override
+    public void toggle() {
+        setChecked(!mChecked);
+    }
+
+    @Override
+    public void setChecked(boolean checked) {
+        if (mChecked != checked){
+            mChecked = checked;
+            refreshDrawableState();
+        }
+    }
+
+    @Override
+    protected int[] onCreateDrawableState(int extraSpace) {
+        final int[] drawableState = super.onCreateDrawableState(extraSpace + 1);
+        if (mChecked) {
+            mergeDrawableStates(drawableState, CHECKED_STATE_SET);
+        }
+        return drawableState;
+    }
+
+    @Override
+    protected void drawableStateChanged() {
+        super.drawableStateChanged();
+        int[] state = getDrawableState();
+        if (mCheckMark != null && mCheckMark.isStateful() && mCheckMark.setState(state)){
+            invalidate();
+        }
+        if (mTextColor != null){
+            int color = mTextColor.getColorForState(state, mTextColor.getDefaultColor());
+            if (color != mPaint.getColor()){
+                mPaint.setColor(color);
+                invalidate();
+            }
+        }
+    }
+
+    @Override
+    protected boolean verifyDrawable(@NonNull Drawable who) {
+        return who == mCheckMark || super.verifyDrawable(who);
+    }
+
+    @Override
+    public void jumpDrawablesToCurrentState() {
+        super.jumpDrawablesToCurrentState();
+        if (mCheckMark != null){
+            mCheckMark.jumpToCurrentState();
+        }
+    }
+
+
+    @Override
+    public void onInitializeAccessibilityEvent(AccessibilityEvent event) {
+        super.onInitializeAccessibilityEvent(event);
+        event.setClassName(CheckedTextView.class.getName());
+        event.setChecked(mChecked);
+    }
+
+    @Override
+    public void onPopulateAccessibilityEvent(AccessibilityEvent event) {
+        super.onPopulateAccessibilityEvent(event);
+        event.getText().add(mText);
+    }
+
+    @Override
+    public void onInitializeAccessibilityNodeInfo(AccessibilityNodeInfo info) {
+        super.onInitializeAccessibilityNodeInfo(info);
+        info.setClassName(CheckedTextView.class.getName());
+        info.setText(mText);
+        info.setCheckable(mCheckMark != null);
+        info.setChecked(mChecked);
+    }
+}
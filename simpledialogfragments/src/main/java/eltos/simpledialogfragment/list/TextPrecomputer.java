@@ -0,0 +1,144 @@
+/*
+ *  Copyright 2026 Philipp Niedermayer (github.com/eltos)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package eltos.simpledialogfragment.list;
+
+import android.util.LruCache;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * A cache of measured texts of list rows, e.g. PrecomputedTextCompat or text layouts,
+ * which are computed on a background executor ahead of binding.
+ * <p>
+ * Values are keyed by their text and valid for the params they were computed with,
+ * e.g. the text size, typeface and width of the rows. Changing the params discards
+ * all values.
+ *
+ * @param <V> the type of the values
+ */
+class TextPrecomputer<V> {
+
+    interface Factory<V> {
+        /**
+         * Computes the value for a text. This method is called from background threads.
+         *
+         * @param text the text
+         * @return the value
+         */
+        @NonNull V create(@NonNull CharSequence text);
+    }
+
+    private static final int MAX_CACHED = 200;
+
+    private final Executor mExecutor;
+    private final LruCache<CharSequence, V> mCache = new LruCache<>(MAX_CACHED);
+    // texts currently computed on the executor
+    private final HashSet<CharSequence> mPending = new HashSet<>();
+    private volatile @Nullable Object mParams;
+    private volatile @Nullable Factory<V> mFactory;
+
+    TextPrecomputer(@NonNull Executor executor){
+        mExecutor = executor;
+    }
+
+    @Nullable
+    Object getParams(){
+        return mParams;
+    }
+
+    /**
+     * Sets the params values are computed for, discarding all values if they changed
+     *
+     * @param params the params, compared by equals
+     * @param factory the factory computing values for these params
+     */
+    void setParams(@NonNull Object params, @NonNull Factory<V> factory){
+        if (!params.equals(mParams)){
+            mParams = params;
+            mFactory = factory;
+            mCache.evictAll();
+        }
+    }
+
+    /**
+     * @param text the text
+     * @return the value if computed already, otherwise null
+     */
+    @Nullable
+    V get(@Nullable CharSequence text){
+        return text != null && mParams != null ? mCache.get(text) : null;
+    }
+
+    /**
+     * Computes the values of the given texts in the background, unless present
+     *
+     * @param texts the texts
+     */
+    void precomputeAsync(@NonNull List<? extends CharSequence> texts){
+        final Factory<V> factory = mFactory;
+        if (factory == null) return;
+        final ArrayList<CharSequence> missing = new ArrayList<>(texts.size());
+        synchronized (mPending){
+            for (CharSequence text : texts) {
+                if (text != null && mCache.get(text) == null && mPending.add(text)){
+                    missing.add(text);
+                }
+            }
+        }
+        if (missing.isEmpty()) return;
+        mExecutor.execute(() -> {
+            try {
+                for (CharSequence text : missing) {
+                    compute(factory, text);
+                }
+            } finally {
+                synchronized (mPending){
+                    mPending.removeAll(missing);
+                }
+            }
+        });
+    }
+
+    /**
+     * Computes the values of the given texts on the calling thread, unless present
+     *
+     * @param texts the texts
+     */
+    void precompute(@NonNull List<? extends CharSequence> texts){
+        final Factory<V> factory = mFactory;
+        if (factory == null) return;
+        for (CharSequence text : texts) {
+            if (text != null && mCache.get(text) == null){
+                compute(factory, text);
+            }
+        }
+    }
+
+    private void compute(Factory<V> factory, CharSequence text){
+        V value = factory.create(text);
+        // discard if the params changed meanwhile
+        if (factory == mFactory){
+            mCache.put(text, value);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ *  Copyright 2026 Philipp Niedermayer (github.com/eltos)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package eltos.simpledialogfragment;
+
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+@RunWith(RobolectricTestRunner.class)
+public class ValidationPipelineTest {
+
+    private static final long DEBOUNCE = 300;
+
+    private final ArrayList<Runnable> mTasks = new ArrayList<>();
+    // the values passed to the validator and the results passed to the listener
+    private final ArrayList<String> mValidated = new ArrayList<>();
+    private final ArrayList<String> mResults = new ArrayList<>();
+    private final ArrayList<Boolean> mPendingChanges = new ArrayList<>();
+    private boolean mFail = false;
+    private ValidationPipeline mPipeline;
+
+    @Before
+    public void setUp() {
+        mPipeline = new ValidationPipeline(mTasks::add, DEBOUNCE, (key, value) -> {
+            mValidated.add(key + "=" + value);
+            if (mFail) throw new IOException("offline");
+            return value != null && value.length() < 3 ? "too short" : null;
+        }, new ValidationPipeline.Listener() {
+            @Override
+            public void onValidated(@NonNull String key, @Nullable String value, @Nullable String error) {
+                mResults.add(key + "=" + value + ":" + error);
+            }
+
+            @Override
+            public void onPendingChanged(boolean pending) {
+                mPendingChanges.add(pending);
+            }
+        });
+    }
+
+    private void idle(long ms) {
+        shadowOf(Looper.getMainLooper()).idleFor(ms, TimeUnit.MILLISECONDS);
+    }
+
+    private void runTasks() {
+        while (!mTasks.isEmpty()) {
+            mTasks.remove(0).run();
+        }
+        idle(0);
+    }
+
+    @Test
+    public void debouncesChanges() {
+        mPipeline.onValueChanged("name", "a");
+        idle(DEBOUNCE / 2);
+        mPipeline.onValueChanged("name", "ab");
+        idle(DEBOUNCE - 1);
+        assertTrue(mTasks.isEmpty());
+
+        idle(1);
+        assertEquals(1, mTasks.size());
+        runTasks();
+        assertEquals(Arrays.asList("name=ab"), mValidated);
+        assertEquals(Arrays.asList("name=ab:too short"), mResults);
+    }
+
+    @Test
+    public void validatesNowWithoutDelay() {
+        mPipeline.validateNow("name", "abc");
+        idle(0);
+        runTasks();
+        assertEquals(Arrays.asList("name=abc:null"), mResults);
+    }
+
+    @Test
+    public void cancelsSupersededValues() {
+        mPipeline.onValueChanged("name", "ab");
+        idle(DEBOUNCE);
+        assertEquals(1, mTasks.size()); // started, but not run yet
+
+        mPipeline.onValueChanged("name", "abc");
+        idle(DEBOUNCE);
+        runTasks();
+        assertEquals(Arrays.asList("name=abc"), mValidated); // the first one was cancelled
+        assertEquals(Arrays.asList("name=abc:null"), mResults);
+        assertFalse(mPipeline.isPending());
+    }
+
+    @Test
+    public void returnsCachedResults() {
+        mPipeline.validateNow("name", "ab");
+        idle(0);
+        runTasks();
+        assertTrue(mPipeline.hasResult("name", "ab"));
+        assertEquals("too short", mPipeline.getError("name", "ab"));
+        assertFalse(mPipeline.hasResult("other", "ab"));
+
+        mPipeline.onValueChanged("name", "ab");
+        assertTrue(mTasks.isEmpty());
+        assertFalse(mPipeline.isPending());
+        assertEquals(Arrays.asList("name=ab"), mValidated);
+        assertEquals(Arrays.asList("name=ab:too short", "name=ab:too short"), mResults);
+    }
+
+    @Test
+    public void notifiesPendingChanges() {
+        mPipeline.onValueChanged("name", "abc");
+        assertEquals(Arrays.asList(true), mPendingChanges);
+        mPipeline.onValueChanged("city", "xy");
+        mPipeline.onValueChanged("name", "abcd");
+        assertEquals(Arrays.asList(true), mPendingChanges);
+        assertTrue(mPipeline.isPending());
+
+        idle(DEBOUNCE);
+        runTasks();
+        assertEquals(Arrays.asList(true, false), mPendingChanges);
+        assertFalse(mPipeline.isPending());
+
+        // a cached value does not become pending
+        mPipeline.onValueChanged("name", "abcd");
+        assertEquals(Arrays.asList(true, false), mPendingChanges);
+    }
+
+    @Test
+    public void doesNotCacheFailedValidations() {
+        mFail = true;
+        mPipeline.validateNow("name", "abc");
+        idle(0);
+        runTasks();
+        assertTrue(mResults.isEmpty());
+        assertFalse(mPipeline.hasResult("name", "abc"));
+        assertNull(mPipeline.getError("name", "abc"));
+        assertEquals(Arrays.asList(true, false), mPendingChanges);
+
+        mFail = false;
+        mPipeline.validateNow("name", "abc");
+        idle(0);
+        runTasks();
+        assertEquals(Arrays.asList("name=abc", "name=abc"), mValidated);
+        assertEquals(Arrays.asList("name=abc:null"), mResults);
+        assertTrue(mPipeline.hasResult("name", "abc"));
+    }
+}
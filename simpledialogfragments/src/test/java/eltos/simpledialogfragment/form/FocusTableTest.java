@@ -0,0 +1,88 @@
+/*
+ *  Copyright 2026 Philipp Niedermayer (github.com/eltos)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package eltos.simpledialogfragment.form;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FocusTableTest {
+
+    private static List<FormElement<?, ?>> fields(FormElement<?, ?>... fields) {
+        return Arrays.asList(fields);
+    }
+
+    @Test
+    public void skipsHints() {
+        // 0:hint 1:input 2:hint 3:hint 4:input 5:input 6:hint
+        FocusTable table = FocusTable.of(fields(Hint.plain("a"), Input.plain("b"), Hint.plain("c"),
+                Hint.plain("d"), Input.plain("e"), Input.plain("f"), Hint.plain("g")));
+
+        assertEquals(1, table.getFirst());
+        assertEquals(1, table.getNext(-1));
+        assertEquals(1, table.getNext(0));
+        assertEquals(4, table.getNext(1));
+        assertEquals(4, table.getNext(2));
+        assertEquals(5, table.getNext(4));
+        assertEquals(FocusTable.NONE, table.getNext(5));
+        assertEquals(FocusTable.NONE, table.getNext(6));
+        assertEquals(FocusTable.NONE, table.getNext(7));
+
+        assertFalse(table.isFocusable(0));
+        assertTrue(table.isFocusable(1));
+        assertFalse(table.isFocusable(3));
+        assertTrue(table.isFocusable(5));
+        assertFalse(table.isFocusable(-1));
+        assertFalse(table.isFocusable(7));
+    }
+
+    @Test
+    public void marksLastAndOnly() {
+        FocusTable table = FocusTable.of(fields(Input.plain("a"), Hint.plain("b"), Input.plain("c"), Hint.plain("d")));
+        assertFalse(table.isLast(0));
+        assertTrue(table.isLast(2));
+        assertFalse(table.isLast(3));
+        assertFalse(table.isOnly(0));
+        assertFalse(table.isOnly(2));
+
+        FocusTable single = FocusTable.of(fields(Hint.plain("a"), Input.plain("b")));
+        assertTrue(single.isOnly(1));
+        assertTrue(single.isLast(1));
+        assertFalse(single.isOnly(0));
+    }
+
+    @Test
+    public void handlesFormsWithoutFocusableElements() {
+        FocusTable hints = FocusTable.of(fields(Hint.plain("a"), Hint.plain("b")));
+        assertEquals(FocusTable.NONE, hints.getFirst());
+        assertEquals(FocusTable.NONE, hints.getNext(-1));
+        assertEquals(FocusTable.NONE, hints.getNext(0));
+        assertFalse(hints.isLast(1));
+
+        FocusTable empty = FocusTable.of(new ArrayList<FormElement<?, ?>>());
+        assertEquals(FocusTable.NONE, empty.getFirst());
+        assertEquals(FocusTable.NONE, FocusTable.EMPTY.getNext(-1));
+        assertFalse(FocusTable.EMPTY.isFocusable(0));
+    }
+}
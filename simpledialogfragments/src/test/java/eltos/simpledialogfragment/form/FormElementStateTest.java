@@ -0,0 +1,125 @@
+/*
+ *  Copyright 2026 Philipp Niedermayer (github.com/eltos)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package eltos.simpledialogfragment.form;
+
+import android.content.Context;
+import android.os.Bundle;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of view holders set up without a view, as used for elements of virtualized
+ * forms that are not in view
+ */
+@RunWith(RobolectricTestRunner.class)
+public class FormElementStateTest {
+
+    private final Context mContext = RuntimeEnvironment.getApplication();
+
+    private FormElementViewHolder<?> setUp(FormElement<?, ?> field, Bundle state) {
+        FormElementViewHolder<?> holder = field.buildViewHolder();
+        assertTrue(holder.setUpState(mContext, state, null));
+        return holder;
+    }
+
+    private static Bundle saved(FormElementViewHolder<?> holder) {
+        Bundle state = new Bundle();
+        holder.saveState(state);
+        return state;
+    }
+
+    @Test
+    public void inputReadsPresetOrSavedText() {
+        Bundle results = new Bundle();
+        setUp(Input.plain("a").text("preset"), null).putResults(results, "a");
+        assertEquals("preset", results.getString("a"));
+
+        Bundle state = new Bundle();
+        state.putString(InputViewHolder.SAVED_TEXT, " typed ");
+        FormElementViewHolder<?> holder = setUp(Input.plain("a").text("preset"), state);
+        holder.putResults(results, "a");
+        assertEquals("typed", results.getString("a"));
+        assertEquals("typed", saved(holder).getString(InputViewHolder.SAVED_TEXT));
+    }
+
+    @Test
+    public void inputValidatesWithoutView() {
+        FormElementViewHolder<?> holder = setUp(Input.plain("a").required(), null);
+        assertTrue(holder.isEmpty());
+        assertFalse(holder.posButtonEnabled(mContext));
+
+        Bundle state = new Bundle();
+        state.putString(InputViewHolder.SAVED_TEXT, "abc");
+        holder = setUp(Input.plain("a").required().max(2), state);
+        assertFalse(holder.isEmpty());
+        assertFalse(holder.validate(mContext));
+
+        holder = setUp(Input.plain("a").required().max(3), state);
+        assertTrue(holder.validate(mContext));
+    }
+
+    @Test
+    public void inputCorrectsCaseOfForcedSuggestion() {
+        Bundle state = new Bundle();
+        state.putString(InputViewHolder.SAVED_TEXT, "apple");
+        FormElementViewHolder<?> holder = setUp(
+                Input.plain("a").suggest("Apple", "Banana").forceSuggestion(), state);
+        assertTrue(holder.validate(mContext));
+        Bundle results = new Bundle();
+        holder.putResults(results, "a");
+        assertEquals("Apple", results.getString("a"));
+    }
+
+    @Test
+    public void checkReadsPresetOrSavedState() {
+        Bundle results = new Bundle();
+        setUp(Check.box("c").check(true), null).putResults(results, "c");
+        assertTrue(results.getBoolean("c"));
+
+        Bundle state = new Bundle();
+        state.putBoolean(CheckViewHolder.SAVED_CHECK_STATE, false);
+        FormElementViewHolder<?> holder = setUp(Check.box("c").check(true).required(), state);
+        holder.putResults(results, "c");
+        assertFalse(results.getBoolean("c"));
+        assertFalse(holder.validate(mContext));
+    }
+
+    @Test
+    public void spinnerReadsPresetOrSavedSelection() {
+        Bundle results = new Bundle();
+        setUp(Spinner.plain("s").items("x", "y").preset(1), null).putResults(results, "s");
+        assertEquals(1, results.getInt("s"));
+
+        FormElementViewHolder<?> holder = setUp(Spinner.plain("s").items("x", "y").required(), null);
+        assertTrue(holder.isEmpty());
+        assertFalse(holder.validate(mContext));
+
+        Bundle state = new Bundle();
+        state.putInt(SpinnerViewHolder.SAVED_POSITION, 0);
+        holder = setUp(Spinner.plain("s").items("x", "y").required(), state);
+        assertTrue(holder.validate(mContext));
+        assertEquals(0, saved(holder).getInt(SpinnerViewHolder.SAVED_POSITION));
+    }
+}
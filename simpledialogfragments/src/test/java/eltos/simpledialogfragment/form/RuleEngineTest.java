@@ -0,0 +1,193 @@
+/*
+ *  Copyright 2026 Philipp Niedermayer (github.com/eltos)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package eltos.simpledialogfragment.form;
+
+import android.content.Context;
+import android.os.Bundle;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class RuleEngineTest {
+
+    private static class FakeHost implements RuleEngine.Host {
+        final HashMap<String, Object> values = new HashMap<>();
+        final HashMap<String, String> shown = new HashMap<>();
+        final ArrayList<String> reads = new ArrayList<>();
+        int satisfiedChanges = 0;
+
+        @NonNull
+        @Override
+        public Context getContext() {
+            return RuntimeEnvironment.getApplication();
+        }
+
+        @Override
+        public boolean putRuleValue(@NonNull Bundle bundle, @NonNull String key) {
+            reads.add(key);
+            Object value = values.get(key);
+            if (value instanceof String) {
+                bundle.putString(key, (String) value);
+            } else if (value instanceof Integer) {
+                bundle.putInt(key, (Integer) value);
+            } else if (value instanceof Long) {
+                bundle.putLong(key, (Long) value);
+            }
+            return value != null;
+        }
+
+        @Nullable
+        @Override
+        public String validateRule(@Nullable String ruleKey, @NonNull Bundle bundle) {
+            return "short".equals(ruleKey) && bundle.getString("a", "").length() < 3 ? "too short" : null;
+        }
+
+        @Override
+        public void showRuleError(@NonNull String key, @Nullable String error) {
+            shown.put(key, error);
+        }
+
+        @Override
+        public void onRulesSatisfiedChanged() {
+            satisfiedChanges++;
+        }
+    }
+
+    private final FakeHost mHost = new FakeHost();
+
+    private RuleEngine engine(FormRule... rules) {
+        return new RuleEngine(mHost, Arrays.asList(rules));
+    }
+
+    @Test
+    public void showsAndClearsErrorOnTarget() {
+        RuleEngine engine = engine(FormRule.equal("a", "b").error("mismatch"));
+        mHost.values.put("a", "x");
+        mHost.values.put("b", "y");
+        engine.checkAll();
+        assertFalse(engine.isSatisfied());
+        assertEquals("mismatch", engine.getError("b"));
+        assertEquals("mismatch", mHost.shown.get("b"));
+        assertNull(engine.getError("a"));
+        assertEquals(1, mHost.satisfiedChanges);
+
+        mHost.values.put("b", "x");
+        engine.onChanged("b");
+        assertTrue(engine.isSatisfied());
+        assertNull(mHost.shown.get("b"));
+        assertEquals(2, mHost.satisfiedChanges);
+    }
+
+    @Test
+    public void skipsRulesReadingEmptyFields() {
+        RuleEngine engine = engine(FormRule.equal("a", "b").error("mismatch"));
+        mHost.values.put("a", "x");
+        engine.checkAll();
+        assertTrue(engine.isSatisfied());
+        assertEquals(0, mHost.satisfiedChanges);
+    }
+
+    @Test
+    public void checksOnlyRulesReadingChangedField() {
+        RuleEngine engine = engine(
+                FormRule.equal("a", "b").error("ab"),
+                FormRule.equal("c", "d").error("cd"));
+        engine.onChanged("c");
+        assertEquals(Arrays.asList("c", "d"), mHost.reads);
+        mHost.reads.clear();
+        engine.onChanged("x");
+        assertTrue(mHost.reads.isEmpty());
+    }
+
+    @Test
+    public void ascendingComparesNumbersByValue() {
+        RuleEngine engine = engine(FormRule.ascending("a", "b").error("order"));
+        mHost.values.put("a", "9");
+        mHost.values.put("b", "10"); // lexicographically "9" > "10"
+        engine.checkAll();
+        assertTrue(engine.isSatisfied());
+
+        mHost.values.put("a", "10.5");
+        engine.onChanged("a");
+        assertEquals("order", engine.getError("b"));
+
+        mHost.values.put("a", 3);
+        mHost.values.put("b", 20L);
+        engine.onChanged("a");
+        assertTrue(engine.isSatisfied());
+    }
+
+    @Test
+    public void ascendingComparesTextLexicographically() {
+        RuleEngine engine = engine(FormRule.ascending("a", "b").error("order"));
+        mHost.values.put("a", "beta");
+        mHost.values.put("b", "alpha");
+        engine.checkAll();
+        assertEquals("order", engine.getError("b"));
+
+        mHost.values.put("a", "ten");
+        mHost.values.put("b", "9"); // not both numbers
+        engine.checkAll();
+        assertEquals("order", engine.getError("b"));
+    }
+
+    @Test
+    public void displaysFirstViolatedRuleTargetingField() {
+        RuleEngine engine = engine(
+                FormRule.equal("a", "b").error("first"),
+                FormRule.ascending("b", "c").on("b").error("second"));
+        mHost.values.put("a", "1");
+        mHost.values.put("b", "5");
+        mHost.values.put("c", "2");
+        engine.checkAll();
+        assertEquals("first", engine.getError("b"));
+
+        mHost.values.put("a", "5");
+        engine.onChanged("a");
+        assertEquals("second", engine.getError("b"));
+        assertEquals("second", mHost.shown.get("b"));
+        assertFalse(engine.isSatisfied());
+    }
+
+    @Test
+    public void checksCustomRulesViaHost() {
+        RuleEngine engine = engine(FormRule.custom("short", "a"));
+        mHost.values.put("a", "ab");
+        engine.checkAll();
+        assertEquals("too short", engine.getError("a"));
+
+        mHost.values.put("a", "abc");
+        engine.onChanged("a");
+        assertTrue(engine.isSatisfied());
+    }
+}
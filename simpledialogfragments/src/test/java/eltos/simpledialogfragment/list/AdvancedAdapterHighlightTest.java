@@ -0,0 +1,116 @@
+/*
+ *  Copyright 2026 Philipp Niedermayer (github.com/eltos)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package eltos.simpledialogfragment.list;
+
+import android.text.Spannable;
+import android.text.style.BackgroundColorSpan;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+@RunWith(RobolectricTestRunner.class)
+public class AdvancedAdapterHighlightTest {
+
+    private static final int COLOR = 0xFF00FF00;
+
+    private AdvancedAdapter<String> mAdapter;
+    private AdvancedAdapter<String>.AdvancedFilter mFilter;
+
+    @Before
+    public void setUp() {
+        mAdapter = new AdvancedAdapter<String>() {
+            @Override
+            public AdvancedFilter getFilter() {
+                return mFilter;
+            }
+        };
+        mFilter = mAdapter.new AdvancedFilter(true, true) {
+            @Override
+            protected boolean matches(String object, @NonNull CharSequence constraint) {
+                return matches(object);
+            }
+
+            @Override
+            protected CharSequence getSearchableText(String object) {
+                return object;
+            }
+        };
+        mAdapter.setDataAndIds(new String[]{"Apple pie", "Caf\u00e9 cr\u00e8me", "Cafe\u0301 cre\u0300me"},
+                new long[]{1, 2, 3});
+    }
+
+    private void filter(String constraint) {
+        mFilter.publishResults(constraint, mFilter.performFiltering(constraint));
+    }
+
+    private static int[] spans(Spannable text) {
+        BackgroundColorSpan[] spans = text.getSpans(0, text.length(), BackgroundColorSpan.class);
+        int[] ranges = new int[spans.length * 2];
+        for (int i = 0; i < spans.length; i++) {
+            assertEquals(COLOR, spans[i].getBackgroundColor());
+            ranges[2 * i] = text.getSpanStart(spans[i]);
+            ranges[2 * i + 1] = text.getSpanEnd(spans[i]);
+        }
+        return ranges;
+    }
+
+    @Test
+    public void highlightsIndexedMatches() {
+        filter("cr");
+        assertEquals(2, mAdapter.getCount());
+        Spannable highlighted = mAdapter.highlight(0, "Caf\u00e9 cr\u00e8me", COLOR);
+        assertEquals("Caf\u00e9 cr\u00e8me", highlighted.toString());
+        assertArrayEquals(new int[]{5, 7}, spans(highlighted));
+    }
+
+    @Test
+    public void mapsMatchesToOriginalText() {
+        filter("cafe");
+        assertEquals(2, mAdapter.getCount());
+        // the combining mark following the match is included
+        assertArrayEquals(new int[]{0, 5}, spans(mAdapter.highlight(1, "Cafe\u0301 cre\u0300me", COLOR)));
+    }
+
+    @Test
+    public void fallsBackToPatternForOtherTexts() {
+        filter("cr");
+        assertArrayEquals(new int[]{6, 8, 12, 14}, spans(mAdapter.highlight(0, "Other crisp crust", COLOR)));
+        assertArrayEquals(new int[0], spans(mAdapter.highlight(0, "no match", COLOR)));
+    }
+
+    @Test
+    public void cachesHighlightsUntilResultsChange() {
+        filter("cr");
+        Spannable first = mAdapter.highlight(0, "Caf\u00e9 cr\u00e8me", COLOR);
+        assertSame(first, mAdapter.highlight(0, "Caf\u00e9 cr\u00e8me", COLOR));
+        assertNotSame(first, mAdapter.highlight(0, "Caf\u00e9 cr\u00e8me", 0xFFFF0000));
+
+        filter("cre");
+        Spannable second = mAdapter.highlight(0, "Caf\u00e9 cr\u00e8me", COLOR);
+        assertNotSame(first, second);
+        assertArrayEquals(new int[]{5, 8}, spans(second));
+    }
+}
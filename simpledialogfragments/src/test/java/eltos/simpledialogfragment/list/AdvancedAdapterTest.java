@@ -0,0 +1,324 @@
+/*
+ *  Copyright 2026 Philipp Niedermayer (github.com/eltos)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package eltos.simpledialogfragment.list;
+
+import androidx.annotation.NonNull;
+
+import android.os.Bundle;
+import android.os.Looper;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.text.Collator;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+@RunWith(RobolectricTestRunner.class)
+public class AdvancedAdapterTest {
+
+    private AdvancedAdapter<String> mAdapter;
+
+    @Before
+    public void setUp() {
+        mAdapter = new AdvancedAdapter<String>() {};
+        mAdapter.setDataAndIds(new String[]{"a", "b", "c", "d", "e"}, new long[]{10, 11, 12, 13, 14});
+        mAdapter.setChoiceMode(AdvancedAdapter.CHOICE_MODE_MULTIPLE);
+    }
+
+    @Test
+    public void storesItemsAndIds() {
+        assertEquals(5, mAdapter.getCount());
+        assertEquals("c", mAdapter.getItem(2));
+        assertEquals(12, mAdapter.getItemId(2));
+        assertEquals(Arrays.asList("a", "b", "c", "d", "e"), mAdapter.getData());
+    }
+
+    @Test
+    public void setDataAndIdsTruncatesToShorterArray() {
+        mAdapter.setDataAndIds(new String[]{"x", "y", "z"}, new long[]{1, 2});
+        assertEquals(2, mAdapter.getCount());
+        assertEquals(2, mAdapter.getItemId(1));
+    }
+
+    @Test
+    public void appendDataKeepsCheckStates() {
+        mAdapter.setItemChecked(1, true);
+        ArrayList<String> more = new ArrayList<>(Arrays.asList("f", "g"));
+        mAdapter.appendData(more, s -> (long) (s.charAt(0) - 'a' + 10));
+        assertEquals(7, mAdapter.getCount());
+        assertEquals(16, mAdapter.getItemId(6));
+        assertTrue(mAdapter.isItemChecked(1));
+        assertEquals(1, mAdapter.getCheckedItemCount());
+    }
+
+    @Test
+    public void checkedCountFollowsChanges() {
+        mAdapter.setItemChecked(0, true);
+        mAdapter.setItemChecked(0, true);
+        mAdapter.setItemChecked(3, true);
+        assertEquals(2, mAdapter.getCheckedItemCount());
+        mAdapter.setItemChecked(0, false);
+        mAdapter.setItemChecked(0, false);
+        assertEquals(1, mAdapter.getCheckedItemCount());
+        mAdapter.toggleChecked(3);
+        assertEquals(0, mAdapter.getCheckedItemCount());
+        assertFalse(mAdapter.isItemChecked(3));
+    }
+
+    @Test
+    public void setAllItemsChecked() {
+        mAdapter.setAllItemsChecked(true);
+        assertEquals(5, mAdapter.getCheckedItemCount());
+        assertArrayEquals(new long[]{10, 11, 12, 13, 14}, mAdapter.getCheckedItemIdArray());
+        mAdapter.setAllItemsChecked(false);
+        assertEquals(0, mAdapter.getCheckedItemCount());
+        assertEquals(0, mAdapter.getCheckedItemIdArray().length);
+    }
+
+    @Test
+    public void singleChoiceKeepsOneItem() {
+        mAdapter.setItemChecked(1, true);
+        mAdapter.setItemChecked(3, true);
+        mAdapter.setChoiceMode(AdvancedAdapter.CHOICE_MODE_SINGLE);
+        assertEquals(1, mAdapter.getCheckedItemCount());
+        assertTrue(mAdapter.isItemChecked(1));
+
+        mAdapter.setItemChecked(4, true);
+        assertEquals(1, mAdapter.getCheckedItemCount());
+        assertTrue(mAdapter.isItemChecked(4));
+        assertFalse(mAdapter.isItemChecked(1));
+    }
+
+    @Test
+    public void noChoiceUnchecksAll() {
+        mAdapter.setItemChecked(2, true);
+        mAdapter.setChoiceMode(AdvancedAdapter.CHOICE_MODE_NONE);
+        assertEquals(0, mAdapter.getCheckedItemCount());
+        mAdapter.setItemChecked(2, true);
+        assertEquals(0, mAdapter.getCheckedItemCount());
+    }
+
+    @Test
+    public void checkById() {
+        mAdapter.setItemChecked(13L, true);
+        mAdapter.setItemChecked(99L, true); // unknown id
+        assertTrue(mAdapter.isItemChecked(3));
+        assertEquals(1, mAdapter.getCheckedItemCount());
+
+        mAdapter.setItemsCheckedFromIds(new long[]{10, 14});
+        assertEquals(Arrays.asList(10L, 14L), mAdapter.getCheckedItemIds());
+        assertEquals(Arrays.asList("a", "e"), mAdapter.getCheckedItems());
+        assertEquals(Arrays.asList(0, 4), mAdapter.getCheckedItemOriginalPositions());
+    }
+
+    @Test
+    public void checkByIdsChecksAllItemsWithTheId() {
+        mAdapter.setDataAndIds(new String[]{"a", "b", "c", "d"}, new long[]{1, 2, 1, 3});
+        mAdapter.setItemsCheckedFromIds(new ArrayList<>(Arrays.asList(1L, 3L)));
+        assertEquals(Arrays.asList(0, 2, 3), mAdapter.getCheckedItemOriginalPositions());
+        assertEquals(3, mAdapter.getCheckedItemCount());
+
+        // a single id only checks the first item
+        mAdapter.setAllItemsChecked(false);
+        mAdapter.setItemChecked(1L, true);
+        assertEquals(Arrays.asList(0), mAdapter.getCheckedItemOriginalPositions());
+    }
+
+    @Test
+    public void equalItemsWithoutIdsAreCheckedIndependently() {
+        mAdapter.setData(new String[]{"a", "a", "b", "a"});
+        assertTrue(mAdapter.getItemId(0) != mAdapter.getItemId(1));
+        assertTrue(mAdapter.getItemId(1) != mAdapter.getItemId(3));
+
+        mAdapter.setItemChecked(mAdapter.getItemId(1), true);
+        assertEquals(Arrays.asList(1), mAdapter.getCheckedItemOriginalPositions());
+    }
+
+    @Test
+    public void newDataClearsCheckStates() {
+        mAdapter.setItemChecked(2, true);
+        mAdapter.setDataAndIds(new String[]{"x", "y"}, new long[]{1, 2});
+        assertEquals(0, mAdapter.getCheckedItemCount());
+        assertFalse(mAdapter.isItemChecked(0));
+    }
+
+    @Test
+    public void packedPositionsRoundTrip() {
+        mAdapter.setItemChecked(1, true);
+        mAdapter.setItemChecked(2, true);
+        mAdapter.setItemChecked(4, true);
+        int[] packed = mAdapter.getCheckedItemOriginalPositionsPacked();
+
+        mAdapter.setAllItemsChecked(false);
+        mAdapter.setItemsCheckedFromOriginalPositionsPacked(packed);
+        assertEquals(Arrays.asList(1, 2, 4), mAdapter.getCheckedItemOriginalPositions());
+        assertEquals(3, mAdapter.getCheckedItemCount());
+    }
+
+    @Test
+    public void savesCheckStatesAsPositionRuns() {
+        mAdapter.setItemChecked(1, true);
+        mAdapter.setItemChecked(2, true);
+        Bundle state = new Bundle();
+        mAdapter.saveCheckStates(state, "checked");
+        assertEquals(1, state.size());
+
+        mAdapter.setAllItemsChecked(false);
+        mAdapter.restoreCheckStates(state, "checked");
+        assertEquals(Arrays.asList(1, 2), mAdapter.getCheckedItemOriginalPositions());
+    }
+
+    @Test
+    public void packedPositionsAreClippedToDataSize() {
+        mAdapter.setItemsCheckedFromOriginalPositionsPacked(SelectionCodec.encode(new int[]{3, 4, 5, 9}));
+        assertEquals(Arrays.asList(3, 4), mAdapter.getCheckedItemOriginalPositions());
+        assertEquals(2, mAdapter.getCheckedItemCount());
+    }
+
+    private int filteredCount(AdvancedAdapter<String>.AdvancedFilter filter, String constraint) {
+        filter.publishResults(constraint, filter.performFiltering(constraint));
+        return mAdapter.getCount();
+    }
+
+    @Test
+    public void customMatchersAreNotNarrowedByDefault() {
+        mAdapter.setDataAndIds(new String[]{"a", "bb", "ccc"}, new long[]{1, 2, 3});
+        AdvancedAdapter<String>.AdvancedFilter filter = mAdapter.new AdvancedFilter() {
+            @Override
+            protected boolean matches(String object, @NonNull CharSequence constraint) {
+                return object.length() == constraint.length();
+            }
+        };
+        assertEquals(1, filteredCount(filter, "x"));
+        assertEquals(1, filteredCount(filter, "xx"));
+        assertEquals(1, filteredCount(filter, "xxx"));
+    }
+
+    @Test
+    public void indexedMatchingIsNarrowed() {
+        mAdapter.setDataAndIds(new String[]{"apple", "apricot", "banana", "Avocado"}, new long[]{1, 2, 3, 4});
+        AdvancedAdapter<String>.AdvancedFilter filter = mAdapter.new AdvancedFilter() {
+            @Override
+            protected boolean matches(String object, @NonNull CharSequence constraint) {
+                throw new AssertionError("all items are indexed");
+            }
+
+            @Override
+            protected CharSequence getSearchableText(String object) {
+                return object;
+            }
+        };
+        assertEquals(3, filteredCount(filter, "a"));
+        assertEquals(2, filteredCount(filter, "ap"));
+        assertEquals(1, filteredCount(filter, "apr"));
+        assertEquals(3, filteredCount(filter, "a")); // cached
+        assertEquals(1, filteredCount(filter, "av"));
+        assertEquals(0, filteredCount(filter, "avx"));
+    }
+
+    @Test
+    public void parallelFilteringOnItsOwnExecutor() throws Exception {
+        String[] items = new String[10000];
+        long[] ids = new long[items.length];
+        for (int i = 0; i < items.length; i++) {
+            items[i] = "item " + i;
+            ids[i] = i;
+        }
+        mAdapter.setDataAndIds(items, ids);
+        AdvancedAdapter<String>.AdvancedFilter filter = mAdapter.new AdvancedFilter() {
+            @Override
+            protected boolean matches(String object, @NonNull CharSequence constraint) {
+                return object.endsWith(constraint.toString());
+            }
+        };
+        // the single thread is busy filtering while chunks are submitted to it
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            filter.setParallel(executor, 100);
+            Future<Integer> count = executor.submit(() -> filteredCount(filter, "7"));
+            assertEquals(1000, (int) count.get(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void restoresPositionsOfSortedDataWhileSorting() {
+        ArrayList<Runnable> tasks = new ArrayList<>();
+        mAdapter.setSorting(Collator.getInstance(Locale.ROOT), tasks::add);
+        mAdapter.setDataAndIds(new String[]{"c", "a", "d", "b"}, new long[]{3, 1, 4, 2});
+        // positions saved from the sorted data: "b" and "c"
+        mAdapter.setItemsCheckedFromOriginalPositionsPacked(SelectionCodec.encode(new int[]{1, 2}));
+        assertEquals(2, mAdapter.getCheckedItemCount());
+
+        for (Runnable task : tasks) task.run();
+        shadowOf(Looper.getMainLooper()).idle();
+        assertEquals(Arrays.asList("a", "b", "c", "d"), mAdapter.getData());
+        assertEquals(Arrays.asList(2L, 3L), mAdapter.getCheckedItemIds());
+        assertEquals(2, mAdapter.getCheckedItemCount());
+    }
+
+    @Test
+    public void keepsChecksSetWhileSorting() {
+        ArrayList<Runnable> tasks = new ArrayList<>();
+        mAdapter.setSorting(Collator.getInstance(Locale.ROOT), tasks::add);
+        mAdapter.setDataAndIds(new String[]{"c", "a", "d", "b"}, new long[]{3, 1, 4, 2});
+        mAdapter.setItemsCheckedFromOriginalPositionsPacked(SelectionCodec.encode(new int[]{0}));
+        mAdapter.setItemChecked(2, true); // "d" in the unsorted data
+
+        for (Runnable task : tasks) task.run();
+        shadowOf(Looper.getMainLooper()).idle();
+        assertEquals(Arrays.asList(1L, 4L), mAdapter.getCheckedItemIds());
+    }
+
+    @Test
+    public void positionGettersSortWhileRestorePending() {
+        ArrayList<Runnable> tasks = new ArrayList<>();
+        mAdapter.setSorting(Collator.getInstance(Locale.ROOT), tasks::add);
+        mAdapter.setDataAndIds(new String[]{"c", "a", "b"}, new long[]{3, 1, 2});
+        int[] packed = SelectionCodec.encode(new int[]{2});
+        mAdapter.setItemsCheckedFromOriginalPositionsPacked(packed);
+
+        // e.g. saving the state again before the background sort finished
+        assertArrayEquals(packed, mAdapter.getCheckedItemOriginalPositionsPacked());
+        assertEquals(Arrays.asList("a", "b", "c"), mAdapter.getData());
+
+        // the outdated background result is discarded
+        for (Runnable task : tasks) task.run();
+        shadowOf(Looper.getMainLooper()).idle();
+        assertEquals(Arrays.asList(3L), mAdapter.getCheckedItemIds());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void positionOutOfRange() {
+        mAdapter.getItem(5);
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ *  Copyright 2026 Philipp Niedermayer (github.com/eltos)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package eltos.simpledialogfragment.list;
+
+import android.database.DataSetObserver;
+import android.database.sqlite.SQLiteDatabase;
+import android.os.Bundle;
+import android.os.Looper;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+@RunWith(RobolectricTestRunner.class)
+public class AdvancedCursorAdapterTest {
+
+    private static final int TOTAL = 50;
+
+    private final ArrayList<Runnable> mTasks = new ArrayList<>();
+    private SQLiteDatabase mDb;
+    private AdvancedCursorAdapter mAdapter;
+
+    @Before
+    public void setUp() {
+        mDb = SQLiteDatabase.create(null);
+        mDb.execSQL("CREATE TABLE items (_id INTEGER PRIMARY KEY, name TEXT)");
+        for (int i = 0; i < TOTAL; i++) {
+            mDb.execSQL("INSERT INTO items (_id, name) VALUES (?, ?)",
+                    new Object[]{100 + i, "item " + i});
+        }
+        mAdapter = new AdvancedCursorAdapter(constraint -> constraint == null
+                ? mDb.rawQuery("SELECT _id, name FROM items ORDER BY _id", null)
+                : mDb.rawQuery("SELECT _id, name FROM items WHERE name LIKE ? ESCAPE '\\' ORDER BY _id",
+                new String[]{AdvancedCursorAdapter.likePattern(constraint, false)}),
+                "_id", mTasks::add) {};
+        mAdapter.setChoiceMode(AdvancedAdapter.CHOICE_MODE_MULTIPLE);
+    }
+
+    @After
+    public void tearDown() {
+        mAdapter.close();
+        mDb.close();
+    }
+
+    private void runAll() {
+        shadowOf(Looper.getMainLooper()).idle();
+        while (!mTasks.isEmpty()) {
+            mTasks.remove(0).run();
+            shadowOf(Looper.getMainLooper()).idle();
+        }
+    }
+
+    private void start() {
+        mAdapter.start();
+        runAll();
+    }
+
+    private void filter(String constraint) {
+        mAdapter.getFilter().publishResults(constraint, null);
+        runAll();
+    }
+
+    private static long[] sorted(long[] ids) {
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    @Test
+    public void queriesOnlyOnceStarted() {
+        runAll();
+        assertEquals(0, mAdapter.getCount());
+        mAdapter.registerDataSetObserver(new DataSetObserver() {});
+        assertTrue(mTasks.isEmpty());
+        shadowOf(Looper.getMainLooper()).idle();
+        assertEquals(1, mTasks.size());
+        runAll();
+        assertEquals(TOTAL, mAdapter.getCount());
+    }
+
+    @Test
+    public void queriesInBackground() {
+        mAdapter.start();
+        assertEquals(0, mAdapter.getCount());
+        runAll();
+        assertEquals(TOTAL, mAdapter.getCount());
+        assertEquals(100, mAdapter.getItemId(0));
+
+        filter("item 4");
+        assertEquals(11, mAdapter.getCount()); // 4 and 40..49
+    }
+
+    @Test
+    public void keepsCheckedIdsAcrossQueries() {
+        start();
+        mAdapter.setItemChecked(1, true);
+        mAdapter.setItemChecked(40, true);
+        filter("item 4");
+        assertTrue(mAdapter.isItemChecked(1)); // item 40
+        assertFalse(mAdapter.isItemChecked(0));
+        assertArrayEquals(new long[]{101, 140}, sorted(mAdapter.getCheckedItemIdArray()));
+    }
+
+    @Test
+    public void checksPositionsBeforeFirstCursor() {
+        mAdapter.setOriginalPositionsChecked(new int[]{2, 5, TOTAL + 3});
+        assertEquals(0, mAdapter.getCount());
+        start();
+        assertEquals(2, mAdapter.getCheckedItemCount());
+        assertTrue(mAdapter.isItemChecked(2));
+        assertTrue(mAdapter.isItemChecked(5));
+        assertArrayEquals(new long[]{102, 105}, sorted(mAdapter.getCheckedItemIdArray()));
+    }
+
+    @Test
+    public void checksPositionsOfUnfilteredRowsWhileFiltered() {
+        start();
+        filter("item 4");
+        mAdapter.setOriginalPositionsChecked(new int[]{0});
+        assertFalse(mAdapter.isItemChecked(0)); // item 4
+        filter(null);
+        assertTrue(mAdapter.isItemChecked(0));
+        assertArrayEquals(new long[]{100}, mAdapter.getCheckedItemIdArray());
+    }
+
+    @Test
+    public void checksAllItemsWithoutReadingIdsOnUiThread() {
+        start();
+        filter("item 4");
+        mAdapter.setAllItemsChecked(true);
+        assertEquals(1, mTasks.size()); // ids are read in the background
+        assertEquals(TOTAL, mAdapter.getCheckedItemCount());
+        assertTrue(mAdapter.isItemChecked(0));
+
+        mAdapter.setItemChecked(0, false); // item 4
+        assertEquals(TOTAL - 1, mAdapter.getCheckedItemCount());
+        assertFalse(mAdapter.isItemChecked(0));
+
+        runAll();
+        assertEquals(TOTAL - 1, mAdapter.getCheckedItemCount());
+        assertFalse(mAdapter.isItemChecked(0));
+        assertTrue(mAdapter.isItemChecked(1));
+        long[] ids = mAdapter.getCheckedItemIdArray();
+        assertEquals(TOTAL - 1, ids.length);
+        assertFalse(Arrays.toString(ids).contains("104"));
+    }
+
+    @Test
+    public void providesCheckedIdsOnceResolved() {
+        start();
+        mAdapter.setAllItemsChecked(true);
+        mAdapter.setItemChecked(0, false);
+        assertTrue(mAdapter.isResolvingCheckedIds());
+        assertEquals(0, mAdapter.getCheckedItemIdArray().length); // not read on the UI thread
+        runAll();
+        assertFalse(mAdapter.isResolvingCheckedIds());
+        assertEquals(TOTAL - 1, mAdapter.getCheckedItemIdArray().length);
+        assertFalse(mAdapter.isItemChecked(0));
+    }
+
+    @Test
+    public void savesAllCheckedAsUncheckedIds() {
+        start();
+        mAdapter.setAllItemsChecked(true);
+        mAdapter.setItemChecked(1, false);
+        Bundle state = new Bundle();
+        mAdapter.saveCheckStates(state, "checked");
+        assertArrayEquals(new long[]{101}, state.getLongArray("checked"));
+        runAll();
+
+        mAdapter.setAllItemsChecked(false);
+        mAdapter.restoreCheckStates(state, "checked");
+        assertTrue(mAdapter.isResolvingCheckedIds());
+        assertEquals(TOTAL - 1, mAdapter.getCheckedItemCount());
+        runAll();
+        assertEquals(TOTAL - 1, mAdapter.getCheckedItemIdArray().length);
+        assertFalse(mAdapter.isItemChecked(1));
+        assertTrue(mAdapter.isItemChecked(2));
+    }
+
+    @Test
+    public void savesPendingPositions() {
+        mAdapter.setOriginalPositionsChecked(new int[]{3});
+        Bundle state = new Bundle();
+        mAdapter.saveCheckStates(state, "checked");
+
+        mAdapter.restoreCheckStates(state, "checked");
+        start();
+        assertArrayEquals(new long[]{103}, mAdapter.getCheckedItemIdArray());
+    }
+
+    @Test
+    public void uncheckingAllDiscardsPendingCheckAll() {
+        start();
+        mAdapter.setAllItemsChecked(true);
+        mAdapter.setAllItemsChecked(false);
+        runAll();
+        assertEquals(0, mAdapter.getCheckedItemCount());
+        assertEquals(0, mAdapter.getCheckedItemIdArray().length);
+    }
+}
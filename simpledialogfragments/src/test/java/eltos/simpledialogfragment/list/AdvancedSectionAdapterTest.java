@@ -0,0 +1,101 @@
+/*
+ *  Copyright 2026 Philipp Niedermayer (github.com/eltos)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package eltos.simpledialogfragment.list;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.text.Collator;
+import java.util.Locale;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+@RunWith(RobolectricTestRunner.class)
+public class AdvancedSectionAdapterTest {
+
+    private AdvancedSectionAdapter<String> mAdapter;
+    private AdvancedAdapter<String>.AdvancedFilter mFilter;
+    private int mTitleCalls = 0;
+
+    @Before
+    public void setUp() {
+        mAdapter = new AdvancedSectionAdapter<String>() {
+            @Override
+            public String getSectionTitle(String object) {
+                mTitleCalls++;
+                return object.substring(0, 1).toUpperCase(Locale.ROOT);
+            }
+
+            @Override
+            public AdvancedFilter getFilter() {
+                return mFilter;
+            }
+        };
+        mFilter = mAdapter.new AdvancedFilter(true, false) {
+            @Override
+            protected boolean matches(String object, @NonNull CharSequence constraint) {
+                return matches(object);
+            }
+        };
+    }
+
+    private String[] titles() {
+        Object[] sections = mAdapter.getSections();
+        String[] titles = new String[sections.length];
+        for (int i = 0; i < sections.length; i++) {
+            titles[i] = String.valueOf(sections[i]);
+        }
+        return titles;
+    }
+
+    @Test
+    public void sectionsOfUnsortedData() {
+        mAdapter.setDataAndIds(new String[]{"apple", "avocado", "banana", "apricot"}, new long[]{1, 2, 3, 4});
+        mAdapter.notifyDataSetChanged();
+        assertArrayEquals(new String[]{"A", "B", "A"}, titles());
+        assertEquals(2, mAdapter.getPositionForSection(1));
+        assertEquals(1, mAdapter.getSectionForPosition(2));
+        assertEquals(2, mAdapter.getSectionForPosition(3));
+    }
+
+    @Test
+    public void sectionsAreComputedWhenSorting() {
+        mAdapter.setSorting(Collator.getInstance(Locale.ROOT), null);
+        mAdapter.setDataAndIds(new String[]{"cherry", "apple", "banana", "avocado", "blueberry"},
+                new long[]{1, 2, 3, 4, 5});
+        assertEquals(5, mTitleCalls);
+
+        mAdapter.notifyDataSetChanged();
+        assertArrayEquals(new String[]{"A", "B", "C"}, titles());
+        assertEquals(0, mAdapter.getPositionForSection(0));
+        assertEquals(2, mAdapter.getPositionForSection(1));
+        assertEquals(4, mAdapter.getPositionForSection(2));
+        assertEquals(1, mAdapter.getSectionForPosition(3));
+
+        // filtered sections are derived from the sorted titles on the filtering thread
+        mFilter.publishResults("rr", mFilter.performFiltering("rr"));
+        assertEquals(2, mAdapter.getCount());
+        assertArrayEquals(new String[]{"B", "C"}, titles());
+        assertEquals(1, mAdapter.getPositionForSection(1));
+        assertEquals(5, mTitleCalls);
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ *  Copyright 2026 Philipp Niedermayer (github.com/eltos)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package eltos.simpledialogfragment.list;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class IdIndexTest {
+
+    @Test
+    public void emptyIndex() {
+        IdIndex index = new IdIndex(new long[0]);
+        assertEquals(IdIndex.NOT_FOUND, index.positionOf(0));
+        assertEquals(0, index.getDuplicateCount());
+    }
+
+    @Test
+    public void findsAllIds() {
+        long[] ids = new long[1000];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = i * 1024L - 500; // keys colliding in the low bits, some negative
+        }
+        IdIndex index = new IdIndex(ids);
+        for (int i = 0; i < ids.length; i++) {
+            assertEquals(i, index.positionOf(ids[i]));
+            assertEquals(IdIndex.NOT_FOUND, index.nextPositionOf(i));
+        }
+        assertEquals(IdIndex.NOT_FOUND, index.positionOf(1));
+        assertEquals(IdIndex.NOT_FOUND, index.positionOf(Long.MAX_VALUE));
+        assertEquals(0, index.getDuplicateCount());
+    }
+
+    @Test
+    public void chainsDuplicatePositions() {
+        IdIndex index = new IdIndex(new long[]{7, 3, 7, 5, 3, 7});
+        assertEquals(3, index.getDuplicateCount());
+
+        assertEquals(0, index.positionOf(7));
+        assertEquals(2, index.nextPositionOf(0));
+        assertEquals(5, index.nextPositionOf(2));
+        assertEquals(IdIndex.NOT_FOUND, index.nextPositionOf(5));
+
+        assertEquals(1, index.positionOf(3));
+        assertEquals(4, index.nextPositionOf(1));
+        assertEquals(IdIndex.NOT_FOUND, index.nextPositionOf(4));
+
+        assertEquals(3, index.positionOf(5));
+        assertEquals(IdIndex.NOT_FOUND, index.nextPositionOf(3));
+    }
+
+    @Test
+    public void chainsIdsFirstSeenAfterTheFirstDuplicate() {
+        IdIndex index = new IdIndex(new long[]{1, 1, 2, 2, 3, 2, 3});
+        assertEquals(4, index.getDuplicateCount());
+
+        assertEquals(0, index.positionOf(1));
+        assertEquals(1, index.nextPositionOf(0));
+        assertEquals(IdIndex.NOT_FOUND, index.nextPositionOf(1));
+
+        assertEquals(2, index.positionOf(2));
+        assertEquals(3, index.nextPositionOf(2));
+        assertEquals(5, index.nextPositionOf(3));
+        assertEquals(IdIndex.NOT_FOUND, index.nextPositionOf(5));
+
+        assertEquals(4, index.positionOf(3));
+        assertEquals(6, index.nextPositionOf(4));
+        assertEquals(IdIndex.NOT_FOUND, index.nextPositionOf(6));
+    }
+}
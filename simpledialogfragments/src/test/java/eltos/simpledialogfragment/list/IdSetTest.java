@@ -0,0 +1,96 @@
+/*
+ *  Copyright 2026 Philipp Niedermayer (github.com/eltos)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package eltos.simpledialogfragment.list;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class IdSetTest {
+
+    @Test
+    public void addsAndRemovesIds() {
+        IdSet set = new IdSet();
+        assertTrue(set.isEmpty());
+        assertTrue(set.add(3));
+        assertTrue(set.add(-7));
+        assertFalse(set.add(3));
+        assertEquals(2, set.size());
+        assertTrue(set.contains(-7));
+        assertFalse(set.contains(4));
+
+        assertTrue(set.remove(3));
+        assertFalse(set.remove(3));
+        assertFalse(set.contains(3));
+        assertEquals(1, set.size());
+
+        set.clear();
+        assertTrue(set.isEmpty());
+        assertFalse(set.contains(-7));
+    }
+
+    @Test
+    public void growsAndKeepsAllIds() {
+        IdSet set = new IdSet();
+        for (long id = 0; id < 1000; id++) {
+            set.add(id * 1024); // ids sharing low bits
+        }
+        assertEquals(1000, set.size());
+        for (long id = 0; id < 1000; id++) {
+            assertTrue(set.contains(id * 1024));
+        }
+        long[] ids = set.toArray();
+        Arrays.sort(ids);
+        assertEquals(0, ids[0]);
+        assertEquals(999 * 1024, ids[999]);
+    }
+
+    @Test
+    public void matchesHashSetAfterRandomOperations() {
+        // removals within probe sequences must not lose the following ids
+        IdSet set = new IdSet();
+        HashSet<Long> expected = new HashSet<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 20000; i++) {
+            long id = random.nextInt(200);
+            if (random.nextBoolean()) {
+                assertEquals(expected.add(id), set.add(id));
+            } else {
+                assertEquals(expected.remove(id), set.remove(id));
+            }
+        }
+        assertEquals(expected.size(), set.size());
+        for (long id = 0; id < 200; id++) {
+            assertEquals(expected.contains(id), set.contains(id));
+        }
+        long[] ids = set.toArray();
+        Arrays.sort(ids);
+        long[] expectedIds = new long[expected.size()];
+        int n = 0;
+        for (Long id : expected) expectedIds[n++] = id;
+        Arrays.sort(expectedIds);
+        assertArrayEquals(expectedIds, ids);
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ *  Copyright 2026 Philipp Niedermayer (github.com/eltos)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package eltos.simpledialogfragment.list;
+
+import android.database.DataSetObserver;
+import android.os.Bundle;
+import android.os.Looper;
+import android.view.View;
+import android.view.ViewGroup;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+@RunWith(RobolectricTestRunner.class)
+public class PagedAdapterTest {
+
+    private static final int TOTAL = 12;
+
+    private final ArrayList<Runnable> mTasks = new ArrayList<>();
+    private final ArrayList<String> mRequests = new ArrayList<>();
+    private PagedAdapter<Integer> mAdapter;
+
+    @Before
+    public void setUp() {
+        PagedAdapter.PageSource<Integer> source = (constraint, offset, pageSize) -> {
+            mRequests.add(constraint + "@" + offset);
+            ArrayList<Integer> page = new ArrayList<>();
+            for (int i = offset; i < Math.min(TOTAL, offset + pageSize); i++) {
+                page.add(i);
+            }
+            return page;
+        };
+        mAdapter = new PagedAdapter<Integer>(source, i -> (long) i, 5, mTasks::add) {
+            @Override
+            protected View getItemView(int position, View convertView, ViewGroup parent) {
+                return convertView;
+            }
+        };
+        mAdapter.setChoiceMode(AdvancedAdapter.CHOICE_MODE_MULTIPLE);
+    }
+
+    private void runAll() {
+        shadowOf(Looper.getMainLooper()).idle();
+        while (!mTasks.isEmpty()) {
+            mTasks.remove(0).run();
+            shadowOf(Looper.getMainLooper()).idle();
+        }
+    }
+
+    private void loadMore() {
+        mAdapter.getView(mAdapter.getCount() - 2, null, null); // prefetches the next page
+        runAll();
+    }
+
+    @Test
+    public void loadsOnlyOnceStarted() {
+        assertTrue(mTasks.isEmpty());
+        assertEquals(1, mAdapter.getCount()); // the loading row
+
+        mAdapter.start();
+        mAdapter.start();
+        runAll();
+        assertEquals(Arrays.asList("null@0"), mRequests);
+        assertEquals(6, mAdapter.getCount());
+        assertEquals(Integer.valueOf(4), mAdapter.getItem(4));
+    }
+
+    @Test
+    public void startsWhenAttached() {
+        mAdapter.registerDataSetObserver(new DataSetObserver() {});
+        assertTrue(mTasks.isEmpty());
+        runAll();
+        assertEquals(Arrays.asList("null@0"), mRequests);
+    }
+
+    @Test
+    public void loadsPagesUntilExhausted() {
+        mAdapter.start();
+        runAll();
+        loadMore();
+        loadMore();
+        assertEquals(Arrays.asList("null@0", "null@5", "null@10"), mRequests);
+        assertEquals(TOTAL, mAdapter.getCount()); // no loading row
+        assertFalse(mAdapter.isLoading());
+    }
+
+    @Test
+    public void checksPresetPositionsOnceLoaded() {
+        mAdapter.setOriginalPositionsChecked(new int[]{1, 3, 7});
+        assertEquals(3, mAdapter.getCheckedItemCount());
+
+        mAdapter.start();
+        runAll();
+        assertTrue(mAdapter.isItemChecked(1));
+        assertTrue(mAdapter.isItemChecked(3));
+        assertEquals(3, mAdapter.getCheckedItemCount());
+
+        loadMore();
+        assertTrue(mAdapter.isItemChecked(7));
+        assertEquals(3, mAdapter.getCheckedItemCount());
+        List<Long> ids = mAdapter.getCheckedItemIds();
+        assertEquals(Arrays.asList(1L, 3L, 7L), ids);
+    }
+
+    @Test
+    public void keepsCheckedIdsAcrossConstraints() {
+        mAdapter.start();
+        runAll();
+        mAdapter.setItemChecked(2, true);
+        mAdapter.getFilter().publishResults("x", null);
+        runAll();
+        assertEquals(Arrays.asList("null@0", "x@0"), mRequests);
+        assertEquals(Arrays.asList(2L), mAdapter.getCheckedItemIds());
+    }
+
+    @Test
+    public void savesCheckedIdsOfUnloadedItems() {
+        mAdapter.start();
+        runAll();
+        mAdapter.setItemChecked(2, true);
+        mAdapter.setItemChecked(9L, true); // not loaded yet
+        Bundle state = new Bundle();
+        mAdapter.saveCheckStates(state, "checked");
+        assertEquals(1, state.size());
+
+        mAdapter.setAllItemsChecked(false);
+        mAdapter.restoreCheckStates(state, "checked");
+        assertEquals(2, mAdapter.getCheckedItemCount());
+        assertTrue(mAdapter.isItemChecked(2));
+        loadMore();
+        assertTrue(mAdapter.isItemChecked(9));
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ *  Copyright 2026 Philipp Niedermayer (github.com/eltos)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package eltos.simpledialogfragment.list;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SearchIndexTest {
+
+    private static char[] q(String query){
+        return SearchIndex.fold(query, true);
+    }
+
+    @Test
+    public void foldsCaseAndDiacritics() {
+        assertArrayEquals("ecole a".toCharArray(), SearchIndex.fold("École À", true));
+        assertArrayEquals("Ecole A".toCharArray(), SearchIndex.fold("École À", false));
+        assertArrayEquals(new char[0], SearchIndex.fold(null, true));
+    }
+
+    @Test
+    public void nullTextsAreNotIndexed() {
+        SearchIndex index = new SearchIndex(new CharSequence[]{"one", null, "three"}, true);
+        assertTrue(index.isIndexed(0));
+        assertFalse(index.isIndexed(1));
+        assertTrue(index.isIndexed(2));
+        assertNull(index.textOf(1));
+        assertEquals("three", index.textOf(2));
+        assertEquals(-1, index.indexOf(1, q("o"), false, 0));
+    }
+
+    @Test
+    public void findsMatchesWithinItemOnly() {
+        SearchIndex index = new SearchIndex(new CharSequence[]{"ab", "cd"}, true);
+        assertEquals(-1, index.indexOf(0, q("bc"), false, 0)); // not across items
+        assertEquals(1, index.indexOf(1, q("d"), false, 0));
+        assertEquals(-1, index.indexOf(1, q("cde"), false, 0));
+    }
+
+    @Test
+    public void matchesAnywhereOrAtWordBeginnings() {
+        SearchIndex index = new SearchIndex(new CharSequence[]{"Apple pineapple_pie"}, true);
+        assertEquals(0, index.indexOf(0, q("apple"), false, 0));
+        assertEquals(10, index.indexOf(0, q("apple"), false, 1));
+        assertEquals(6, index.indexOf(0, q("pi"), true, 1));
+        // the underscore is a word char, like for the regex \b
+        assertEquals(-1, index.indexOf(0, q("pie"), true, 0));
+        assertEquals(-1, index.indexOf(0, q("apple"), true, 1));
+    }
+
+    @Test
+    public void matchRangesFindsAllMatches() {
+        SearchIndex index = new SearchIndex(new CharSequence[]{"banana"}, true);
+        assertArrayEquals(new int[]{1, 3, 3, 5}, index.matchRanges(0, q("an"), false, 0));
+        assertArrayEquals(new int[]{3, 5}, index.matchRanges(0, q("an"), false, 2));
+        assertArrayEquals(new int[]{1, 4}, index.matchRanges(0, q("ana"), false, 0)); // non-overlapping
+        assertArrayEquals(new int[0], index.matchRanges(0, q(""), false, 0));
+        assertArrayEquals(new int[0], index.matchRanges(0, q("x"), false, 0));
+    }
+
+    @Test
+    public void matchRangesMapsToOriginalOffsets() {
+        // precomposed chars are folded 1:1
+        SearchIndex index = new SearchIndex(new CharSequence[]{"Café crème"}, true);
+        assertArrayEquals(new int[]{0, 4}, index.matchRanges(0, q("cafe"), false, 0));
+        assertArrayEquals(new int[]{5, 10}, index.matchRanges(0, q("creme"), true, 0));
+
+        // combining marks are dropped, so that offsets shift
+        index = new SearchIndex(new CharSequence[]{"Cafe\u0301 cre\u0300me"}, true);
+        assertEquals(8, index.indexOf(0, q("me"), false, 0));
+        assertArrayEquals(new int[]{10, 12}, index.matchRanges(0, q("me"), false, 0));
+        assertArrayEquals(new int[]{6, 12}, index.matchRanges(0, q("creme"), true, 0));
+        // a match ending before a dropped mark includes the mark
+        assertArrayEquals(new int[]{0, 5}, index.matchRanges(0, q("cafe"), false, 0));
+        assertArrayEquals(new int[]{6, 10}, index.matchRanges(0, q("cre"), false, 0));
+    }
+}
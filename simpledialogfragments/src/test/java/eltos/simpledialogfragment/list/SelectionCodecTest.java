@@ -0,0 +1,95 @@
+/*
+ *  Copyright 2026 Philipp Niedermayer (github.com/eltos)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package eltos.simpledialogfragment.list;
+
+import org.junit.Test;
+
+import java.util.BitSet;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class SelectionCodecTest {
+
+    @Test
+    public void encodesConsecutivePositionsAsRuns() {
+        assertArrayEquals(new int[]{0, 3, 5, 1, 9, 2},
+                SelectionCodec.encode(new int[]{10, 1, 0, 5, 2, 9, 1}));
+        assertArrayEquals(new int[0], SelectionCodec.encode(new int[0]));
+    }
+
+    @Test
+    public void encodesLargeSelectionCompactly() {
+        BitSet all = new BitSet();
+        all.set(0, 1_000_000);
+        assertArrayEquals(new int[]{0, 1_000_000}, SelectionCodec.encode(all));
+    }
+
+    @Test
+    public void encodesManyRuns() {
+        // more runs than the initial buffer holds
+        BitSet even = new BitSet();
+        for (int i = 0; i < 100; i += 2) {
+            even.set(i);
+        }
+        int[] runs = SelectionCodec.encode(even);
+        assertEquals(100, runs.length);
+        assertEquals(50, SelectionCodec.count(runs));
+        assertEquals(even, SelectionCodec.decode(runs));
+    }
+
+    @Test
+    public void decodesRuns() {
+        int[] runs = {2, 3, 7, 1};
+        assertArrayEquals(new int[]{2, 3, 4, 7}, SelectionCodec.decodePositions(runs));
+        BitSet positions = SelectionCodec.decode(runs);
+        assertEquals(4, positions.cardinality());
+        assertTrue(positions.get(4) && positions.get(7));
+        assertEquals(4, SelectionCodec.count(runs));
+        assertEquals(2, SelectionCodec.first(runs));
+    }
+
+    @Test
+    public void roundTrips() {
+        int[] positions = {0, 1, 2, 4, 8, 9, 100, 101, 102};
+        assertArrayEquals(positions, SelectionCodec.decodePositions(SelectionCodec.encode(positions)));
+    }
+
+    @Test
+    public void handlesNullAndEmptyRuns() {
+        assertEquals(0, SelectionCodec.count(null));
+        assertEquals(-1, SelectionCodec.first(null));
+        assertEquals(-1, SelectionCodec.first(new int[]{3, 0}));
+        assertEquals(5, SelectionCodec.first(new int[]{3, 0, 5, 1}));
+        assertArrayEquals(new int[0], SelectionCodec.decodePositions(null));
+        assertTrue(SelectionCodec.decode(null).isEmpty());
+    }
+
+    @Test
+    public void rejectsMalformedRuns() {
+        assertThrows(IllegalArgumentException.class, () -> SelectionCodec.decode(new int[]{1}));
+        assertThrows(IllegalArgumentException.class, () -> SelectionCodec.decode(new int[]{-1, 2}));
+        assertThrows(IllegalArgumentException.class, () -> SelectionCodec.count(new int[]{0, -2}));
+        assertThrows(IllegalArgumentException.class,
+                () -> SelectionCodec.decodePositions(new int[]{Integer.MAX_VALUE, 2}));
+        assertThrows(IllegalArgumentException.class,
+                () -> SelectionCodec.count(new int[]{0, Integer.MAX_VALUE, 1, Integer.MAX_VALUE - 1}));
+    }
+}
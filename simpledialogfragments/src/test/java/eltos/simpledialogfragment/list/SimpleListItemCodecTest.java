@@ -0,0 +1,139 @@
+/*
+ *  Copyright 2026 Philipp Niedermayer (github.com/eltos)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package eltos.simpledialogfragment.list;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.net.Uri;
+import android.os.Bundle;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+
+@RunWith(RobolectricTestRunner.class)
+public class SimpleListItemCodecTest {
+
+    private static final String KEY = "items";
+
+    private static ArrayList<SimpleListItem> items() {
+        return new ArrayList<>(Arrays.asList(
+                new SimpleListItem("a", 7),
+                new SimpleListItem("b", -1),
+                new SimpleListItem("a", 3),
+                new SimpleListItem(null, 9)));
+    }
+
+    @Test
+    public void writesPlainArrays() {
+        Bundle bundle = new Bundle();
+        SimpleListItemCodec.put(bundle, KEY, items());
+        assertArrayEquals(new String[]{"a", "b"}, bundle.getStringArray(KEY + ".labels"));
+        assertArrayEquals(new long[]{7, -1, 3, 9}, bundle.getLongArray(KEY + ".ids"));
+        assertArrayEquals(new int[]{0, 1, 0, -1}, bundle.getIntArray(KEY + ".indices"));
+    }
+
+    @Test
+    public void roundTrips() {
+        Bundle bundle = new Bundle();
+        SimpleListItemCodec.put(bundle, KEY, items());
+        ArrayList<SimpleListItem> read = SimpleListItemCodec.get(bundle, KEY);
+        assertEquals(4, read.size());
+        for (int i = 0; i < read.size(); i++) {
+            assertEquals(items().get(i).getString(), read.get(i).getString());
+            assertEquals(items().get(i).getId(), read.get(i).getId());
+        }
+    }
+
+    @Test
+    public void roundTripsEmptyList() {
+        Bundle bundle = new Bundle();
+        SimpleListItemCodec.put(bundle, KEY, new ArrayList<>());
+        assertEquals(0, SimpleListItemCodec.get(bundle, KEY).size());
+    }
+
+    @Test
+    public void returnsNullIfAbsentOrRemoved() {
+        Bundle bundle = new Bundle();
+        assertNull(SimpleListItemCodec.get(bundle, KEY));
+        SimpleListItemCodec.put(bundle, KEY, items());
+        SimpleListItemCodec.remove(bundle, KEY);
+        assertNull(SimpleListItemCodec.get(bundle, KEY));
+        assertFalse(bundle.containsKey(KEY + ".ids"));
+    }
+
+    @Test
+    public void rejectsMalformedArrays() {
+        Bundle bundle = new Bundle();
+        bundle.putStringArray(KEY + ".labels", new String[]{"a"});
+        bundle.putLongArray(KEY + ".ids", new long[]{1, 2});
+        bundle.putIntArray(KEY + ".indices", new int[]{0});
+        assertThrows(IllegalArgumentException.class, () -> SimpleListItemCodec.get(bundle, KEY));
+
+        bundle.putIntArray(KEY + ".indices", new int[]{0, 1});
+        assertThrows(IllegalArgumentException.class, () -> SimpleListItemCodec.get(bundle, KEY));
+
+        bundle.remove(KEY + ".labels");
+        assertThrows(IllegalArgumentException.class, () -> SimpleListItemCodec.get(bundle, KEY));
+    }
+
+    public static class Creator implements SimpleImageListDialog.ImageCreator {
+        @Override
+        public Bitmap create(Context context, long id, int width, int height, Bundle extras) {
+            return null;
+        }
+    }
+
+    @Test
+    public void roundTripsImages() {
+        ArrayList<ImageListItem> items = new ArrayList<>(Arrays.asList(
+                new ImageListItem("a", 1).image(42),
+                new ImageListItem("b", 2).image(Uri.parse("content://images/2")),
+                new ImageListItem("c", 3).image(Creator.class),
+                new ImageListItem("d", 4).image(Creator.class),
+                new ImageListItem("e", 5)));
+        Bundle bundle = new Bundle();
+        SimpleListItemCodec.putImages(bundle, KEY, items);
+        assertArrayEquals(new String[]{Creator.class.getName()}, bundle.getStringArray(KEY + ".imageCreators"));
+
+        ArrayList<ImageListItem> read = SimpleListItemCodec.getImages(bundle, KEY);
+        assertEquals(5, read.size());
+        assertEquals("c", read.get(2).getString());
+        assertEquals(3, read.get(2).getId());
+        assertEquals(42, read.get(0).getImageResource());
+        assertEquals(Uri.parse("content://images/2"), read.get(1).getImageUri());
+        assertSame(Creator.class, read.get(2).getImageCreator());
+        assertSame(Creator.class, read.get(3).getImageCreator());
+        assertEquals(0, read.get(4).getImageResource());
+        assertNull(read.get(4).getImageUri());
+        assertNull(read.get(4).getImageCreator());
+
+        SimpleListItemCodec.remove(bundle, KEY);
+        assertEquals(0, bundle.size());
+    }
+}